@@ -11,6 +11,10 @@ repositories {
     mavenCentral()
 }
 
+dependencies {
+    testImplementation("junit:junit:4.13.2")
+}
+
 intellij {
     version.set("2023.2.6")
     type.set("IC") // Target IDE Platform
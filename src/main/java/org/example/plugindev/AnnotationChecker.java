@@ -1,8 +1,5 @@
 package org.example.plugindev;
 
-import com.intellij.notification.Notification;
-import com.intellij.notification.NotificationType;
-import com.intellij.notification.Notifications;
 import com.intellij.openapi.project.Project;
 import com.intellij.psi.*;
 import com.intellij.psi.search.GlobalSearchScope;
@@ -19,31 +16,30 @@ public class AnnotationChecker {
     private static final Logger logger = Logger.getInstance(AnnotationChecker.class);
 
     private static final String AUTOWIRED_ANNOTATION = "org.springframework.beans.factory.annotation.Autowired";
-    private static final Set<String> ANNOTATION_SET = new HashSet<>();
 
-    static {
-        ANNOTATION_SET.add("org.springframework.stereotype.Service");
-        ANNOTATION_SET.add("org.springframework.stereotype.Component");
-        ANNOTATION_SET.add("org.springframework.stereotype.Repository");
-        ANNOTATION_SET.add("org.springframework.stereotype.Controller");
-    }
-
-    private final Set<PsiClass> visitedBeans = new HashSet<>();
-    private final Set<PsiClass> initializedBeans = new HashSet<>();
-    private final List<PsiClass> currentPath = new ArrayList<>();
-    private final Set<String> visitedCycles = new HashSet<>();
+    private final Set<List<String>> visitedCycles = new HashSet<>();
     private final Set<String> beanClassNames = new HashSet<>();
+    private final BeanGraphExtractor graphExtractor;
+
+    /**
+     * Creates a checker which asks the {@link BeanCycleService} whether every checked bean is part of a cycle.
+     */
+    public AnnotationChecker() {
+        this(null);
+    }
 
+    /**
+     * Creates a checker which adds every checked bean to a {@link BeanGraph} instead of searching
+     * for circular dependencies itself, cycles are then detected once on the complete graph.
+     *
+     * @param graphExtractor the extractor collecting the beans, or null to look cycles up per bean
+     */
+    public AnnotationChecker(BeanGraphExtractor graphExtractor) {
+        this.graphExtractor = graphExtractor;
+    }
 
-    private void showErrorNotification(String message, Project project) {
-        Notification notification = new Notification(
-                "annotationCheckerGroup",
-                "Annotation checker",
-                message,
-                NotificationType.ERROR
-        );
-        Notifications.Bus.notify(notification, project);
-        throw new RuntimeException("Error notification shown: " + message);
+    private void reportFinding(String message, PsiElement element, Project project) {
+        BeanFindingsService.getInstance(project).addFinding(BeanFinding.of("Annotation checker", element, message));
     }
 
     /**
@@ -67,14 +63,14 @@ public class AnnotationChecker {
         addConstructorParameters(psiClass);
         addSetterMethodParameters(psiClass);
 
-//        if (!hasServiceAnnotation(psiClass) && hasAutowiredFields(psiClass)
+//        if (!StereotypeClassifier.isStereotype(psiClass) && hasAutowiredFields(psiClass)
 //                && !psiClass.isInterface() && !psiClass.hasModifierProperty(PsiModifier.ABSTRACT)) {
 //            if (!isBeanDefinedInXml(psiClass, project)) {
 //                warnMissingServiceAnnotation(psiClass, project);
 //            }
 //        }
 
-        if (hasServiceAnnotation(psiClass)) {
+        if (StereotypeClassifier.isStereotype(psiClass)) {
             beanClassNames.add(psiClass.getQualifiedName());
             checkConstructors(psiClass, project);
             checkConstructorParametersForServiceAnnotation(psiClass, project);
@@ -85,11 +81,31 @@ public class AnnotationChecker {
             qualifierChecker.checkQualifier(psiClass, project);
             beanClassNames.addAll(qualifierChecker.getQualifierNames());
 
-            CyclicDependencyDetector cyclicDependencyDetector = new CyclicDependencyDetector(qualifierChecker);
-            cyclicDependencyDetector.hasCircularDependency(psiClass, visitedBeans, initializedBeans, currentPath, visitedCycles, project);
+            if (graphExtractor != null) {
+                graphExtractor.addBean(psiClass);
+            } else {
+                checkCycle(psiClass, project);
+            }
+
+            if (BeanAnnotationIndex.getInstance(project).getEndpointClasses(GlobalSearchScope.projectScope(project)).contains(psiClass)) {
+                PayloadChecker payloadChecker = new PayloadChecker();
+                payloadChecker.checkAnnotation(psiClass, project);
+            }
+        }
+    }
 
-            PayloadChecker payloadChecker = new PayloadChecker();
-            payloadChecker.checkAnnotation(psiClass, project);
+    /**
+     * Reports the cycle the given bean is part of, unless its component only cycles through deferred
+     * dependencies or the same cycle was already reported by this checker.
+     *
+     * @param psiClass the bean class
+     * @param project  the current project
+     */
+    private void checkCycle(PsiClass psiClass, Project project) {
+        BeanCycleService.BeanCycle cycle = BeanCycleService.getInstance(project).findCycle(psiClass);
+        if (cycle != null && cycle.kind() != BeanCycleFinder.CycleKind.DEFERRED
+                && visitedCycles.add(BeanCycleFinder.canonicalCycle(cycle.beans()))) {
+            CyclicDependencyDetector.reportCycles(Map.of(cycle.beans(), cycle.kind()), project);
         }
     }
 
@@ -201,7 +217,7 @@ public class AnnotationChecker {
     void warnMissingServiceAnnotation(PsiClass psiClass, Project project) {
         String message = "Class " + psiClass.getQualifiedName() +
                 " contains @Autowired fields but is not annotated with @Service or similar. Consider annotating the class with @Service.";
-        showErrorNotification(message, project);
+        reportFinding(message, psiClass, project);
         logger.warn(message);
     }
 
@@ -239,12 +255,12 @@ public class AnnotationChecker {
                         // Check if the parameter is a built-in Java class
                         if (!Objects.requireNonNull(parameterClass.getQualifiedName()).startsWith("java.")) {
                             // Check if the parameter is annotated with @Service
-                            if (!hasServiceAnnotation(parameterClass)) {
+                            if (!isBean(parameterClass, psiClass, project)) {
                                 String message = "Parameter " + parameter.getName() + " in class " + psiClass.getQualifiedName() +
                                         " has a type " + parameterClass.getQualifiedName() +
                                         " that is not annotated with @Service. Consider annotating " +
                                         parameterClass.getName() + " with @Service.";
-                                showErrorNotification(message, project);
+                                reportFinding(message, psiClass, project);
                                 logger.warn(message);
                             }
                         }
@@ -271,12 +287,12 @@ public class AnnotationChecker {
                         PsiClass parameterClass = ((PsiClassType) parameterType).resolve();
                         if (parameterClass != null && !parameterClass.isInterface() && !parameterClass.hasModifierProperty(PsiModifier.ABSTRACT)) {
                             if (!Objects.requireNonNull(parameterClass.getQualifiedName()).startsWith("java.")) {
-                                if (!hasServiceAnnotation(parameterClass)) {
+                                if (!isBean(parameterClass, psiClass, project)) {
                                     String message = "Parameter " + parameter.getName() + " in class " + psiClass.getQualifiedName() +
                                             " has a type " + parameterClass.getQualifiedName() +
                                             " that is not annotated with @Service. Consider annotating " +
                                             parameterClass.getName() + " with @Service.";
-                                    showErrorNotification(message, project);
+                                    reportFinding(message, psiClass, project);
                                     logger.warn(message);
                                 }
                             }
@@ -301,12 +317,12 @@ public class AnnotationChecker {
                 PsiClass fieldClass = ((PsiClassType) fieldType).resolve();
                 if (fieldClass != null && !fieldClass.isInterface() && !fieldClass.hasModifierProperty(PsiModifier.ABSTRACT)) {
                     if (!Objects.requireNonNull(fieldClass.getQualifiedName()).startsWith("java.")) {
-                        if (!hasServiceAnnotation(fieldClass) && (field.hasAnnotation(AUTOWIRED_ANNOTATION))) {
+                        if (!isBean(fieldClass, psiClass, project) && (field.hasAnnotation(AUTOWIRED_ANNOTATION))) {
                             String message = "Field " + field.getName() + " in class " + psiClass.getQualifiedName() +
                                     " has a type " + fieldClass.getQualifiedName() +
                                     " that is not annotated with @Service. Consider annotating " +
                                     fieldClass.getQualifiedName() + " with @Service.";
-                            showErrorNotification(message, project);
+                            reportFinding(message, psiClass, project);
                             logger.warn(message);
                         }
                     }
@@ -328,12 +344,12 @@ public class AnnotationChecker {
                         if (parameterClass != null && !parameterClass.isInterface() && !parameterClass.hasModifierProperty(PsiModifier.ABSTRACT)) {
                             // Check if the parameter is annotated with @Autowired
                             if (!Objects.requireNonNull(parameterClass.getQualifiedName()).startsWith("java.")) {
-                                if (!hasServiceAnnotation(parameterClass)) {
+                                if (!isBean(parameterClass, psiClass, project)) {
                                     String message = "Parameter " + parameter.getName() + " in class " + psiClass.getQualifiedName() +
                                             " has a type " + parameter.getName() +
                                             " that is not annotated with @Service. Consider annotating " +
                                             parameterClass.getName() + " with @Service.";
-                                    showErrorNotification(message, project);
+                                    reportFinding(message, psiClass, project);
                                     logger.warn(message);
                                 }
                             }
@@ -401,7 +417,7 @@ public class AnnotationChecker {
         if (!hasAutowiredConstructor && !hasDefaultConstructor) {
             String message = "Class " + psiClass.getQualifiedName() +
                     " has multiple constructors but none are annotated with @Autowired. At least one constructor should be annotated with @Autowired.";
-            showErrorNotification(message, project);
+            reportFinding(message, psiClass, project);
             logger.warn(message);
         }
     }
@@ -431,7 +447,7 @@ public class AnnotationChecker {
                     if (requiredAttribute == null || !"false".equals(requiredAttribute.getText())) {
                         String message = "Constructor " + constructor.getName() +
                                 " annotated with @Autowired does not have required = false.";
-                        showErrorNotification(message, project);
+                        reportFinding(message, constructor, project);
                         logger.warn(message);
                         return;
                     }
@@ -442,21 +458,23 @@ public class AnnotationChecker {
 
 
     /**
-     * Checks if a class has a service annotation (@Service, @Component, @Repository).
+     * Checks if instances of a class are provided as beans, either because the class carries a stereotype
+     * annotation, because a @Bean factory method visible from the class returns it or because a Spring XML
+     * file declares a bean of the class.
      *
-     * @param psiClass the class to inspect
-     * @return true if the class has a service annotation, false otherwise
+     * @param psiClass       the class to inspect
+     * @param injectingClass the class declaring the injection point
+     * @param project        the current project
+     * @return true if the class is provided as a bean, false otherwise
      */
-    private static boolean hasServiceAnnotation(PsiClass psiClass) {
-        PsiModifierList modifierList = psiClass.getModifierList();
-        if (modifierList != null) {
-            for (String annotation : ANNOTATION_SET) {
-                if (modifierList.findAnnotation(annotation) != null) {
-                    return true;
-                }
-            }
+    private static boolean isBean(PsiClass psiClass, PsiClass injectingClass, Project project) {
+        if (StereotypeClassifier.isStereotype(psiClass)) {
+            return true;
         }
-        return false;
+        String className = Objects.requireNonNull(psiClass.getQualifiedName());
+        GlobalSearchScope scope = BeanSearchScopes.getInstance(project).getInjectionScope(injectingClass);
+        return !BeanFactoryMethodIndex.getInstance(project).findProviders(className, scope).isEmpty()
+                || SpringXmlModelCache.getInstance(project).isBeanClass(className);
     }
 
     /**
@@ -0,0 +1,280 @@
+package org.example.plugindev;
+
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.psi.*;
+import com.intellij.psi.impl.java.stubs.index.JavaStubIndexKeys;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.stubs.StubIndex;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import com.intellij.psi.util.PsiTreeUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Discovers the classes relevant to bean validation through the annotation stub index.
+ * Lookups only touch stub-level PSI, so scanning a package does not load the syntax tree
+ * of every class in it. Results are cached per scope until the next PSI modification.
+ * All methods must be called inside a read action.
+ */
+@Service(Service.Level.PROJECT)
+public final class BeanAnnotationIndex {
+
+    private static final String AUTOWIRED_ANNOTATION = "org.springframework.beans.factory.annotation.Autowired";
+    private static final String QUALIFIER_ANNOTATION = "org.springframework.beans.factory.annotation.Qualifier";
+    private static final String BEAN_ANNOTATION = "org.springframework.context.annotation.Bean";
+    private static final Set<String> ENDPOINT_CLASS_ANNOTATIONS = new HashSet<>();
+    private static final Set<String> ENDPOINT_METHOD_ANNOTATIONS = new HashSet<>();
+
+    static {
+        ENDPOINT_CLASS_ANNOTATIONS.add("javax.ws.rs.Path");
+        ENDPOINT_CLASS_ANNOTATIONS.add("jakarta.ws.rs.Path");
+        ENDPOINT_CLASS_ANNOTATIONS.add("org.springframework.stereotype.Controller");
+        ENDPOINT_CLASS_ANNOTATIONS.add("org.springframework.web.bind.annotation.RestController");
+        ENDPOINT_CLASS_ANNOTATIONS.add("org.springframework.web.bind.annotation.RequestMapping");
+
+        ENDPOINT_METHOD_ANNOTATIONS.add("javax.ws.rs.GET");
+        ENDPOINT_METHOD_ANNOTATIONS.add("javax.ws.rs.POST");
+        ENDPOINT_METHOD_ANNOTATIONS.add("javax.ws.rs.PUT");
+        ENDPOINT_METHOD_ANNOTATIONS.add("javax.ws.rs.DELETE");
+        ENDPOINT_METHOD_ANNOTATIONS.add("jakarta.ws.rs.GET");
+        ENDPOINT_METHOD_ANNOTATIONS.add("jakarta.ws.rs.POST");
+        ENDPOINT_METHOD_ANNOTATIONS.add("jakarta.ws.rs.PUT");
+        ENDPOINT_METHOD_ANNOTATIONS.add("jakarta.ws.rs.DELETE");
+        ENDPOINT_METHOD_ANNOTATIONS.add("org.springframework.web.bind.annotation.RequestMapping");
+        ENDPOINT_METHOD_ANNOTATIONS.add("org.springframework.web.bind.annotation.GetMapping");
+        ENDPOINT_METHOD_ANNOTATIONS.add("org.springframework.web.bind.annotation.PostMapping");
+        ENDPOINT_METHOD_ANNOTATIONS.add("org.springframework.web.bind.annotation.PutMapping");
+        ENDPOINT_METHOD_ANNOTATIONS.add("org.springframework.web.bind.annotation.DeleteMapping");
+        ENDPOINT_METHOD_ANNOTATIONS.add("org.springframework.web.bind.annotation.PatchMapping");
+    }
+
+    private final Project project;
+    private final CachedValue<Map<List<Object>, Object>> cache;
+
+    public BeanAnnotationIndex(@NotNull Project project) {
+        this.project = project;
+        this.cache = CachedValuesManager.getManager(project).createCachedValue(
+                () -> CachedValueProvider.Result.create(new ConcurrentHashMap<>(), PsiModificationTracker.getInstance(project)),
+                false);
+    }
+
+    /**
+     * Gets the index service of the given project.
+     *
+     * @param project the current project
+     * @return the index service
+     */
+    public static BeanAnnotationIndex getInstance(@NotNull Project project) {
+        return project.getService(BeanAnnotationIndex.class);
+    }
+
+    /**
+     * Finds the classes annotated with a stereotype annotation, including composed stereotypes.
+     *
+     * @param scope the scope to search
+     * @return the stereotype classes
+     */
+    public Set<PsiClass> getStereotypeClasses(@NotNull GlobalSearchScope scope) {
+        // Resolved before, as the cache map must not be updated from within its own computeIfAbsent
+        Set<String> stereotypeAnnotations = getStereotypeAnnotations();
+        return getCached("stereotypes", scope, s -> {
+            Set<PsiClass> classes = new LinkedHashSet<>();
+            for (String annotation : stereotypeAnnotations) {
+                for (PsiModifierListOwner owner : findAnnotatedElements(annotation, s)) {
+                    if (owner instanceof PsiClass psiClass && !psiClass.isAnnotationType()) {
+                        classes.add(psiClass);
+                    }
+                }
+            }
+            return classes;
+        });
+    }
+
+    /**
+     * Finds the stereotype annotations: the built-in ones and every annotation type which is,
+     * transitively, meta-annotated with one of them.
+     *
+     * @return the fully qualified names of the stereotype annotations
+     */
+    public Set<String> getStereotypeAnnotations() {
+        return getCached("stereotypeAnnotations", GlobalSearchScope.allScope(project), s -> {
+            Set<String> annotations = new LinkedHashSet<>(StereotypeClassifier.BUILT_IN_STEREOTYPES);
+            Deque<String> pending = new ArrayDeque<>(annotations);
+            while (!pending.isEmpty()) {
+                for (PsiModifierListOwner owner : findAnnotatedElements(pending.pop(), s)) {
+                    if (owner instanceof PsiClass annotationClass && annotationClass.isAnnotationType()
+                            && annotationClass.getQualifiedName() != null && annotations.add(annotationClass.getQualifiedName())) {
+                        pending.push(annotationClass.getQualifiedName());
+                    }
+                }
+            }
+            return annotations;
+        });
+    }
+
+    /**
+     * Finds the classes declaring @Autowired fields, constructors, methods or parameters.
+     *
+     * @param scope the scope to search
+     * @return the classes declaring injection points
+     */
+    public Set<PsiClass> getAutowiringClasses(@NotNull GlobalSearchScope scope) {
+        return getCached("autowiring", scope, s -> {
+            Set<PsiClass> classes = new LinkedHashSet<>();
+            for (PsiModifierListOwner owner : findAnnotatedElements(AUTOWIRED_ANNOTATION, s)) {
+                PsiClass containingClass = PsiTreeUtil.getStubOrPsiParentOfType(owner, PsiClass.class);
+                if (containingClass != null) {
+                    classes.add(containingClass);
+                }
+            }
+            return classes;
+        });
+    }
+
+    /**
+     * Finds the classes the annotation checks apply to: the stereotype classes and the classes declaring
+     * injection points. Both come from annotation stubs, so a class outside this set never needs its syntax tree.
+     *
+     * @param scope the scope to search
+     * @return the stereotype and autowiring classes
+     */
+    public Set<PsiClass> getCandidateClasses(@NotNull GlobalSearchScope scope) {
+        Set<PsiClass> classes = new LinkedHashSet<>(getStereotypeClasses(scope));
+        classes.addAll(getAutowiringClasses(scope));
+        return classes;
+    }
+
+    /**
+     * Finds the @Bean factory methods.
+     *
+     * @param scope the scope to search
+     * @return the factory methods
+     */
+    public List<PsiMethod> getBeanMethods(@NotNull GlobalSearchScope scope) {
+        return getCached("beanMethods", scope, s -> {
+            List<PsiMethod> methods = new ArrayList<>();
+            for (PsiModifierListOwner owner : findAnnotatedElements(BEAN_ANNOTATION, s)) {
+                if (owner instanceof PsiMethod method) {
+                    methods.add(method);
+                }
+            }
+            return methods;
+        });
+    }
+
+    /**
+     * Finds the classes carrying a class level @Qualifier annotation, grouped by qualifier value.
+     *
+     * @param scope the scope to search
+     * @return the qualified classes by qualifier value
+     */
+    public Map<String, Set<PsiClass>> getClassQualifiers(@NotNull GlobalSearchScope scope) {
+        return getCached("qualifiers", scope, s -> {
+            Map<String, Set<PsiClass>> qualifiers = new HashMap<>();
+            for (PsiAnnotation annotation : findAnnotations(QUALIFIER_ANNOTATION, s)) {
+                if (getAnnotatedElement(annotation) instanceof PsiClass psiClass) {
+                    String value = getStringValue(annotation);
+                    if (value != null && !value.isEmpty()) {
+                        qualifiers.computeIfAbsent(value, k -> new LinkedHashSet<>()).add(psiClass);
+                    }
+                }
+            }
+            return qualifiers;
+        });
+    }
+
+    /**
+     * Finds the JAX-RS and Spring MVC endpoint classes, that is classes annotated as resources or controllers
+     * and classes declaring request handler methods.
+     *
+     * @param scope the scope to search
+     * @return the endpoint classes
+     */
+    public Set<PsiClass> getEndpointClasses(@NotNull GlobalSearchScope scope) {
+        return getCached("endpoints", scope, s -> {
+            Set<PsiClass> classes = new LinkedHashSet<>();
+            for (String annotation : ENDPOINT_CLASS_ANNOTATIONS) {
+                for (PsiModifierListOwner owner : findAnnotatedElements(annotation, s)) {
+                    if (owner instanceof PsiClass psiClass) {
+                        classes.add(psiClass);
+                    }
+                }
+            }
+            for (String annotation : ENDPOINT_METHOD_ANNOTATIONS) {
+                for (PsiModifierListOwner owner : findAnnotatedElements(annotation, s)) {
+                    if (owner instanceof PsiMethod method && method.getContainingClass() != null) {
+                        classes.add(method.getContainingClass());
+                    }
+                }
+            }
+            return classes;
+        });
+    }
+
+    /**
+     * Gets the package of a class from its file stub.
+     *
+     * @param psiClass the class
+     * @return the package name, empty for the default package
+     */
+    static String getPackageName(PsiClass psiClass) {
+        PsiFile file = psiClass.getContainingFile();
+        return file instanceof PsiClassOwner classOwner ? classOwner.getPackageName() : "";
+    }
+
+    /**
+     * Gets a cached lookup result, computing it on first use. The computation must not call getCached,
+     * since a {@link ConcurrentHashMap} forbids updating itself from a mapping function.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T getCached(String kind, GlobalSearchScope scope, Function<GlobalSearchScope, T> compute) {
+        return (T) cache.getValue().computeIfAbsent(List.of(kind, scope), key -> compute.apply(scope));
+    }
+
+    private List<PsiModifierListOwner> findAnnotatedElements(String annotationName, GlobalSearchScope scope) {
+        List<PsiModifierListOwner> owners = new ArrayList<>();
+        for (PsiAnnotation annotation : findAnnotations(annotationName, scope)) {
+            PsiModifierListOwner owner = getAnnotatedElement(annotation);
+            if (owner != null) {
+                owners.add(owner);
+            }
+        }
+        return owners;
+    }
+
+    /**
+     * Looks the annotation up by its short name in the stub index and keeps the usages resolving to it.
+     */
+    private Collection<PsiAnnotation> findAnnotations(String annotationName, GlobalSearchScope scope) {
+        List<PsiAnnotation> annotations = new ArrayList<>();
+        Collection<PsiAnnotation> candidates = StubIndex.getElements(JavaStubIndexKeys.ANNOTATIONS,
+                StringUtil.getShortName(annotationName), project, scope, PsiAnnotation.class);
+        for (PsiAnnotation annotation : candidates) {
+            if (annotation.hasQualifiedName(annotationName)) {
+                annotations.add(annotation);
+            }
+        }
+        return annotations;
+    }
+
+    private static PsiModifierListOwner getAnnotatedElement(PsiAnnotation annotation) {
+        if (annotation.getOwner() instanceof PsiModifierList modifierList
+                && modifierList.getParent() instanceof PsiModifierListOwner owner) {
+            return owner;
+        }
+        return null;
+    }
+
+    private static String getStringValue(PsiAnnotation annotation) {
+        PsiAnnotationMemberValue value = annotation.findAttributeValue("value");
+        return value != null ? value.getText().replaceAll("\"", "").trim() : null;
+    }
+}
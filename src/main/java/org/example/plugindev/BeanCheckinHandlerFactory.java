@@ -0,0 +1,234 @@
+package org.example.plugindev;
+
+import com.intellij.notification.Notification;
+import com.intellij.notification.NotificationAction;
+import com.intellij.notification.NotificationType;
+import com.intellij.notification.Notifications;
+import com.intellij.concurrency.SensitiveProgressWrapper;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.EmptyProgressIndicator;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vcs.CheckinProjectPanel;
+import com.intellij.openapi.vcs.changes.CommitContext;
+import com.intellij.openapi.vcs.checkin.CheckinHandler;
+import com.intellij.openapi.vcs.checkin.CheckinHandlerFactory;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.*;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.search.searches.ReferencesSearch;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hooks bean validation into the commit dialog.
+ * The handler validates the classes of the committed files and the beans that depend on them
+ * within the time budget configured in {@link BeanValidationSettings}. It never blocks the commit,
+ * when the budget runs out it reports which part of the affected beans was covered. The validation is a run
+ * of its own in the Bean Findings tool window, reported by the coverage notification only.
+ */
+public class BeanCheckinHandlerFactory extends CheckinHandlerFactory {
+
+    private static final Logger logger = Logger.getInstance(BeanCheckinHandlerFactory.class);
+
+    @Override
+    public @NotNull CheckinHandler createHandler(@NotNull CheckinProjectPanel panel, @NotNull CommitContext commitContext) {
+        return new BeanCheckinHandler(panel);
+    }
+
+    /**
+     * Result of a pre-commit validation run.
+     *
+     * @param checkedClasses  the number of classes validated before the budget ran out
+     * @param affectedClasses the number of committed and dependent classes found
+     * @param findings        the number of classes which produced a finding
+     * @param complete        whether all affected classes were validated
+     */
+    private record CheckinCoverage(int checkedClasses, int affectedClasses, int findings, boolean complete) {
+    }
+
+    private static class BeanCheckinHandler extends CheckinHandler {
+        private final CheckinProjectPanel panel;
+
+        BeanCheckinHandler(CheckinProjectPanel panel) {
+            this.panel = panel;
+        }
+
+        @Override
+        public ReturnResult beforeCheckin() {
+            Project project = panel.getProject();
+            if (DumbService.isDumb(project)) {
+                logger.info("Skipping pre-commit bean validation while indices are being built");
+                return ReturnResult.COMMIT;
+            }
+            long deadline = System.currentTimeMillis() + BeanValidationSettings.getInstance().getCheckinTimeBudgetMs();
+            Collection<VirtualFile> files = panel.getVirtualFiles();
+
+            try {
+                CheckinCoverage coverage = ProgressManager.getInstance().runProcessWithProgressSynchronously(
+                        () -> ReadAction.compute(() -> validateCommittedBeans(files, project, deadline)),
+                        "Validating beans", true, project);
+                showCoverageNotification(coverage, project);
+            } catch (ProcessCanceledException ex) {
+                logger.info("Pre-commit bean validation cancelled");
+            }
+            return ReturnResult.COMMIT;
+        }
+    }
+
+    /**
+     * Validates the classes of the committed files first, then the beans which reference them,
+     * until the deadline is reached. Only the candidates of the {@link BeanAnnotationIndex}, the stereotype
+     * and autowiring classes, are validated, and references are only searched in their files, so the search
+     * never parses a file without a candidate. The work runs under an indicator which is cancelled at the deadline,
+     * so a class whose check is still running then is abandoned instead of overrunning the budget.
+     *
+     * @param files    the committed files
+     * @param project  the current project
+     * @param deadline the time in milliseconds after which no further class is validated
+     * @return the coverage achieved within the budget
+     */
+    private static CheckinCoverage validateCommittedBeans(Collection<VirtualFile> files, Project project, long deadline) {
+        ProgressIndicator parent = ProgressManager.getInstance().getProgressIndicator();
+        ProgressIndicator budget = new SensitiveProgressWrapper(parent != null ? parent : new EmptyProgressIndicator());
+        ScheduledFuture<?> timeout = AppExecutorUtil.getAppScheduledExecutorService().schedule(
+                budget::cancel, Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+        try {
+            Set<PsiClass> candidates = BeanAnnotationIndex.getInstance(project).getCandidateClasses(GlobalSearchScope.projectScope(project));
+            Set<VirtualFile> committedFiles = new HashSet<>(files);
+            Set<PsiClass> affectedClasses = new LinkedHashSet<>();
+            for (PsiClass candidate : candidates) {
+                if (committedFiles.contains(candidate.getContainingFile().getVirtualFile())) {
+                    affectedClasses.add(candidate);
+                }
+            }
+            List<PsiClass> committedClasses = findCommittedClasses(files, project);
+            boolean[] dependentsComplete = new boolean[1];
+            runWithinBudget(() -> dependentsComplete[0] = collectDependentBeans(
+                    committedClasses, candidates, affectedClasses, project, deadline), budget);
+
+            BeanFindingsService findingsService = BeanFindingsService.getInstance(project);
+            findingsService.startRun(false);
+            int checkedClasses = 0;
+            int findings = 0;
+            for (PsiClass psiClass : affectedClasses) {
+                int findingsBefore = findingsService.getFindingCount();
+                if (budget.isCanceled() || !runWithinBudget(() -> new AnnotationChecker().checkAnnotations(psiClass, project), budget)) {
+                    break;
+                }
+                if (findingsService.getFindingCount() > findingsBefore) {
+                    findings++;
+                }
+                checkedClasses++;
+            }
+            boolean complete = dependentsComplete[0] && checkedClasses == affectedClasses.size();
+            return new CheckinCoverage(checkedClasses, affectedClasses.size(), findings, complete);
+        } finally {
+            timeout.cancel(false);
+        }
+    }
+
+    /**
+     * Runs a step of the validation under the budget indicator.
+     *
+     * @param step   the step
+     * @param budget the indicator cancelled at the deadline
+     * @return true if the step completed, false if the deadline cut it short
+     * @throws ProcessCanceledException if the user cancelled the validation
+     */
+    private static boolean runWithinBudget(Runnable step, ProgressIndicator budget) {
+        try {
+            ProgressManager.getInstance().executeProcessUnderProgress(step, budget);
+            return true;
+        } catch (ProcessCanceledException ex) {
+            ProgressManager.checkCanceled();
+            return false;
+        }
+    }
+
+    /**
+     * Finds the classes declared in the committed Java files.
+     *
+     * @param files   the committed files
+     * @param project the current project
+     * @return the classes declared in the committed files
+     */
+    private static List<PsiClass> findCommittedClasses(Collection<VirtualFile> files, Project project) {
+        List<PsiClass> classes = new ArrayList<>();
+        PsiManager psiManager = PsiManager.getInstance(project);
+        for (VirtualFile file : files) {
+            if (!file.isValid() || !file.getName().endsWith(".java")) {
+                continue;
+            }
+            PsiFile psiFile = psiManager.findFile(file);
+            if (psiFile instanceof PsiJavaFile javaFile) {
+                classes.addAll(Arrays.asList(javaFile.getClasses()));
+            }
+        }
+        return classes;
+    }
+
+    /**
+     * Adds the candidate classes referencing the committed classes to the affected set using the reference index.
+     * The search is restricted to the files of the candidates.
+     *
+     * @param committedClasses the classes declared in the committed files
+     * @param candidates       the classes which may be validated
+     * @param affectedClasses  the set receiving the dependent classes
+     * @param project          the current project
+     * @param deadline         the time in milliseconds after which the search stops
+     * @return true if all references were processed before the deadline, false otherwise
+     */
+    private static boolean collectDependentBeans(List<PsiClass> committedClasses, Set<PsiClass> candidates,
+                                                 Set<PsiClass> affectedClasses, Project project, long deadline) {
+        Set<VirtualFile> candidateFiles = new HashSet<>();
+        for (PsiClass candidate : candidates) {
+            candidateFiles.add(candidate.getContainingFile().getVirtualFile());
+        }
+        GlobalSearchScope scope = GlobalSearchScope.filesScope(project, candidateFiles);
+        for (PsiClass committedClass : committedClasses) {
+            boolean completed = ReferencesSearch.search(committedClass, scope).forEach(reference -> {
+                PsiClass dependent = PsiTreeUtil.getParentOfType(reference.getElement(), PsiClass.class);
+                while (dependent != null && !candidates.contains(dependent)) {
+                    dependent = PsiTreeUtil.getParentOfType(dependent, PsiClass.class);
+                }
+                if (dependent != null) {
+                    affectedClasses.add(dependent);
+                }
+                return System.currentTimeMillis() <= deadline;
+            });
+            if (!completed) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void showCoverageNotification(CheckinCoverage coverage, Project project) {
+        String message = "Validated " + coverage.checkedClasses() + " of " + coverage.affectedClasses() +
+                " committed and dependent classes, " + coverage.findings() + " with findings.";
+        if (!coverage.complete()) {
+            message += " The time budget was exhausted, run Validate Beans for full coverage.";
+        }
+        Notification notification = new Notification(
+                "annotationCheckerGroup",
+                "Pre-commit bean validation",
+                message,
+                coverage.findings() > 0 || !coverage.complete() ? NotificationType.WARNING : NotificationType.INFORMATION
+        );
+        if (coverage.findings() > 0) {
+            notification.addAction(NotificationAction.createSimple("Show in Bean Findings",
+                    () -> BeanFindingsToolWindowFactory.show(project)));
+        }
+        Notifications.Bus.notify(notification, project);
+    }
+}
@@ -0,0 +1,429 @@
+package org.example.plugindev;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * Finds dependency cycles in a {@link BeanGraph}.
+ * Strongly connected components are computed with an iterative version of Tarjan's algorithm,
+ * so every bean and dependency is visited once regardless of how many beans start a search.
+ * Cycles are then looked for inside each component only: the shortest one, or the elementary ones
+ * up to a cap, deduplicated by their canonical rotation.
+ * Components are found over all dependencies and then classified by the weakest kind of dependency
+ * needed to close a cycle, see {@link CycleKind}.
+ */
+public final class BeanCycleFinder {
+
+    /**
+     * How Spring copes with a cyclic component.
+     */
+    public enum CycleKind {
+        /**
+         * Constructor and factory method dependencies alone form a cycle, the context cannot start.
+         */
+        FATAL(BeanGraph.DependencyKind.CONSTRUCTOR),
+        /**
+         * A cycle needs field or setter injection, Spring resolves it through early references
+         * when circular references are allowed.
+         */
+        RESOLVABLE(BeanGraph.DependencyKind.PROPERTY),
+        /**
+         * Every cycle goes through a deferred lookup, so the beans can always be created.
+         */
+        DEFERRED(BeanGraph.DependencyKind.DEFERRED);
+
+        private final BeanGraph.DependencyKind weakestKind;
+
+        CycleKind(BeanGraph.DependencyKind weakestKind) {
+            this.weakestKind = weakestKind;
+        }
+
+        /**
+         * Gets the weakest kind of dependency followed by the cycles of this kind.
+         *
+         * @return the weakest dependency kind
+         */
+        public BeanGraph.DependencyKind getWeakestKind() {
+            return weakestKind;
+        }
+    }
+
+    private BeanCycleFinder() {
+    }
+
+    /**
+     * Finds the strongly connected components of the graph which contain a cycle,
+     * that is components with more than one bean or with a bean depending on itself.
+     *
+     * @param graph the graph to inspect
+     * @return the bean indices of each cyclic component
+     */
+    public static @NotNull List<int[]> findCyclicComponents(@NotNull BeanGraph graph) {
+        int beanCount = graph.getBeanCount();
+        int[] order = new int[beanCount];
+        int[] lowLink = new int[beanCount];
+        boolean[] onStack = new boolean[beanCount];
+        Arrays.fill(order, -1);
+
+        int[] componentStack = new int[beanCount];
+        int componentStackSize = 0;
+        int[] callStack = new int[beanCount];
+        int[] nextDependency = new int[beanCount];
+        int[][] dependencies = new int[beanCount][];
+        int counter = 0;
+        List<int[]> components = new ArrayList<>();
+
+        for (int root = 0; root < beanCount; root++) {
+            if (order[root] != -1) {
+                continue;
+            }
+            int callStackSize = 0;
+            callStack[callStackSize++] = root;
+            order[root] = lowLink[root] = counter++;
+            componentStack[componentStackSize++] = root;
+            onStack[root] = true;
+            dependencies[root] = graph.getDependencies(root);
+
+            while (callStackSize > 0) {
+                int bean = callStack[callStackSize - 1];
+                if (nextDependency[bean] < dependencies[bean].length) {
+                    int dependency = dependencies[bean][nextDependency[bean]++];
+                    if (order[dependency] == -1) {
+                        order[dependency] = lowLink[dependency] = counter++;
+                        componentStack[componentStackSize++] = dependency;
+                        onStack[dependency] = true;
+                        dependencies[dependency] = graph.getDependencies(dependency);
+                        callStack[callStackSize++] = dependency;
+                    } else if (onStack[dependency]) {
+                        lowLink[bean] = Math.min(lowLink[bean], order[dependency]);
+                    }
+                    continue;
+                }
+
+                callStackSize--;
+                if (callStackSize > 0) {
+                    int parent = callStack[callStackSize - 1];
+                    lowLink[parent] = Math.min(lowLink[parent], lowLink[bean]);
+                }
+                if (lowLink[bean] == order[bean]) {
+                    int start = componentStackSize;
+                    do {
+                        start--;
+                        onStack[componentStack[start]] = false;
+                    } while (componentStack[start] != bean);
+                    int[] component = Arrays.copyOfRange(componentStack, start, componentStackSize);
+                    componentStackSize = start;
+                    if (component.length > 1 || dependsOnItself(dependencies[bean], bean)) {
+                        components.add(component);
+                    }
+                }
+                dependencies[bean] = null;
+            }
+        }
+        return components;
+    }
+
+    /**
+     * Finds a cycle through the given component by following dependencies which stay inside it.
+     *
+     * @param graph     the graph the component belongs to
+     * @param component the bean indices of a cyclic component
+     * @return the bean names along the cycle, starting at the bean where the cycle closes
+     */
+    public static @NotNull List<String> findCycle(@NotNull BeanGraph graph, int @NotNull [] component) {
+        Set<Integer> members = toSet(component);
+        List<Integer> path = new ArrayList<>();
+        Map<Integer, Integer> positions = new HashMap<>();
+        int bean = component[0];
+        while (!positions.containsKey(bean)) {
+            positions.put(bean, path.size());
+            path.add(bean);
+            for (int dependency : graph.getDependencies(bean)) {
+                if (members.contains(dependency)) {
+                    bean = dependency;
+                    break;
+                }
+            }
+        }
+        return toNames(graph, path.subList(positions.get(bean), path.size()));
+    }
+
+    /**
+     * Classifies a cyclic component by checking, inside the component, whether constructor dependencies
+     * alone or constructor and property dependencies together already form a cycle.
+     *
+     * @param graph     the graph the component belongs to
+     * @param component the bean indices of a cyclic component
+     * @return the kind of the component
+     */
+    public static @NotNull CycleKind classifyComponent(@NotNull BeanGraph graph, int @NotNull [] component) {
+        if (hasCycle(graph, component, BeanGraph.DependencyKind.CONSTRUCTOR)) {
+            return CycleKind.FATAL;
+        }
+        if (hasCycle(graph, component, BeanGraph.DependencyKind.PROPERTY)) {
+            return CycleKind.RESOLVABLE;
+        }
+        return CycleKind.DEFERRED;
+    }
+
+    /**
+     * Finds a shortest cycle of the given component with a breadth-first search from each of its beans
+     * which never leaves the component.
+     *
+     * @param graph     the graph the component belongs to
+     * @param component the bean indices of a cyclic component
+     * @return the bean names along a shortest cycle of the component
+     */
+    public static @NotNull List<String> findShortestCycle(@NotNull BeanGraph graph, int @NotNull [] component) {
+        return findShortestCycle(graph, component, BeanGraph.DependencyKind.DEFERRED);
+    }
+
+    /**
+     * Finds a shortest cycle of the given component which only follows dependencies at least as strong
+     * as the given kind.
+     *
+     * @param graph       the graph the component belongs to
+     * @param component   the bean indices of a cyclic component
+     * @param weakestKind the weakest kind of dependency to follow
+     * @return the bean names along a shortest cycle, or along any cycle of the component if the
+     * dependencies of the given kind do not form one
+     */
+    public static @NotNull List<String> findShortestCycle(@NotNull BeanGraph graph, int @NotNull [] component,
+                                                          @NotNull BeanGraph.DependencyKind weakestKind) {
+        Set<Integer> members = toSet(component);
+        List<Integer> shortest = null;
+        for (int start : component) {
+            Map<Integer, Integer> parents = new HashMap<>();
+            Deque<Integer> queue = new ArrayDeque<>();
+            queue.add(start);
+            parents.put(start, -1);
+            int closing = -1;
+            while (!queue.isEmpty() && closing == -1) {
+                int bean = queue.poll();
+                for (int dependency : graph.getDependencies(bean, weakestKind)) {
+                    if (dependency == start) {
+                        closing = bean;
+                        break;
+                    }
+                    if (members.contains(dependency) && !parents.containsKey(dependency)) {
+                        parents.put(dependency, bean);
+                        queue.add(dependency);
+                    }
+                }
+            }
+            if (closing == -1) {
+                continue;
+            }
+            LinkedList<Integer> cycle = new LinkedList<>();
+            for (int bean = closing; bean != -1; bean = parents.get(bean)) {
+                cycle.addFirst(bean);
+            }
+            if (shortest == null || cycle.size() < shortest.size()) {
+                shortest = cycle;
+                if (shortest.size() == 1) {
+                    break;
+                }
+            }
+        }
+        return shortest != null ? toNames(graph, shortest) : findCycle(graph, component);
+    }
+
+    /**
+     * Enumerates the elementary cycles of the given component with Johnson's algorithm, stopping once
+     * the given number of cycles has been found. Cycles are returned shortest first.
+     *
+     * @param graph       the graph the component belongs to
+     * @param component   the bean indices of a cyclic component
+     * @param weakestKind the weakest kind of dependency to follow
+     * @param maxCycles   the maximum number of cycles to enumerate
+     * @return the bean names along each cycle, in canonical rotation
+     */
+    public static @NotNull List<List<String>> findElementaryCycles(@NotNull BeanGraph graph, int @NotNull [] component,
+                                                                   @NotNull BeanGraph.DependencyKind weakestKind, int maxCycles) {
+        int[] members = component.clone();
+        Arrays.sort(members);
+        Map<Integer, Integer> positions = new HashMap<>();
+        for (int i = 0; i < members.length; i++) {
+            positions.put(members[i], i);
+        }
+        int[][] successors = new int[members.length][];
+        for (int i = 0; i < members.length; i++) {
+            successors[i] = Arrays.stream(graph.getDependencies(members[i], weakestKind))
+                    .filter(positions::containsKey).map(positions::get).toArray();
+        }
+
+        Set<List<String>> cycles = new LinkedHashSet<>();
+        boolean[] blocked = new boolean[members.length];
+        List<Set<Integer>> blockedBy = new ArrayList<>();
+        for (int i = 0; i < members.length; i++) {
+            blockedBy.add(new HashSet<>());
+        }
+        int[] path = new int[members.length];
+        int[] nextSuccessor = new int[members.length];
+        boolean[] closed = new boolean[members.length];
+
+        for (int start = 0; start < members.length && cycles.size() < maxCycles; start++) {
+            for (int i = start; i < members.length; i++) {
+                blocked[i] = false;
+                blockedBy.get(i).clear();
+            }
+            int depth = 0;
+            path[depth] = start;
+            nextSuccessor[depth] = 0;
+            closed[depth] = false;
+            blocked[start] = true;
+
+            while (depth >= 0 && cycles.size() < maxCycles) {
+                int bean = path[depth];
+                if (nextSuccessor[depth] < successors[bean].length) {
+                    int dependency = successors[bean][nextSuccessor[depth]++];
+                    if (dependency < start) {
+                        continue;
+                    }
+                    if (dependency == start) {
+                        List<Integer> cycle = new ArrayList<>();
+                        for (int i = 0; i <= depth; i++) {
+                            cycle.add(members[path[i]]);
+                        }
+                        cycles.add(canonicalCycle(toNames(graph, cycle)));
+                        closed[depth] = true;
+                    } else if (!blocked[dependency]) {
+                        depth++;
+                        path[depth] = dependency;
+                        nextSuccessor[depth] = 0;
+                        closed[depth] = false;
+                        blocked[dependency] = true;
+                    }
+                    continue;
+                }
+
+                if (closed[depth]) {
+                    unblock(bean, blocked, blockedBy);
+                } else {
+                    for (int dependency : successors[bean]) {
+                        if (dependency >= start) {
+                            blockedBy.get(dependency).add(bean);
+                        }
+                    }
+                }
+                if (depth > 0 && closed[depth]) {
+                    closed[depth - 1] = true;
+                }
+                depth--;
+            }
+        }
+
+        List<List<String>> sortedCycles = new ArrayList<>(cycles);
+        sortedCycles.sort(Comparator.comparingInt(List::size));
+        return sortedCycles;
+    }
+
+    /**
+     * Rotates a cycle so it starts at its smallest bean name. Two rotations of the same cycle have
+     * the same canonical form, so it can be used as a key to deduplicate cycles.
+     *
+     * @param cycle the bean names along the cycle
+     * @return the canonical rotation of the cycle
+     */
+    public static @NotNull List<String> canonicalCycle(@NotNull List<String> cycle) {
+        if (cycle.isEmpty()) {
+            return cycle;
+        }
+        int first = 0;
+        for (int i = 1; i < cycle.size(); i++) {
+            if (cycle.get(i).compareTo(cycle.get(first)) < 0) {
+                first = i;
+            }
+        }
+        List<String> canonical = new ArrayList<>(cycle.subList(first, cycle.size()));
+        canonical.addAll(cycle.subList(0, first));
+        return List.copyOf(canonical);
+    }
+
+    /**
+     * Checks with a depth-first search whether the dependencies of the given kind form a cycle inside the component.
+     */
+    private static boolean hasCycle(BeanGraph graph, int[] component, BeanGraph.DependencyKind weakestKind) {
+        Map<Integer, Integer> positions = new HashMap<>();
+        for (int i = 0; i < component.length; i++) {
+            positions.put(component[i], i);
+        }
+        // 0: not visited, 1: on the current path, 2: done
+        byte[] state = new byte[component.length];
+        int[][] successors = new int[component.length][];
+        int[] nextSuccessor = new int[component.length];
+        int[] path = new int[component.length];
+        for (int root = 0; root < component.length; root++) {
+            if (state[root] != 0) {
+                continue;
+            }
+            int depth = 0;
+            path[0] = root;
+            state[root] = 1;
+            successors[root] = graph.getDependencies(component[root], weakestKind);
+            while (depth >= 0) {
+                int bean = path[depth];
+                if (nextSuccessor[bean] < successors[bean].length) {
+                    Integer dependency = positions.get(successors[bean][nextSuccessor[bean]++]);
+                    if (dependency == null) {
+                        continue;
+                    }
+                    if (state[dependency] == 1) {
+                        return true;
+                    }
+                    if (state[dependency] == 0) {
+                        state[dependency] = 1;
+                        successors[dependency] = graph.getDependencies(component[dependency], weakestKind);
+                        path[++depth] = dependency;
+                    }
+                    continue;
+                }
+                state[bean] = 2;
+                depth--;
+            }
+        }
+        return false;
+    }
+
+    private static void unblock(int bean, boolean[] blocked, List<Set<Integer>> blockedBy) {
+        Deque<Integer> pending = new ArrayDeque<>();
+        pending.push(bean);
+        while (!pending.isEmpty()) {
+            int current = pending.pop();
+            if (!blocked[current]) {
+                continue;
+            }
+            blocked[current] = false;
+            for (int waiting : blockedBy.get(current)) {
+                pending.push(waiting);
+            }
+            blockedBy.get(current).clear();
+        }
+    }
+
+    private static Set<Integer> toSet(int[] component) {
+        Set<Integer> members = new HashSet<>();
+        for (int bean : component) {
+            members.add(bean);
+        }
+        return members;
+    }
+
+    private static List<String> toNames(BeanGraph graph, List<Integer> beans) {
+        List<String> names = new ArrayList<>();
+        for (int bean : beans) {
+            names.add(graph.getBeanName(bean));
+        }
+        return names;
+    }
+
+    private static boolean dependsOnItself(int[] dependencies, int bean) {
+        for (int dependency : dependencies) {
+            if (dependency == bean) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
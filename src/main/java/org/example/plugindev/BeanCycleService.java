@@ -0,0 +1,292 @@
+package org.example.plugindev;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.module.ModuleUtilCore;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.*;
+import com.intellij.psi.search.GlobalSearchScope;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the cycle status of the project beans up to date while the code is edited.
+ * The service holds an {@link IncrementalBeanGraph}, seeded by the last full analysis or filled on demand.
+ * Edited classes are only marked as changed; the next query extracts their dependencies again and lets
+ * the graph update the affected components, so answering for one bean does not search the whole project.
+ * A graph spilled to disk by the bounded memory mode is not copied into the heap: its beans are extracted
+ * on demand, and the beans without sources keep their dependencies read from the mapped graph. Only the names
+ * of its beans lying on cycles are kept, so that the cycle markers show before any bean is extracted.
+ */
+@Service(Service.Level.PROJECT)
+public final class BeanCycleService implements Disposable {
+
+    private final Project project;
+    private final IncrementalBeanGraph graph = new IncrementalBeanGraph();
+    private final Set<String> extractedBeans = new HashSet<>();
+    private final Set<String> changedBeans = ConcurrentHashMap.newKeySet();
+    private final Set<String> pendingBeans = new LinkedHashSet<>();
+    private volatile BeanImpactIndex impactIndex;
+    private volatile Map<String, Integer> cyclicComponents = Map.of();
+    private @Nullable BeanGraph mappedGraph;
+    private Map<String, Integer> mappedCyclicComponents = Map.of();
+
+    /**
+     * A cycle going through a bean.
+     *
+     * @param beans the bean names along a shortest cycle of the kind of the component
+     * @param kind  how Spring copes with the component
+     */
+    public record BeanCycle(List<String> beans, BeanCycleFinder.CycleKind kind) {
+    }
+
+    public BeanCycleService(@NotNull Project project) {
+        this.project = project;
+        PsiManager.getInstance(project).addPsiTreeChangeListener(new PsiTreeChangeAdapter() {
+            @Override
+            public void childAdded(@NotNull PsiTreeChangeEvent event) {
+                markChanged(event.getFile());
+            }
+
+            @Override
+            public void childRemoved(@NotNull PsiTreeChangeEvent event) {
+                markChanged(event.getFile());
+            }
+
+            @Override
+            public void childReplaced(@NotNull PsiTreeChangeEvent event) {
+                markChanged(event.getFile());
+            }
+
+            @Override
+            public void childrenChanged(@NotNull PsiTreeChangeEvent event) {
+                markChanged(event.getFile());
+            }
+
+            @Override
+            public void childMoved(@NotNull PsiTreeChangeEvent event) {
+                markChanged(event.getFile());
+            }
+        }, this);
+    }
+
+    /**
+     * Gets the cycle service of the given project.
+     *
+     * @param project the current project
+     * @return the cycle service
+     */
+    public static BeanCycleService getInstance(@NotNull Project project) {
+        return project.getService(BeanCycleService.class);
+    }
+
+    /**
+     * Replaces the tracked graph with the result of a full analysis.
+     *
+     * @param beanGraph the bean graph of the whole project
+     */
+    public synchronized void reset(@NotNull BeanGraph beanGraph) {
+        impactIndex = new BeanImpactIndex(beanGraph);
+        extractedBeans.clear();
+        changedBeans.clear();
+        pendingBeans.clear();
+        if (beanGraph.isMapped()) {
+            mappedGraph = beanGraph;
+            graph.load(BeanGraph.builder().build());
+            Map<String, Integer> components = new HashMap<>();
+            List<int[]> graphComponents = BeanCycleFinder.findCyclicComponents(beanGraph);
+            for (int component = 0; component < graphComponents.size(); component++) {
+                for (int bean : graphComponents.get(component)) {
+                    components.put(beanGraph.getBeanName(bean), component);
+                }
+            }
+            mappedCyclicComponents = components;
+        } else {
+            mappedGraph = null;
+            mappedCyclicComponents = Map.of();
+            graph.load(beanGraph);
+            for (int bean = 0; bean < beanGraph.getBeanCount(); bean++) {
+                extractedBeans.add(beanGraph.getBeanName(bean));
+            }
+        }
+        publishCycles();
+    }
+
+    /**
+     * Gets the dependents index of the graph of the last full analysis.
+     *
+     * @return the index, or null if the project was not analyzed yet
+     */
+    public @Nullable BeanImpactIndex getImpactIndex() {
+        return impactIndex;
+    }
+
+    /**
+     * Checks if a dependency closes a cycle in the graph as last updated, without extracting anything.
+     * Meant for painting, where {@link #findCycle(PsiClass)} would be too expensive: the cycles are read from
+     * a snapshot published after every update, without waiting for an extraction in progress.
+     *
+     * @param beanName       the bean having the dependency
+     * @param dependencyName the bean it depends on
+     * @return true if both beans belong to the same cyclic component
+     */
+    public boolean isCyclicDependency(@NotNull String beanName, @NotNull String dependencyName) {
+        Map<String, Integer> components = cyclicComponents;
+        Integer component = components.get(beanName);
+        return component != null && component.equals(components.get(dependencyName));
+    }
+
+    /**
+     * Finds a cycle going through the given bean. Classes edited since the last query and their factory beans
+     * are extracted again first, and beans reached for the first time are extracted on demand. Must be called
+     * inside a read action.
+     *
+     * @param psiClass the bean class
+     * @return the cycle through the bean, or null if the bean is not part of a cycle
+     */
+    public synchronized @Nullable BeanCycle findCycle(@NotNull PsiClass psiClass) {
+        String beanName = psiClass.getQualifiedName();
+        if (beanName == null) {
+            return null;
+        }
+        for (String changedClass : changedBeans) {
+            changedBeans.remove(changedClass);
+            String factoryPrefix = changedClass + "#";
+            for (Iterator<String> iterator = extractedBeans.iterator(); iterator.hasNext(); ) {
+                String extractedBean = iterator.next();
+                if (extractedBean.equals(changedClass) || extractedBean.startsWith(factoryPrefix)) {
+                    iterator.remove();
+                    pendingBeans.add(extractedBean);
+                }
+            }
+        }
+        if (!extractedBeans.contains(beanName)) {
+            pendingBeans.add(beanName);
+        }
+        if (!pendingBeans.isEmpty()) {
+            extract();
+            publishCycles();
+        }
+
+        if (!graph.isCyclic(beanName)) {
+            return null;
+        }
+        BeanGraph componentGraph = graph.getComponentGraph(beanName);
+        int[] component = new int[componentGraph.getBeanCount()];
+        for (int bean = 0; bean < component.length; bean++) {
+            component[bean] = bean;
+        }
+        BeanCycleFinder.CycleKind kind = BeanCycleFinder.classifyComponent(componentGraph, component);
+        return new BeanCycle(BeanCycleFinder.findShortestCycle(componentGraph, component, kind.getWeakestKind()), kind);
+    }
+
+    /**
+     * Publishes the snapshot read by {@link #isCyclicDependency(String, String)}. With a mapped graph, the beans
+     * not extracted yet keep the components of the full analysis, numbered apart from the extracted ones.
+     */
+    private void publishCycles() {
+        Map<String, Integer> components = graph.getCyclicComponents();
+        if (!mappedCyclicComponents.isEmpty()) {
+            Map<String, Integer> merged = new HashMap<>(components);
+            mappedCyclicComponents.forEach((bean, component) -> {
+                if (!extractedBeans.contains(bean)) {
+                    merged.put(bean, -1 - component);
+                }
+            });
+            components = Map.copyOf(merged);
+        }
+        cyclicComponents = components;
+    }
+
+    /**
+     * Extracts the dependencies of the pending beans and of every bean they reach which was not extracted yet.
+     * A bean counts as extracted once its dependencies are in the graph; if the extraction is cancelled,
+     * the beans not extracted yet stay pending for the next query.
+     */
+    private void extract() {
+        Deque<String> pending = new ArrayDeque<>(pendingBeans);
+        pendingBeans.clear();
+        try {
+            while (!pending.isEmpty()) {
+                String beanName = pending.peek();
+                if (!extractedBeans.contains(beanName)) {
+                    Map<String, BeanGraph.DependencyKind> dependencies = extractDependencies(beanName);
+                    graph.setDependencies(beanName, dependencies);
+                    extractedBeans.add(beanName);
+                    for (String dependency : dependencies.keySet()) {
+                        if (!extractedBeans.contains(dependency)) {
+                            pending.add(dependency);
+                        }
+                    }
+                }
+                pending.poll();
+            }
+        } finally {
+            pendingBeans.addAll(pending);
+        }
+    }
+
+    /**
+     * Extracts the dependencies of a bean class or of a factory bean, named by its configuration class and method.
+     * Beans without sources in the project keep the dependencies of the last full analysis.
+     */
+    private Map<String, BeanGraph.DependencyKind> extractDependencies(String beanName) {
+        int separator = beanName.indexOf('#');
+        String className = separator < 0 ? beanName : beanName.substring(0, separator);
+        PsiClass psiClass = JavaPsiFacade.getInstance(project).findClass(className, GlobalSearchScope.projectScope(project));
+        Module module = psiClass != null ? ModuleUtilCore.findModuleForPsiElement(psiClass) : null;
+        if (module == null) {
+            return mappedGraph != null ? getDependencies(mappedGraph, beanName) : new LinkedHashMap<>(graph.getDependencies(beanName));
+        }
+        BeanGraphExtractor extractor = new BeanGraphExtractor(module);
+        if (separator < 0) {
+            extractor.addBean(psiClass);
+        } else {
+            for (PsiMethod method : psiClass.findMethodsByName(beanName.substring(separator + 1), false)) {
+                extractor.addFactoryBean(method);
+            }
+        }
+        return getDependencies(extractor.build(), beanName);
+    }
+
+    private static Map<String, BeanGraph.DependencyKind> getDependencies(BeanGraph beanGraph, String beanName) {
+        Map<String, BeanGraph.DependencyKind> dependencies = new LinkedHashMap<>();
+        int bean = beanGraph.indexOf(beanName);
+        if (bean < 0) {
+            return dependencies;
+        }
+        int[] beanDependencies = beanGraph.getDependencies(bean);
+        BeanGraph.DependencyKind[] kinds = beanGraph.getDependencyKinds(bean);
+        for (int i = 0; i < beanDependencies.length; i++) {
+            dependencies.put(beanGraph.getBeanName(beanDependencies[i]), kinds[i]);
+        }
+        return dependencies;
+    }
+
+    /**
+     * Marks the classes of an edited file, nested classes included, as changed. The factory beans
+     * of a changed class are extracted again with it.
+     */
+    private void markChanged(PsiFile file) {
+        if (file instanceof PsiJavaFile javaFile) {
+            markChanged(javaFile.getClasses());
+        }
+    }
+
+    private void markChanged(PsiClass[] psiClasses) {
+        for (PsiClass psiClass : psiClasses) {
+            if (psiClass.getQualifiedName() != null) {
+                changedBeans.add(psiClass.getQualifiedName());
+            }
+            markChanged(psiClass.getInnerClasses());
+        }
+    }
+
+    @Override
+    public void dispose() {
+    }
+}
@@ -0,0 +1,174 @@
+package org.example.plugindev;
+
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.*;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.*;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index of the beans produced by @Bean factory methods of configuration classes.
+ * For every scope the factory methods are read once from the {@link BeanAnnotationIndex}
+ * and grouped by every type they provide, so looking up the producers of a type is a hash lookup.
+ * Results are cached until the next PSI modification. All methods must be called inside a read action.
+ */
+@Service(Service.Level.PROJECT)
+public final class BeanFactoryMethodIndex {
+
+    static final String BEAN_ANNOTATION = "org.springframework.context.annotation.Bean";
+    private static final String QUALIFIER_ANNOTATION = "org.springframework.beans.factory.annotation.Qualifier";
+    private static final String PRIMARY_ANNOTATION = "org.springframework.context.annotation.Primary";
+
+    private final Project project;
+    private final CachedValue<Map<GlobalSearchScope, FactoryBeans>> cache;
+
+    /**
+     * A bean produced by a @Bean factory method.
+     *
+     * @param method        the factory method
+     * @param beanName      the primary name of the bean, the first @Bean name or the method name
+     * @param qualifiers    the bean names and the @Qualifier value of the method
+     * @param providedTypes the fully qualified names of the return type and all its supertypes
+     * @param primary       whether the method is annotated with @Primary
+     */
+    public record FactoryBean(PsiMethod method, String beanName, Set<String> qualifiers,
+                              Set<String> providedTypes, boolean primary) {
+
+        /**
+         * Gets the name identifying the factory bean in a {@link BeanGraph}.
+         *
+         * @return the configuration class name and the method name joined by '#'
+         */
+        public String getGraphName() {
+            PsiClass configurationClass = method.getContainingClass();
+            String className = configurationClass != null ? configurationClass.getQualifiedName() : null;
+            return className + "#" + method.getName();
+        }
+    }
+
+    private record FactoryBeans(List<FactoryBean> beans, Map<String, List<FactoryBean>> beansByType) {
+    }
+
+    public BeanFactoryMethodIndex(@NotNull Project project) {
+        this.project = project;
+        this.cache = CachedValuesManager.getManager(project).createCachedValue(
+                () -> CachedValueProvider.Result.create(new ConcurrentHashMap<>(), PsiModificationTracker.getInstance(project)),
+                false);
+    }
+
+    /**
+     * Gets the index service of the given project.
+     *
+     * @param project the current project
+     * @return the index service
+     */
+    public static BeanFactoryMethodIndex getInstance(@NotNull Project project) {
+        return project.getService(BeanFactoryMethodIndex.class);
+    }
+
+    /**
+     * Gets the factory beans declared in the given scope.
+     *
+     * @param scope the scope to search
+     * @return the factory beans
+     */
+    public List<FactoryBean> getFactoryBeans(@NotNull GlobalSearchScope scope) {
+        return getFactoryBeansOfScope(scope).beans();
+    }
+
+    /**
+     * Finds the factory beans in the given scope which can be injected where the given type is expected.
+     *
+     * @param typeName the fully qualified name of the injected type
+     * @param scope    the scope to search
+     * @return the factory beans providing the type
+     */
+    public List<FactoryBean> findProviders(@NotNull String typeName, @NotNull GlobalSearchScope scope) {
+        return getFactoryBeansOfScope(scope).beansByType().getOrDefault(typeName, Collections.emptyList());
+    }
+
+    private FactoryBeans getFactoryBeansOfScope(GlobalSearchScope scope) {
+        return cache.getValue().computeIfAbsent(scope, this::collectFactoryBeans);
+    }
+
+    private FactoryBeans collectFactoryBeans(GlobalSearchScope scope) {
+        List<FactoryBean> beans = new ArrayList<>();
+        Map<String, List<FactoryBean>> beansByType = new HashMap<>();
+        for (PsiMethod method : BeanAnnotationIndex.getInstance(project).getBeanMethods(scope)) {
+            FactoryBean bean = createFactoryBean(method);
+            if (bean != null) {
+                beans.add(bean);
+                for (String providedType : bean.providedTypes()) {
+                    beansByType.computeIfAbsent(providedType, k -> new ArrayList<>()).add(bean);
+                }
+            }
+        }
+        return new FactoryBeans(beans, beansByType);
+    }
+
+    private static FactoryBean createFactoryBean(PsiMethod method) {
+        PsiClass returnClass = PsiTypesUtil.getPsiClass(method.getReturnType());
+        if (returnClass == null || returnClass.getQualifiedName() == null) {
+            return null;
+        }
+        Set<String> providedTypes = new LinkedHashSet<>();
+        providedTypes.add(returnClass.getQualifiedName());
+        Set<PsiClass> superClasses = new LinkedHashSet<>();
+        InheritanceUtil.getSuperClasses(returnClass, superClasses, true);
+        for (PsiClass superClass : superClasses) {
+            String superClassName = superClass.getQualifiedName();
+            if (superClassName != null && !CommonClassNames.JAVA_LANG_OBJECT.equals(superClassName)) {
+                providedTypes.add(superClassName);
+            }
+        }
+
+        List<String> beanNames = getBeanNames(method);
+        Set<String> qualifiers = new LinkedHashSet<>(beanNames);
+        PsiAnnotation qualifierAnnotation = method.getAnnotation(QUALIFIER_ANNOTATION);
+        if (qualifierAnnotation != null) {
+            String qualifier = getStringValue(qualifierAnnotation.findAttributeValue("value"));
+            if (qualifier != null && !qualifier.isEmpty()) {
+                qualifiers.add(qualifier);
+            }
+        }
+        return new FactoryBean(method, beanNames.get(0), qualifiers, providedTypes, method.hasAnnotation(PRIMARY_ANNOTATION));
+    }
+
+    /**
+     * Gets the names given in the name or value attribute of @Bean, or the method name if none is given.
+     */
+    private static List<String> getBeanNames(PsiMethod method) {
+        List<String> beanNames = new ArrayList<>();
+        PsiAnnotation beanAnnotation = method.getAnnotation(BEAN_ANNOTATION);
+        if (beanAnnotation != null) {
+            for (String attribute : List.of("name", "value")) {
+                PsiAnnotationMemberValue value = beanAnnotation.findDeclaredAttributeValue(attribute);
+                if (value instanceof PsiArrayInitializerMemberValue array) {
+                    for (PsiAnnotationMemberValue element : array.getInitializers()) {
+                        addBeanName(beanNames, getStringValue(element));
+                    }
+                } else {
+                    addBeanName(beanNames, getStringValue(value));
+                }
+            }
+        }
+        if (beanNames.isEmpty()) {
+            beanNames.add(method.getName());
+        }
+        return beanNames;
+    }
+
+    private static void addBeanName(List<String> beanNames, String beanName) {
+        if (beanName != null && !beanName.isEmpty() && !beanNames.contains(beanName)) {
+            beanNames.add(beanName);
+        }
+    }
+
+    private static String getStringValue(PsiAnnotationMemberValue value) {
+        return value != null ? value.getText().replaceAll("\"", "").trim() : null;
+    }
+}
@@ -0,0 +1,58 @@
+package org.example.plugindev;
+
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.module.ModuleUtilCore;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.PsiTreeUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A problem reported by one of the checkers, as listed in the Bean Findings tool window.
+ * Findings keep names only, no PSI, so a run with many findings does not hold on to syntax trees.
+ *
+ * @param checker    the checker which reported the finding, also the title of its notifications
+ * @param moduleName the module of the bean, or null if unknown
+ * @param beanName   the bean the finding is about, as named in the bean graph, or null if it is about no bean
+ * @param message    the description of the problem
+ */
+public record BeanFinding(String checker, @Nullable String moduleName, @Nullable String beanName, String message) {
+
+    /**
+     * Creates a finding about the class declaring an element. Must be called inside a read action.
+     *
+     * @param checker the checker reporting the finding
+     * @param element the class, or a member or parameter of the class
+     * @param message the description of the problem
+     * @return the finding
+     */
+    public static BeanFinding of(@NotNull String checker, @NotNull PsiElement element, @NotNull String message) {
+        PsiClass psiClass = element instanceof PsiClass elementClass ? elementClass : PsiTreeUtil.getParentOfType(element, PsiClass.class);
+        Module module = ModuleUtilCore.findModuleForPsiElement(element);
+        return new BeanFinding(checker, module != null ? module.getName() : null,
+                psiClass != null ? psiClass.getQualifiedName() : null, message);
+    }
+
+    /**
+     * Creates a finding about a bean of the bean graph, looking up the module of its class.
+     * Must be called inside a read action.
+     *
+     * @param checker  the checker reporting the finding
+     * @param project  the current project
+     * @param beanName the class name of the bean, or the class and method names of a factory bean
+     * @param message  the description of the problem
+     * @return the finding
+     */
+    public static BeanFinding forBean(@NotNull String checker, @NotNull Project project, @NotNull String beanName,
+                                      @NotNull String message) {
+        int separator = beanName.indexOf('#');
+        String className = separator < 0 ? beanName : beanName.substring(0, separator);
+        PsiClass psiClass = JavaPsiFacade.getInstance(project).findClass(className, GlobalSearchScope.projectScope(project));
+        Module module = psiClass != null ? ModuleUtilCore.findModuleForPsiElement(psiClass) : null;
+        return new BeanFinding(checker, module != null ? module.getName() : null, beanName, message);
+    }
+}
@@ -0,0 +1,227 @@
+package org.example.plugindev;
+
+import com.intellij.icons.AllIcons;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.SimpleToolWindowPanel;
+import com.intellij.ui.ColoredTreeCellRenderer;
+import com.intellij.ui.DocumentAdapter;
+import com.intellij.ui.DoubleClickListener;
+import com.intellij.ui.ScrollPaneFactory;
+import com.intellij.ui.SearchTextField;
+import com.intellij.ui.SimpleTextAttributes;
+import com.intellij.ui.treeStructure.Tree;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.intellij.util.ui.JBUI;
+import org.jetbrains.annotations.NotNull;
+
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.tree.TreePath;
+import java.awt.BorderLayout;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseEvent;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Content of the Bean Findings tool window: a filter field above a tree of the findings of the last run.
+ * Findings reach the panel through a queue drained on a single pooled thread, which also applies the filter,
+ * so the event dispatch thread only appends batches of ready findings to the {@link BeanFindingsTreeModel}.
+ * Changing the filter regroups all findings on the same thread and swaps the tree root in one step;
+ * a filter superseded by further typing is abandoned.
+ */
+public class BeanFindingsPanel extends SimpleToolWindowPanel implements Disposable {
+
+    private static final Object CLEARED = new Object();
+
+    private final Project project;
+    private final BeanFindingsTreeModel model = new BeanFindingsTreeModel();
+    private final Tree tree = new Tree(model);
+    private final SearchTextField filterField = new SearchTextField(false);
+    private final Executor executor = AppExecutorUtil.createBoundedApplicationPoolExecutor("Bean Findings", 1);
+    private final Queue<Object> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    private final List<BeanFinding> allFindings = new ArrayList<>();
+    private volatile String filter = "";
+
+    /**
+     * Creates the panel and starts listening to the findings of the given project.
+     *
+     * @param project the current project
+     */
+    public BeanFindingsPanel(@NotNull Project project) {
+        super(true, true);
+        this.project = project;
+
+        tree.setRootVisible(false);
+        tree.setShowsRootHandles(true);
+        tree.setLargeModel(true);
+        tree.setRowHeight(JBUI.scale(22));
+        tree.setCellRenderer(new FindingRenderer());
+        new DoubleClickListener() {
+            @Override
+            protected boolean onDoubleClick(@NotNull MouseEvent event) {
+                return navigateToSelection();
+            }
+        }.installOn(tree);
+        tree.addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent event) {
+                if (event.getKeyCode() == KeyEvent.VK_ENTER && navigateToSelection()) {
+                    event.consume();
+                }
+            }
+        });
+        filterField.addDocumentListener(new DocumentAdapter() {
+            @Override
+            protected void textChanged(@NotNull DocumentEvent event) {
+                applyFilter(filterField.getText().trim().toLowerCase(Locale.ROOT));
+            }
+        });
+
+        JPanel content = new JPanel(new BorderLayout());
+        content.add(filterField, BorderLayout.NORTH);
+        content.add(ScrollPaneFactory.createScrollPane(tree), BorderLayout.CENTER);
+        setContent(content);
+
+        List<BeanFinding> findings = BeanFindingsService.getInstance(project).addListener(new BeanFindingsService.Listener() {
+            @Override
+            public void findingsCleared() {
+                enqueue(CLEARED);
+            }
+
+            @Override
+            public void findingAdded(@NotNull BeanFinding finding) {
+                enqueue(finding);
+            }
+        }, this);
+        pending.addAll(findings);
+        scheduleDrain();
+    }
+
+    private void enqueue(Object event) {
+        pending.add(event);
+        scheduleDrain();
+    }
+
+    private void scheduleDrain() {
+        if (drainScheduled.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    /**
+     * Takes the queued findings on the pooled thread, keeps them for later filtering, and hands
+     * the ones matching the filter to the tree in one batch.
+     */
+    private void drain() {
+        drainScheduled.set(false);
+        boolean cleared = false;
+        List<BeanFinding> batch = new ArrayList<>();
+        Object event;
+        while ((event = pending.poll()) != null) {
+            if (event == CLEARED) {
+                allFindings.clear();
+                batch.clear();
+                cleared = true;
+            } else {
+                BeanFinding finding = (BeanFinding) event;
+                allFindings.add(finding);
+                if (matches(finding, filter)) {
+                    batch.add(finding);
+                }
+            }
+        }
+        if (cleared) {
+            BeanFindingsTreeModel.Group root = BeanFindingsTreeModel.group(batch);
+            invokeLater(() -> model.setRoot(root));
+        } else if (!batch.isEmpty()) {
+            invokeLater(() -> model.add(batch));
+        }
+    }
+
+    /**
+     * Regroups the findings matching a new filter on the pooled thread.
+     */
+    private void applyFilter(String newFilter) {
+        filter = newFilter;
+        executor.execute(() -> {
+            List<BeanFinding> matching = new ArrayList<>();
+            for (int i = 0; i < allFindings.size(); i++) {
+                if (i % 1024 == 0 && !newFilter.equals(filter)) {
+                    // Superseded by a newer filter, which is queued after this one
+                    return;
+                }
+                if (matches(allFindings.get(i), newFilter)) {
+                    matching.add(allFindings.get(i));
+                }
+            }
+            BeanFindingsTreeModel.Group root = BeanFindingsTreeModel.group(matching);
+            invokeLater(() -> model.setRoot(root));
+        });
+    }
+
+    private static boolean matches(BeanFinding finding, String filter) {
+        return filter.isEmpty()
+                || finding.checker().toLowerCase(Locale.ROOT).contains(filter)
+                || finding.message().toLowerCase(Locale.ROOT).contains(filter)
+                || finding.beanName() != null && finding.beanName().toLowerCase(Locale.ROOT).contains(filter)
+                || finding.moduleName() != null && finding.moduleName().toLowerCase(Locale.ROOT).contains(filter);
+    }
+
+    private void invokeLater(Runnable runnable) {
+        ApplicationManager.getApplication().invokeLater(runnable, project.getDisposed());
+    }
+
+    /**
+     * Opens the bean of the selected finding or bean group.
+     *
+     * @return true if there was a bean to open
+     */
+    private boolean navigateToSelection() {
+        TreePath path = tree.getSelectionPath();
+        if (path == null) {
+            return false;
+        }
+        String beanName = null;
+        if (path.getLastPathComponent() instanceof BeanFinding finding) {
+            beanName = finding.beanName();
+        } else if (path.getPathCount() == 4 && path.getLastPathComponent() instanceof BeanFindingsTreeModel.Group group
+                && !group.getName().equals(BeanFindingsTreeModel.NO_BEAN)) {
+            beanName = group.getName();
+        }
+        if (beanName == null) {
+            return false;
+        }
+        ShowBeanDependentsAction.navigate(project, beanName);
+        return true;
+    }
+
+    @Override
+    public void dispose() {
+    }
+
+    /**
+     * Renders groups with their finding count and findings with the first line of their message.
+     */
+    private static final class FindingRenderer extends ColoredTreeCellRenderer {
+        @Override
+        public void customizeCellRenderer(@NotNull JTree tree, Object value, boolean selected, boolean expanded,
+                                          boolean leaf, int row, boolean hasFocus) {
+            if (value instanceof BeanFindingsTreeModel.Group group) {
+                append(group.getName(), SimpleTextAttributes.REGULAR_BOLD_ATTRIBUTES);
+                append("  " + group.getFindingCount(), SimpleTextAttributes.GRAYED_ATTRIBUTES);
+            } else if (value instanceof BeanFinding finding) {
+                setIcon(AllIcons.General.Error);
+                String message = finding.message().strip();
+                int lineEnd = message.indexOf('\n');
+                append(lineEnd < 0 ? message : message.substring(0, lineEnd) + " …");
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package org.example.plugindev;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Disposer;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * Collects the findings of the checkers for the Bean Findings tool window.
+ * Checkers add findings from any thread while they run; listeners are told about every finding as it is added,
+ * so the tool window fills while the analysis is still going. A full analysis starts a new run, which drops
+ * the findings of the previous one. Every finding is also handed to the {@link BeanNotificationAggregator},
+ * which reports them in batched notifications, unless the run reports its findings itself.
+ */
+@Service(Service.Level.PROJECT)
+public final class BeanFindingsService {
+
+    private final Project project;
+    private final List<BeanFinding> findings = new ArrayList<>();
+    private final List<Listener> listeners = new ArrayList<>();
+    private boolean notifyFindings = true;
+
+    /**
+     * Receives the findings as they are reported. Listeners are called on the thread of the checker,
+     * while the service is locked, so they must only hand the findings over.
+     */
+    public interface Listener {
+
+        /**
+         * Called when a new run drops the previous findings.
+         */
+        void findingsCleared();
+
+        /**
+         * Called for every new finding.
+         *
+         * @param finding the finding
+         */
+        void findingAdded(@NotNull BeanFinding finding);
+    }
+
+    public BeanFindingsService(@NotNull Project project) {
+        this.project = project;
+    }
+
+    /**
+     * Gets the findings service of the given project.
+     *
+     * @param project the current project
+     * @return the findings service
+     */
+    public static BeanFindingsService getInstance(@NotNull Project project) {
+        return project.getService(BeanFindingsService.class);
+    }
+
+    /**
+     * Drops the findings of the previous run. The findings of the new run are notified.
+     */
+    public void startRun() {
+        startRun(true);
+    }
+
+    /**
+     * Drops the findings of the previous run.
+     *
+     * @param notifyFindings whether the findings of the new run are posted as notifications, false if the caller
+     *                       reports them itself
+     */
+    public synchronized void startRun(boolean notifyFindings) {
+        this.notifyFindings = notifyFindings;
+        findings.clear();
+        for (Listener listener : listeners) {
+            listener.findingsCleared();
+        }
+    }
+
+    /**
+     * Adds a finding to the current run and, unless the run reports its findings itself, to the next
+     * finding notification.
+     *
+     * @param finding the finding
+     */
+    public void addFinding(@NotNull BeanFinding finding) {
+        boolean notify;
+        synchronized (this) {
+            findings.add(finding);
+            for (Listener listener : listeners) {
+                listener.findingAdded(finding);
+            }
+            notify = notifyFindings;
+        }
+        if (notify) {
+            BeanNotificationAggregator.getInstance(project).add(finding);
+        }
+    }
+
+    /**
+     * Gets the number of findings of the current run.
+     *
+     * @return the finding count
+     */
+    public synchronized int getFindingCount() {
+        return findings.size();
+    }
+
+    /**
+     * Registers a listener and gets the findings reported so far, atomically, so that every finding is
+     * either in the returned list or passed to the listener, never both.
+     *
+     * @param listener the listener
+     * @param parent   the disposable which unregisters the listener
+     * @return the findings of the current run
+     */
+    public synchronized List<BeanFinding> addListener(@NotNull Listener listener, @NotNull Disposable parent) {
+        listeners.add(listener);
+        Disposer.register(parent, () -> {
+            synchronized (this) {
+                listeners.remove(listener);
+            }
+        });
+        return new ArrayList<>(findings);
+    }
+}
@@ -0,0 +1,45 @@
+package org.example.plugindev;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.project.DumbAware;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.wm.ToolWindow;
+import com.intellij.openapi.wm.ToolWindowFactory;
+import com.intellij.openapi.wm.ToolWindowManager;
+import com.intellij.ui.content.Content;
+import com.intellij.ui.content.ContentFactory;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Creates the Bean Findings tool window, which lists the findings of the checkers grouped by checker,
+ * module and bean, see {@link BeanFindingsPanel}.
+ */
+public class BeanFindingsToolWindowFactory implements ToolWindowFactory, DumbAware {
+
+    /**
+     * The id of the tool window, as registered in plugin.xml.
+     */
+    public static final String TOOL_WINDOW_ID = "Bean Findings";
+
+    @Override
+    public void createToolWindowContent(@NotNull Project project, @NotNull ToolWindow toolWindow) {
+        BeanFindingsPanel panel = new BeanFindingsPanel(project);
+        Content content = ContentFactory.getInstance().createContent(panel, "", false);
+        content.setDisposer(panel);
+        toolWindow.getContentManager().addContent(content);
+    }
+
+    /**
+     * Opens the Bean Findings tool window of the given project. Can be called from any thread.
+     *
+     * @param project the current project
+     */
+    public static void show(@NotNull Project project) {
+        ApplicationManager.getApplication().invokeLater(() -> {
+            ToolWindow toolWindow = ToolWindowManager.getInstance(project).getToolWindow(TOOL_WINDOW_ID);
+            if (toolWindow != null) {
+                toolWindow.show();
+            }
+        }, project.getDisposed());
+    }
+}
@@ -0,0 +1,220 @@
+package org.example.plugindev;
+
+import org.jetbrains.annotations.NotNull;
+
+import javax.swing.event.TreeModelEvent;
+import javax.swing.event.TreeModelListener;
+import javax.swing.tree.TreeModel;
+import javax.swing.tree.TreePath;
+import java.util.*;
+
+/**
+ * Tree model of the Bean Findings tool window: findings grouped by checker, module and bean.
+ * Groups are plain objects holding their children in arrival order, with no tree node per finding, and new
+ * findings are appended with one insertion event per touched group, so a tree in large model mode only
+ * lays out the rows it shows. Group structures can be built on any thread with {@link #group(List)};
+ * once handed to the model, they are only changed on the event dispatch thread.
+ */
+final class BeanFindingsTreeModel implements TreeModel {
+
+    static final String NO_MODULE = "No module";
+    static final String NO_BEAN = "No bean";
+
+    private final List<TreeModelListener> listeners = new ArrayList<>();
+    private Group root = new Group(null, "", 0);
+
+    /**
+     * A checker, module or bean node, with the number of findings below it.
+     */
+    static final class Group {
+        private final Group parent;
+        private final String name;
+        private final int indexInParent;
+        private final Map<String, Group> groups = new HashMap<>();
+        private final List<Object> children = new ArrayList<>();
+        private int findingCount;
+
+        private Group(Group parent, String name, int indexInParent) {
+            this.parent = parent;
+            this.name = name;
+            this.indexInParent = indexInParent;
+        }
+
+        /**
+         * Gets the checker, module or bean name of the group.
+         *
+         * @return the name shown in the tree
+         */
+        String getName() {
+            return name;
+        }
+
+        /**
+         * Gets the number of findings below the group.
+         *
+         * @return the finding count
+         */
+        int getFindingCount() {
+            return findingCount;
+        }
+
+        /**
+         * Adds a finding under its checker, module and bean groups, creating the missing ones.
+         *
+         * @param finding the finding
+         * @param touched receives the groups whose children or counts changed, with their child count before
+         *                the change, the first time each is touched
+         */
+        private void add(BeanFinding finding, Map<Group, Integer> touched) {
+            Group group = this;
+            for (String key : new String[]{finding.checker(),
+                    Objects.requireNonNullElse(finding.moduleName(), NO_MODULE),
+                    Objects.requireNonNullElse(finding.beanName(), NO_BEAN)}) {
+                touched.putIfAbsent(group, group.children.size());
+                group.findingCount++;
+                Group child = group.groups.get(key);
+                if (child == null) {
+                    child = new Group(group, key, group.children.size());
+                    group.groups.put(key, child);
+                    group.children.add(child);
+                }
+                group = child;
+            }
+            touched.putIfAbsent(group, group.children.size());
+            group.findingCount++;
+            group.children.add(finding);
+        }
+
+        private TreePath getPath() {
+            return parent == null ? new TreePath(this) : parent.getPath().pathByAddingChild(this);
+        }
+    }
+
+    /**
+     * Groups findings into a new group structure, outside the model.
+     *
+     * @param findings the findings
+     * @return the root group
+     */
+    static Group group(@NotNull List<BeanFinding> findings) {
+        Group root = new Group(null, "", 0);
+        Map<Group, Integer> touched = new HashMap<>();
+        for (BeanFinding finding : findings) {
+            root.add(finding, touched);
+        }
+        return root;
+    }
+
+    /**
+     * Replaces all findings of the model. Must be called on the event dispatch thread.
+     *
+     * @param newRoot a group structure built by {@link #group(List)}
+     */
+    void setRoot(@NotNull Group newRoot) {
+        root = newRoot;
+        TreeModelEvent event = new TreeModelEvent(this, new TreePath(root));
+        for (TreeModelListener listener : List.copyOf(listeners)) {
+            listener.treeStructureChanged(event);
+        }
+    }
+
+    /**
+     * Appends findings to the model. Must be called on the event dispatch thread.
+     *
+     * @param findings the new findings
+     */
+    void add(@NotNull List<BeanFinding> findings) {
+        Map<Group, Integer> touched = new LinkedHashMap<>();
+        for (BeanFinding finding : findings) {
+            root.add(finding, touched);
+        }
+        for (Map.Entry<Group, Integer> entry : touched.entrySet()) {
+            Group group = entry.getKey();
+            if (group.parent != null && group.indexInParent < touched.get(group.parent)) {
+                // The count shown by a group which already existed changed
+                fire(group.parent.getPath(), new int[]{group.indexInParent}, new Object[]{group}, false);
+            }
+            int from = entry.getValue();
+            int[] indices = new int[group.children.size() - from];
+            Object[] children = new Object[indices.length];
+            for (int i = 0; i < indices.length; i++) {
+                indices[i] = from + i;
+                children[i] = group.children.get(from + i);
+            }
+            if (indices.length > 0) {
+                fire(group.getPath(), indices, children, true);
+            }
+        }
+    }
+
+    /**
+     * Gets the number of findings in the model.
+     *
+     * @return the finding count
+     */
+    int getFindingCount() {
+        return root.findingCount;
+    }
+
+    @Override
+    public Object getRoot() {
+        return root;
+    }
+
+    @Override
+    public Object getChild(Object parent, int index) {
+        return ((Group) parent).children.get(index);
+    }
+
+    @Override
+    public int getChildCount(Object parent) {
+        return parent instanceof Group group ? group.children.size() : 0;
+    }
+
+    @Override
+    public boolean isLeaf(Object node) {
+        return !(node instanceof Group);
+    }
+
+    @Override
+    public void valueForPathChanged(TreePath path, Object newValue) {
+    }
+
+    @Override
+    public int getIndexOfChild(Object parent, Object child) {
+        if (!(parent instanceof Group group)) {
+            return -1;
+        }
+        if (child instanceof Group childGroup) {
+            return childGroup.parent == group ? childGroup.indexInParent : -1;
+        }
+        List<Object> children = group.children;
+        for (int i = 0; i < children.size(); i++) {
+            if (children.get(i) == child) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public void addTreeModelListener(TreeModelListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void removeTreeModelListener(TreeModelListener listener) {
+        listeners.remove(listener);
+    }
+
+    private void fire(TreePath parentPath, int[] indices, Object[] children, boolean inserted) {
+        TreeModelEvent event = new TreeModelEvent(this, parentPath, indices, children);
+        for (TreeModelListener listener : List.copyOf(listeners)) {
+            if (inserted) {
+                listener.treeNodesInserted(event);
+            } else {
+                listener.treeNodesChanged(event);
+            }
+        }
+    }
+}
@@ -0,0 +1,413 @@
+package org.example.plugindev;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.*;
+
+/**
+ * Immutable dependency graph of the beans of a project.
+ * Beans are identified by name and numbered densely, dependencies are stored as adjacency arrays
+ * so the graph can be traversed without touching PSI. Every dependency carries the {@link DependencyKind}
+ * of the injection which created it. The arrays are held in buffers, on the heap for graphs built in memory
+ * or in memory-mapped files for graphs built by a {@link SpilledBeanGraphBuilder}; both are read the same way.
+ */
+public final class BeanGraph {
+
+    private final NameTable names;
+    private final IntBuffer dependencyOffsets;
+    private final IntBuffer dependencies;
+    private final ByteBuffer dependencyKinds;
+    private final boolean mapped;
+
+    /**
+     * How a bean receives one of its dependencies, from the weakest to the strongest.
+     */
+    public enum DependencyKind {
+        /**
+         * The dependency is looked up after creation, through @Lazy, ObjectProvider, ObjectFactory or Provider.
+         */
+        DEFERRED,
+        /**
+         * The dependency is injected into a field or a setter after the bean was created.
+         */
+        PROPERTY,
+        /**
+         * The dependency is needed to create the bean, as a constructor or factory method argument.
+         */
+        CONSTRUCTOR
+    }
+
+    private static final DependencyKind[] KINDS = DependencyKind.values();
+
+    /**
+     * The names of the beans of a graph and their modules, with the reverse lookup.
+     */
+    interface NameTable {
+
+        /**
+         * Gets the number of beans.
+         *
+         * @return the bean count
+         */
+        int size();
+
+        /**
+         * Gets the name of a bean.
+         *
+         * @param bean the bean index
+         * @return the bean name
+         */
+        String getBeanName(int bean);
+
+        /**
+         * Gets the module declaring a bean.
+         *
+         * @param bean the bean index
+         * @return the module name, or null if unknown
+         */
+        @Nullable String getModuleName(int bean);
+
+        /**
+         * Gets the index of a bean.
+         *
+         * @param beanName the bean name
+         * @return the bean index, or -1 if there is no such bean
+         */
+        int indexOf(String beanName);
+    }
+
+    private record ArrayNameTable(String[] beanNames, String[] moduleNames, Map<String, Integer> beanIndex)
+            implements NameTable {
+
+        @Override
+        public int size() {
+            return beanNames.length;
+        }
+
+        @Override
+        public String getBeanName(int bean) {
+            return beanNames[bean];
+        }
+
+        @Override
+        public @Nullable String getModuleName(int bean) {
+            return moduleNames[bean];
+        }
+
+        @Override
+        public int indexOf(String beanName) {
+            Integer index = beanIndex.get(beanName);
+            return index != null ? index : -1;
+        }
+    }
+
+    private BeanGraph(NameTable names, IntBuffer dependencyOffsets, IntBuffer dependencies, ByteBuffer dependencyKinds,
+                      boolean mapped) {
+        this.names = names;
+        this.dependencyOffsets = dependencyOffsets;
+        this.dependencies = dependencies;
+        this.dependencyKinds = dependencyKinds;
+        this.mapped = mapped;
+    }
+
+    /**
+     * Creates a graph from adjacency arrays. Bean names must be unique and the dependencies of every bean distinct.
+     *
+     * @param beanNames         the bean names by index
+     * @param moduleNames       the declaring module of every bean, null entries for unknown modules
+     * @param dependencyOffsets the start of the dependencies of every bean, followed by the total count
+     * @param dependencies      the dependency targets
+     * @param dependencyKinds   the ordinal of the {@link DependencyKind} of every dependency
+     * @return the graph
+     */
+    static BeanGraph of(String[] beanNames, String[] moduleNames, int[] dependencyOffsets, int[] dependencies, byte[] dependencyKinds) {
+        Map<String, Integer> beanIndex = new HashMap<>();
+        for (int bean = 0; bean < beanNames.length; bean++) {
+            beanIndex.put(beanNames[bean], bean);
+        }
+        return new BeanGraph(new ArrayNameTable(beanNames, moduleNames, beanIndex), IntBuffer.wrap(dependencyOffsets),
+                IntBuffer.wrap(dependencies), ByteBuffer.wrap(dependencyKinds), false);
+    }
+
+    /**
+     * Creates a graph over adjacency buffers mapped from files. The buffers are only read with absolute
+     * indices, so the graph can be shared between threads like a graph built in memory.
+     *
+     * @param names             the bean names and modules
+     * @param dependencyOffsets the start of the dependencies of every bean, followed by the total count
+     * @param dependencies      the dependency targets
+     * @param dependencyKinds   the ordinal of the {@link DependencyKind} of every dependency
+     * @return the graph
+     */
+    static BeanGraph mapped(NameTable names, IntBuffer dependencyOffsets, IntBuffer dependencies, ByteBuffer dependencyKinds) {
+        return new BeanGraph(names, dependencyOffsets, dependencies, dependencyKinds, true);
+    }
+
+    /**
+     * Creates a builder for a new graph.
+     *
+     * @return an empty builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Gets the number of beans in the graph.
+     *
+     * @return the bean count
+     */
+    public int getBeanCount() {
+        return names.size();
+    }
+
+    /**
+     * Gets the total number of dependencies in the graph.
+     *
+     * @return the dependency count
+     */
+    public int getDependencyCount() {
+        return dependencyOffsets.get(getBeanCount());
+    }
+
+    /**
+     * Checks if the graph is stored in memory-mapped files rather than on the heap.
+     * Analyses of a mapped graph should walk it in place instead of copying parts of it to the heap.
+     *
+     * @return true if the graph was built by a {@link SpilledBeanGraphBuilder}
+     */
+    public boolean isMapped() {
+        return mapped;
+    }
+
+    /**
+     * Gets the name of the bean with the given index.
+     *
+     * @param bean the bean index
+     * @return the bean name
+     */
+    public String getBeanName(int bean) {
+        return names.getBeanName(bean);
+    }
+
+    /**
+     * Gets the name of the module declaring the bean with the given index.
+     *
+     * @param bean the bean index
+     * @return the module name, or null if the bean was only seen as a dependency
+     */
+    public @Nullable String getModuleName(int bean) {
+        return names.getModuleName(bean);
+    }
+
+    /**
+     * Gets the index of the bean with the given name.
+     *
+     * @param beanName the bean name
+     * @return the bean index, or -1 if the bean is not part of the graph
+     */
+    public int indexOf(String beanName) {
+        return names.indexOf(beanName);
+    }
+
+    /**
+     * Gets the beans the given bean depends on.
+     *
+     * @param bean the bean index
+     * @return the indices of the dependencies
+     */
+    public int[] getDependencies(int bean) {
+        int from = dependencyOffsets.get(bean);
+        int[] result = new int[dependencyOffsets.get(bean + 1) - from];
+        dependencies.get(from, result);
+        return result;
+    }
+
+    /**
+     * Gets the beans the given bean depends on through dependencies at least as strong as the given kind.
+     *
+     * @param bean        the bean index
+     * @param weakestKind the weakest kind of dependency to follow
+     * @return the indices of the dependencies
+     */
+    public int[] getDependencies(int bean, @NotNull DependencyKind weakestKind) {
+        if (weakestKind == DependencyKind.DEFERRED) {
+            return getDependencies(bean);
+        }
+        int count = 0;
+        int from = dependencyOffsets.get(bean);
+        int to = dependencyOffsets.get(bean + 1);
+        int[] result = new int[to - from];
+        for (int i = from; i < to; i++) {
+            if (dependencyKinds.get(i) >= weakestKind.ordinal()) {
+                result[count++] = dependencies.get(i);
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Gets the kinds of the dependencies of the given bean, in the order of {@link #getDependencies(int)}.
+     *
+     * @param bean the bean index
+     * @return the kind of each dependency
+     */
+    public DependencyKind[] getDependencyKinds(int bean) {
+        int from = dependencyOffsets.get(bean);
+        DependencyKind[] kinds = new DependencyKind[dependencyOffsets.get(bean + 1) - from];
+        for (int i = 0; i < kinds.length; i++) {
+            kinds[i] = KINDS[dependencyKinds.get(from + i)];
+        }
+        return kinds;
+    }
+
+    /**
+     * Extracts the graph induced by the given beans: the beans with their modules and the dependencies
+     * between them. Dependencies leaving the given beans are dropped.
+     *
+     * @param beans the bean indices to keep
+     * @return the induced graph
+     */
+    public BeanGraph subgraph(int @NotNull [] beans) {
+        Builder builder = builder();
+        for (int bean : beans) {
+            builder.addBean(getBeanName(bean), getModuleName(bean));
+        }
+        for (int bean : beans) {
+            for (int i = dependencyOffsets.get(bean); i < dependencyOffsets.get(bean + 1); i++) {
+                String dependencyName = getBeanName(dependencies.get(i));
+                if (builder.beanIndex.containsKey(dependencyName)) {
+                    builder.addDependency(getBeanName(bean), dependencyName, KINDS[dependencyKinds.get(i)]);
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Receives the beans and dependencies found by an extractor.
+     */
+    public interface Collector {
+
+        /**
+         * Adds a bean declared in the given module.
+         *
+         * @param beanName   the bean name
+         * @param moduleName the module declaring the bean, or null if unknown
+         * @return the bean index
+         */
+        int addBean(@NotNull String beanName, @Nullable String moduleName);
+
+        /**
+         * Adds a dependency between two beans, adding missing beans without a module.
+         *
+         * @param beanName       the bean having the dependency
+         * @param dependencyName the bean it depends on
+         * @param kind           how the dependency is injected
+         */
+        void addDependency(@NotNull String beanName, @NotNull String dependencyName, @NotNull DependencyKind kind);
+
+        /**
+         * Adds all beans and dependencies of another graph, unifying beans by name.
+         *
+         * @param graph the graph to merge into this collector
+         */
+        default void addGraph(@NotNull BeanGraph graph) {
+            for (int bean = 0; bean < graph.getBeanCount(); bean++) {
+                addBean(graph.getBeanName(bean), graph.getModuleName(bean));
+            }
+            for (int bean = 0; bean < graph.getBeanCount(); bean++) {
+                String beanName = graph.getBeanName(bean);
+                for (int i = graph.dependencyOffsets.get(bean); i < graph.dependencyOffsets.get(bean + 1); i++) {
+                    addDependency(beanName, graph.getBeanName(graph.dependencies.get(i)), KINDS[graph.dependencyKinds.get(i)]);
+                }
+            }
+        }
+
+        /**
+         * Freezes the collected beans and dependencies.
+         *
+         * @return the immutable graph
+         */
+        BeanGraph build();
+    }
+
+    /**
+     * Collects beans and dependencies and freezes them into a {@link BeanGraph}.
+     * Dependencies may refer to beans which are declared later or never, such beans are added
+     * without a module. A dependency added several times keeps its strongest kind. Builders are not thread safe.
+     */
+    public static final class Builder implements Collector {
+        private final List<String> beanNames = new ArrayList<>();
+        private final List<String> moduleNames = new ArrayList<>();
+        private final Map<String, Integer> beanIndex = new HashMap<>();
+        private final List<Map<Integer, DependencyKind>> dependencies = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Adds a bean declared in the given module.
+         *
+         * @param beanName   the bean name
+         * @param moduleName the module declaring the bean, or null if unknown
+         * @return the bean index
+         */
+        @Override
+        public int addBean(@NotNull String beanName, @Nullable String moduleName) {
+            Integer index = beanIndex.get(beanName);
+            if (index == null) {
+                index = beanNames.size();
+                beanIndex.put(beanName, index);
+                beanNames.add(beanName);
+                moduleNames.add(moduleName);
+                dependencies.add(new LinkedHashMap<>());
+            } else if (moduleNames.get(index) == null) {
+                moduleNames.set(index, moduleName);
+            }
+            return index;
+        }
+
+        /**
+         * Adds a dependency between two beans, adding missing beans without a module.
+         *
+         * @param beanName       the bean having the dependency
+         * @param dependencyName the bean it depends on
+         * @param kind           how the dependency is injected
+         */
+        @Override
+        public void addDependency(@NotNull String beanName, @NotNull String dependencyName, @NotNull DependencyKind kind) {
+            int bean = addBean(beanName, null);
+            int dependency = addBean(dependencyName, null);
+            dependencies.get(bean).merge(dependency, kind, (first, second) -> first.compareTo(second) >= 0 ? first : second);
+        }
+
+        /**
+         * Freezes the collected beans and dependencies.
+         *
+         * @return the immutable graph
+         */
+        @Override
+        public BeanGraph build() {
+            int beanCount = beanNames.size();
+            int[] offsets = new int[beanCount + 1];
+            for (int bean = 0; bean < beanCount; bean++) {
+                offsets[bean + 1] = offsets[bean] + dependencies.get(bean).size();
+            }
+            int[] targets = new int[offsets[beanCount]];
+            byte[] kinds = new byte[offsets[beanCount]];
+            for (int bean = 0; bean < beanCount; bean++) {
+                int position = offsets[bean];
+                for (Map.Entry<Integer, DependencyKind> dependency : dependencies.get(bean).entrySet()) {
+                    targets[position] = dependency.getKey();
+                    kinds[position++] = (byte) dependency.getValue().ordinal();
+                }
+            }
+            return new BeanGraph(new ArrayNameTable(beanNames.toArray(new String[0]), moduleNames.toArray(new String[0]),
+                    new HashMap<>(beanIndex)), IntBuffer.wrap(offsets), IntBuffer.wrap(targets), ByteBuffer.wrap(kinds), false);
+        }
+    }
+}
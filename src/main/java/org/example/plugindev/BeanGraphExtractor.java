@@ -0,0 +1,190 @@
+package org.example.plugindev;
+
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.*;
+import com.intellij.psi.search.GlobalSearchScope;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Collects the beans of one module and their dependencies into a {@link BeanGraph}.
+ * Dependencies are resolved the same way {@link CyclicDependencyDetector} resolves them,
+ * so cycles found on the graph are the ones the detector reports. Beans produced by @Bean
+ * factory methods are taken from the {@link BeanFactoryMethodIndex}.
+ */
+public class BeanGraphExtractor {
+
+
+    private final Module module;
+    private final Project project;
+    private final BeanGraph.Collector builder;
+
+    /**
+     * Creates an extractor for the beans declared in the given module.
+     *
+     * @param module the module declaring the beans
+     */
+    public BeanGraphExtractor(@NotNull Module module) {
+        this(module, BeanGraph.builder());
+    }
+
+    /**
+     * Creates an extractor feeding the beans declared in the given module into a shared collector,
+     * typically a {@link ConcurrentBeanGraphBuilder} fed by the extractors of all modules.
+     *
+     * @param module    the module declaring the beans
+     * @param collector the collector receiving the beans and dependencies
+     */
+    public BeanGraphExtractor(@NotNull Module module, @NotNull BeanGraph.Collector collector) {
+        this.module = module;
+        this.project = module.getProject();
+        this.builder = collector;
+    }
+
+    /**
+     * Adds a bean class and the beans injected into it, each dependency with the kind of its injection.
+     *
+     * @param psiClass the bean class
+     */
+    public void addBean(@NotNull PsiClass psiClass) {
+        String beanName = psiClass.getQualifiedName();
+        if (beanName == null) {
+            return;
+        }
+        builder.addBean(beanName, module.getName());
+        CyclicDependencyDetector dependencyResolver = new CyclicDependencyDetector();
+        for (InjectionPoint injectionPoint : dependencyResolver.getInjectionPoints(psiClass)) {
+            if (injectionPoint.multiple()) {
+                addFanOutDependencies(beanName, injectionPoint, psiClass);
+            } else {
+                addDependency(beanName, injectionPoint, dependencyResolver.resolveInjectedClass(injectionPoint, project, psiClass));
+            }
+        }
+    }
+
+    /**
+     * Adds the beans produced by the @Bean factory methods declared in the module and the beans
+     * injected into the factory method parameters. A non-static factory method also depends on
+     * its configuration class. Factory method parameters are needed to create the bean, like
+     * constructor parameters.
+     */
+    public void addFactoryBeans() {
+        for (BeanFactoryMethodIndex.FactoryBean factoryBean : BeanFactoryMethodIndex.getInstance(project).getFactoryBeans(module.getModuleScope(false))) {
+            addFactoryBean(factoryBean.method());
+        }
+    }
+
+    /**
+     * Adds the bean produced by a @Bean factory method and the beans injected into its parameters,
+     * named like {@link BeanFactoryMethodIndex.FactoryBean#getGraphName()}. Methods without @Bean are ignored.
+     *
+     * @param method the factory method
+     */
+    public void addFactoryBean(@NotNull PsiMethod method) {
+        PsiClass configurationClass = method.getContainingClass();
+        if (!method.hasAnnotation(BeanFactoryMethodIndex.BEAN_ANNOTATION)
+                || configurationClass == null || configurationClass.getQualifiedName() == null) {
+            return;
+        }
+        String beanName = configurationClass.getQualifiedName() + "#" + method.getName();
+        builder.addBean(beanName, module.getName());
+        if (!method.hasModifierProperty(PsiModifier.STATIC)) {
+            builder.addDependency(beanName, configurationClass.getQualifiedName(), BeanGraph.DependencyKind.CONSTRUCTOR);
+        }
+        CyclicDependencyDetector dependencyResolver = new CyclicDependencyDetector();
+        for (PsiParameter parameter : method.getParameterList().getParameters()) {
+            InjectionPoint injectionPoint = InjectionPoint.of(parameter, BeanGraph.DependencyKind.CONSTRUCTOR);
+            if (injectionPoint.multiple()) {
+                addFanOutDependencies(beanName, injectionPoint, configurationClass);
+            } else {
+                addDependency(beanName, injectionPoint, dependencyResolver.resolveInjectedClass(injectionPoint, project, configurationClass));
+            }
+        }
+    }
+
+    /**
+     * Adds the dependency of a bean on an injection point. Types which are not stereotype beans
+     * are looked up among the factory beans visible from the module whose return type matches
+     * the type arguments of the injection point.
+     *
+     * @param beanName       the name of the bean declaring the injection point
+     * @param injectionPoint the injection point
+     * @param resolvedClass  the class the injection point was resolved to, or null
+     */
+    private void addDependency(String beanName, InjectionPoint injectionPoint, PsiClass resolvedClass) {
+        BeanGraph.DependencyKind kind = injectionPoint.kind();
+        if (resolvedClass == null || !StereotypeClassifier.isStereotype(resolvedClass)) {
+            PsiClass parameterClass = injectionPoint.resolveClass();
+            if (parameterClass != null && parameterClass.getQualifiedName() != null) {
+                GlobalSearchScope scope = BeanSearchScopes.getInstance(project).getModuleScope(module);
+                List<BeanFactoryMethodIndex.FactoryBean> providers =
+                        BeanFactoryMethodIndex.getInstance(project).findProviders(parameterClass.getQualifiedName(), scope);
+                String qualifier = InjectionCandidateResolver.getQualifier(injectionPoint.element());
+                boolean added = false;
+                for (BeanFactoryMethodIndex.FactoryBean provider : providers) {
+                    PsiType providedType = provider.method().getReturnType();
+                    if (providedType != null && !injectionPoint.type().isAssignableFrom(providedType)) {
+                        // Same class with other type arguments
+                        continue;
+                    }
+                    if (qualifier == null || provider.qualifiers().contains(qualifier)) {
+                        builder.addDependency(beanName, provider.getGraphName(), kind);
+                        added = true;
+                    }
+                }
+                if (added) {
+                    return;
+                }
+            }
+        }
+        if (resolvedClass != null && resolvedClass.getQualifiedName() != null && !resolvedClass.getQualifiedName().startsWith("java.")) {
+            builder.addDependency(beanName, resolvedClass.getQualifiedName(), kind);
+        }
+    }
+
+    /**
+     * Adds a dependency on every bean injected into a collection, array or map injection point.
+     * The candidates come from the cached {@link InjectionCandidateResolver}, so injecting several beans
+     * is never ambiguous, and a cycle closed through a collection is found like any other.
+     *
+     * @param beanName       the name of the bean declaring the injection point
+     * @param injectionPoint the collection injection point
+     * @param injectingClass the class declaring the injection point, which Spring does not inject into itself
+     */
+    private void addFanOutDependencies(String beanName, InjectionPoint injectionPoint, PsiClass injectingClass) {
+        if (!(injectionPoint.type() instanceof PsiClassType elementType)) {
+            return;
+        }
+        GlobalSearchScope scope = BeanSearchScopes.getInstance(project).getModuleScope(module);
+        InjectionCandidateResolver.Resolution resolution = InjectionCandidateResolver.getInstance(project)
+                .resolve(elementType, InjectionCandidateResolver.getQualifier(injectionPoint.element()), scope);
+        for (PsiMember candidate : resolution.getCandidates(injectingClass)) {
+            String dependencyName = getGraphName(candidate);
+            if (dependencyName != null) {
+                builder.addDependency(beanName, dependencyName, injectionPoint.kind());
+            }
+        }
+    }
+
+    private static String getGraphName(PsiMember member) {
+        if (member instanceof PsiClass psiClass) {
+            return psiClass.getQualifiedName();
+        }
+        PsiClass containingClass = member.getContainingClass();
+        return containingClass != null && containingClass.getQualifiedName() != null
+                ? containingClass.getQualifiedName() + "#" + member.getName()
+                : null;
+    }
+
+    /**
+     * Freezes the beans collected so far. With a shared collector the graph also contains
+     * the beans of the other extractors.
+     *
+     * @return the graph of the collected beans
+     */
+    public BeanGraph build() {
+        return builder.build();
+    }
+}
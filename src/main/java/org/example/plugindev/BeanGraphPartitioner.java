@@ -0,0 +1,70 @@
+package org.example.plugindev;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * Splits a {@link BeanGraph} into its weakly connected components with a union-find pass over the dependencies.
+ * Beans of different components never depend on each other, directly or not, so every component can be
+ * analyzed on its own and in parallel with the others.
+ */
+public final class BeanGraphPartitioner {
+
+    private BeanGraphPartitioner() {
+    }
+
+    /**
+     * Partitions the graph into weakly connected components.
+     *
+     * @param graph the graph to partition
+     * @return the bean indices of each component, largest components first
+     */
+    public static @NotNull List<int[]> partition(@NotNull BeanGraph graph) {
+        int beanCount = graph.getBeanCount();
+        int[] parent = new int[beanCount];
+        int[] size = new int[beanCount];
+        for (int bean = 0; bean < beanCount; bean++) {
+            parent[bean] = bean;
+            size[bean] = 1;
+        }
+        for (int bean = 0; bean < beanCount; bean++) {
+            for (int dependency : graph.getDependencies(bean)) {
+                int beanRoot = find(parent, bean);
+                int dependencyRoot = find(parent, dependency);
+                if (beanRoot == dependencyRoot) {
+                    continue;
+                }
+                // Union by size keeps the trees shallow
+                if (size[beanRoot] < size[dependencyRoot]) {
+                    int swap = beanRoot;
+                    beanRoot = dependencyRoot;
+                    dependencyRoot = swap;
+                }
+                parent[dependencyRoot] = beanRoot;
+                size[beanRoot] += size[dependencyRoot];
+            }
+        }
+
+        Map<Integer, int[]> components = new HashMap<>();
+        int[] filled = new int[beanCount];
+        for (int bean = 0; bean < beanCount; bean++) {
+            int root = find(parent, bean);
+            int[] component = components.computeIfAbsent(root, r -> new int[size[r]]);
+            component[filled[root]++] = bean;
+        }
+        List<int[]> partitions = new ArrayList<>(components.values());
+        partitions.sort(Comparator.comparingInt((int[] component) -> component.length).reversed()
+                .thenComparingInt(component -> component[0]));
+        return partitions;
+    }
+
+    private static int find(int[] parent, int bean) {
+        while (parent[bean] != bean) {
+            // Path halving
+            parent[bean] = parent[parent[bean]];
+            bean = parent[bean];
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,118 @@
+package org.example.plugindev;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.UncheckedIOException;
+import java.nio.IntBuffer;
+import java.util.BitSet;
+import java.util.function.IntConsumer;
+
+/**
+ * Answers which beans transitively depend on a bean, and which beans a bean transitively depends on.
+ * The dependents are kept as a reverse adjacency index next to the {@link BeanGraph}, in the same
+ * offset/target layout, so both directions are walked without hashing. The reverse targets of a mapped graph
+ * are mapped from a spill file as well, so only the offsets take heap space. A walk marks the visited beans
+ * in a {@link BitSet} and hands them out in breadth-first order, nearest beans first.
+ */
+public final class BeanImpactIndex {
+
+    private final BeanGraph graph;
+    private final int[] dependentOffsets;
+    private final IntBuffer dependents;
+
+    /**
+     * Builds the reverse adjacency index of the given graph.
+     *
+     * @param graph the bean graph
+     * @throws UncheckedIOException if the reverse targets of a mapped graph cannot be spilled
+     */
+    public BeanImpactIndex(@NotNull BeanGraph graph) {
+        this.graph = graph;
+        int beanCount = graph.getBeanCount();
+        dependentOffsets = new int[beanCount + 1];
+        for (int bean = 0; bean < beanCount; bean++) {
+            for (int dependency : graph.getDependencies(bean)) {
+                dependentOffsets[dependency + 1]++;
+            }
+        }
+        for (int bean = 0; bean < beanCount; bean++) {
+            dependentOffsets[bean + 1] += dependentOffsets[bean];
+        }
+        dependents = graph.isMapped()
+                ? SpilledBeanGraphBuilder.allocateInts("dependents", dependentOffsets[beanCount])
+                : IntBuffer.allocate(dependentOffsets[beanCount]);
+        int[] cursor = new int[beanCount];
+        System.arraycopy(dependentOffsets, 0, cursor, 0, beanCount);
+        for (int bean = 0; bean < beanCount; bean++) {
+            for (int dependency : graph.getDependencies(bean)) {
+                dependents.put(cursor[dependency]++, bean);
+            }
+        }
+    }
+
+    /**
+     * Gets the indexed graph.
+     *
+     * @return the bean graph
+     */
+    public BeanGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Gets the beans depending directly on the given bean.
+     *
+     * @param bean the bean index
+     * @return the indices of the direct dependents
+     */
+    public int[] getDependents(int bean) {
+        int[] beanDependents = new int[dependentOffsets[bean + 1] - dependentOffsets[bean]];
+        dependents.get(dependentOffsets[bean], beanDependents);
+        return beanDependents;
+    }
+
+    /**
+     * Walks the beans depending on the given bean, directly or not.
+     *
+     * @param bean     the bean index
+     * @param consumer receives every transitive dependent once, nearest first; the bean itself
+     *                 is only reported when it lies on a cycle
+     * @return the transitive dependents
+     */
+    public BitSet collectDependents(int bean, @NotNull IntConsumer consumer) {
+        return walk(bean, true, consumer);
+    }
+
+    /**
+     * Walks the beans the given bean depends on, directly or not.
+     *
+     * @param bean     the bean index
+     * @param consumer receives every transitive dependency once, nearest first; the bean itself
+     *                 is only reported when it lies on a cycle
+     * @return the transitive dependencies
+     */
+    public BitSet collectDependencies(int bean, @NotNull IntConsumer consumer) {
+        return walk(bean, false, consumer);
+    }
+
+    private BitSet walk(int start, boolean reverse, IntConsumer consumer) {
+        BitSet reached = new BitSet(graph.getBeanCount());
+        int[] queue = new int[graph.getBeanCount()];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = start;
+        while (head < tail) {
+            int bean = queue[head++];
+            for (int neighbour : reverse ? getDependents(bean) : graph.getDependencies(bean)) {
+                if (!reached.get(neighbour)) {
+                    reached.set(neighbour);
+                    consumer.accept(neighbour);
+                    if (neighbour != start) {
+                        queue[tail++] = neighbour;
+                    }
+                }
+            }
+        }
+        return reached;
+    }
+}
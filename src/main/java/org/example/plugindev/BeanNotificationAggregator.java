@@ -0,0 +1,103 @@
+package org.example.plugindev;
+
+import com.intellij.notification.Notification;
+import com.intellij.notification.NotificationAction;
+import com.intellij.notification.NotificationType;
+import com.intellij.notification.Notifications;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.project.Project;
+import com.intellij.util.Alarm;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * Turns the findings of the checkers into notifications. Findings reported within the batch window of
+ * {@link BeanValidationSettings} are posted as one notification, which counts them per checker and links to
+ * the Bean Findings tool window, and two notifications are always at least the minimum interval apart;
+ * findings reported in between wait for the next one. A single finding in a batch is posted as before,
+ * titled with its checker.
+ */
+@Service(Service.Level.PROJECT)
+public final class BeanNotificationAggregator implements Disposable {
+
+    private final Project project;
+    private final Alarm alarm = new Alarm(Alarm.ThreadToUse.POOLED_THREAD, this);
+    private final Map<String, Integer> pendingCounts = new LinkedHashMap<>();
+    private BeanFinding firstPending;
+    private int pendingCount;
+    private long lastPostTime;
+
+    public BeanNotificationAggregator(@NotNull Project project) {
+        this.project = project;
+    }
+
+    /**
+     * Gets the notification aggregator of the given project.
+     *
+     * @param project the current project
+     * @return the notification aggregator
+     */
+    public static BeanNotificationAggregator getInstance(@NotNull Project project) {
+        return project.getService(BeanNotificationAggregator.class);
+    }
+
+    /**
+     * Adds a finding to the next notification, scheduling the notification if it is the first finding of a batch.
+     * Can be called from any thread.
+     *
+     * @param finding the finding
+     */
+    public synchronized void add(@NotNull BeanFinding finding) {
+        pendingCounts.merge(finding.checker(), 1, Integer::sum);
+        if (pendingCount++ > 0) {
+            return;
+        }
+        firstPending = finding;
+        BeanValidationSettings settings = BeanValidationSettings.getInstance();
+        long now = System.currentTimeMillis();
+        long postTime = Math.max(now + settings.getNotificationBatchWindowMs(),
+                lastPostTime + settings.getMinNotificationIntervalMs());
+        alarm.addRequest(this::post, postTime - now);
+    }
+
+    /**
+     * Posts the findings collected since the last notification.
+     */
+    private void post() {
+        Map<String, Integer> counts;
+        BeanFinding first;
+        int count;
+        synchronized (this) {
+            counts = new LinkedHashMap<>(pendingCounts);
+            first = firstPending;
+            count = pendingCount;
+            pendingCounts.clear();
+            firstPending = null;
+            pendingCount = 0;
+            lastPostTime = System.currentTimeMillis();
+        }
+        if (count == 0 || project.isDisposed()) {
+            return;
+        }
+        Notification notification;
+        if (count == 1) {
+            notification = new Notification("annotationCheckerGroup", first.checker(), first.message(), NotificationType.ERROR);
+        } else {
+            StringBuilder content = new StringBuilder();
+            for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+                content.append(content.isEmpty() ? "" : "<br>").append(entry.getKey()).append(": ").append(entry.getValue());
+            }
+            notification = new Notification("annotationCheckerGroup", count + " bean validation findings",
+                    content.toString(), NotificationType.ERROR);
+        }
+        notification.addAction(NotificationAction.createSimple("Show in Bean Findings",
+                () -> BeanFindingsToolWindowFactory.show(project)));
+        Notifications.Bus.notify(notification, project);
+    }
+
+    @Override
+    public void dispose() {
+    }
+}
@@ -0,0 +1,73 @@
+package org.example.plugindev;
+
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.module.ModuleUtilCore;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectRootManager;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Provides the search scopes used to resolve injection points.
+ * A bean can only be injected with candidates visible on the runtime classpath of its own module,
+ * so lookups are restricted to the module's runtime dependency closure instead of the whole project.
+ * Scopes are cached per module in a map which is replaced whenever the project roots change, so a scope
+ * computed from the old roots can only end up in the discarded map.
+ */
+@Service(Service.Level.PROJECT)
+public final class BeanSearchScopes {
+
+    private final Project project;
+    private final CachedValue<Map<Module, GlobalSearchScope>> moduleScopes;
+
+    public BeanSearchScopes(@NotNull Project project) {
+        this.project = project;
+        this.moduleScopes = CachedValuesManager.getManager(project).createCachedValue(
+                () -> CachedValueProvider.Result.create(new ConcurrentHashMap<>(), ProjectRootManager.getInstance(project)),
+                false);
+    }
+
+    /**
+     * Gets the scope service of the given project.
+     *
+     * @param project the current project
+     * @return the scope service
+     */
+    public static BeanSearchScopes getInstance(@NotNull Project project) {
+        return project.getService(BeanSearchScopes.class);
+    }
+
+    /**
+     * Gets the scope in which candidates for an injection point declared at the given element are searched.
+     * Elements outside any module, for example library classes, fall back to the whole project.
+     *
+     * @param context the element declaring the injection point
+     * @return the runtime scope of the element's module
+     */
+    public @NotNull GlobalSearchScope getInjectionScope(@Nullable PsiElement context) {
+        Module module = context != null ? ModuleUtilCore.findModuleForPsiElement(context) : null;
+        if (module == null) {
+            return GlobalSearchScope.allScope(project);
+        }
+        return getModuleScope(module);
+    }
+
+    /**
+     * Gets the runtime scope of the given module, which covers the module, its dependencies and libraries.
+     *
+     * @param module the module
+     * @return the cached runtime scope
+     */
+    public @NotNull GlobalSearchScope getModuleScope(@NotNull Module module) {
+        return moduleScopes.getValue().computeIfAbsent(module, m -> m.getModuleRuntimeScope(false));
+    }
+}
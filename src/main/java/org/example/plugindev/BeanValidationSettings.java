@@ -0,0 +1,117 @@
+package org.example.plugindev;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.components.PersistentStateComponent;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.components.State;
+import com.intellij.openapi.components.Storage;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Application wide settings of the bean validation plugin.
+ * Values are persisted in {@code beanValidation.xml} in the IDE configuration directory.
+ */
+@Service(Service.Level.APP)
+@State(name = "BeanValidationSettings", storages = @Storage("beanValidation.xml"))
+public final class BeanValidationSettings implements PersistentStateComponent<BeanValidationSettings.SettingsState> {
+
+    private SettingsState state = new SettingsState();
+
+    /**
+     * Persisted values of the settings.
+     */
+    public static class SettingsState {
+        public long checkinTimeBudgetMs = 2000;
+        public int maxReportedCyclesPerComponent = 1;
+        public boolean boundedMemoryAnalysis = false;
+        public long notificationBatchWindowMs = 1000;
+        public long minNotificationIntervalMs = 5000;
+    }
+
+    /**
+     * Gets the settings instance of the running application.
+     *
+     * @return the settings service
+     */
+    public static BeanValidationSettings getInstance() {
+        return ApplicationManager.getApplication().getService(BeanValidationSettings.class);
+    }
+
+    @Override
+    public @NotNull SettingsState getState() {
+        return state;
+    }
+
+    @Override
+    public void loadState(@NotNull SettingsState state) {
+        this.state = state;
+    }
+
+    /**
+     * Gets the time the pre-commit bean validation may spend before it reports partial coverage.
+     *
+     * @return the time budget in milliseconds
+     */
+    public long getCheckinTimeBudgetMs() {
+        return state.checkinTimeBudgetMs;
+    }
+
+    public void setCheckinTimeBudgetMs(long checkinTimeBudgetMs) {
+        state.checkinTimeBudgetMs = checkinTimeBudgetMs;
+    }
+
+    /**
+     * Gets how many cycles are reported for each group of mutually dependent beans. With the default of one
+     * only the shortest cycle is reported, higher values also list other elementary cycles up to this count.
+     *
+     * @return the maximum number of cycles reported per component
+     */
+    public int getMaxReportedCyclesPerComponent() {
+        return Math.max(1, state.maxReportedCyclesPerComponent);
+    }
+
+    public void setMaxReportedCyclesPerComponent(int maxReportedCyclesPerComponent) {
+        state.maxReportedCyclesPerComponent = maxReportedCyclesPerComponent;
+    }
+
+    /**
+     * Checks if the full analysis keeps the bean graph in memory-mapped files instead of the heap.
+     * Meant for very large projects, where the graph would take a large share of the IDE heap.
+     *
+     * @return true if the bean graph is spilled to disk
+     */
+    public boolean isBoundedMemoryAnalysis() {
+        return state.boundedMemoryAnalysis;
+    }
+
+    public void setBoundedMemoryAnalysis(boolean boundedMemoryAnalysis) {
+        state.boundedMemoryAnalysis = boundedMemoryAnalysis;
+    }
+
+    /**
+     * Gets how long findings are collected before they are reported in one notification.
+     *
+     * @return the batch window in milliseconds
+     */
+    public long getNotificationBatchWindowMs() {
+        return Math.max(0, state.notificationBatchWindowMs);
+    }
+
+    public void setNotificationBatchWindowMs(long notificationBatchWindowMs) {
+        state.notificationBatchWindowMs = notificationBatchWindowMs;
+    }
+
+    /**
+     * Gets the shortest time between two finding notifications. Findings reported sooner wait for the
+     * next notification instead.
+     *
+     * @return the minimum interval in milliseconds
+     */
+    public long getMinNotificationIntervalMs() {
+        return Math.max(0, state.minNotificationIntervalMs);
+    }
+
+    public void setMinNotificationIntervalMs(long minNotificationIntervalMs) {
+        state.minNotificationIntervalMs = minNotificationIntervalMs;
+    }
+}
@@ -0,0 +1,1089 @@
+package org.example.plugindev;
+
+import com.intellij.openapi.diagnostic.Logger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.org.objectweb.asm.*;
+
+import javax.xml.stream.XMLStreamException;
+import java.beans.Introspector;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Builds the {@link BeanGraph} of compiled classes from the .class files of build output directories and jars,
+ * without PSI or indexes. The graph follows the rules of the PSI based {@link BeanGraphExtractor}: the same
+ * injection points, dependency kinds, candidate resolution through @Primary and @Qualifier, factory beans
+ * and collection fan-out, so both backends find the same cycles. The Spring XML files of the roots are
+ * added like the IDE adds the XML contexts of a project.
+ * Files are read through the {@link MappedFileReader}, and every class file is first read through a
+ * {@link ClassFileFilter}: only the classes whose constant pool mentions a Spring annotation, and annotation types,
+ * are copied and parsed completely. XML files are parsed only if their bytes contain a Spring beans
+ * schema or DTD. Headers and parsing run in parallel.
+ */
+public final class BytecodeBeanScanner {
+
+    private static final Logger logger = Logger.getInstance(BytecodeBeanScanner.class);
+    private static final String AUTOWIRED_ANNOTATION = "org.springframework.beans.factory.annotation.Autowired";
+    private static final String QUALIFIER_ANNOTATION = "org.springframework.beans.factory.annotation.Qualifier";
+    private static final String PRIMARY_ANNOTATION = "org.springframework.context.annotation.Primary";
+    private static final String BEAN_ANNOTATION = "org.springframework.context.annotation.Bean";
+    private static final String OBJECT_CLASS = "java.lang.Object";
+    private static final String STRING_CLASS = "java.lang.String";
+    private static final String MAP_CLASS = "java.util.Map";
+    private static final int PARSING_OPTIONS = ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES;
+    private static final List<byte[]> SPRING_XML_MARKERS = List.of(
+            "springframework.org/schema/beans".getBytes(StandardCharsets.US_ASCII),
+            "//DTD BEAN//".getBytes(StandardCharsets.US_ASCII));
+    private static final Map<Character, String> PRIMITIVE_TYPES = Map.of('B', "byte", 'C', "char", 'D', "double",
+            'F', "float", 'I', "int", 'J', "long", 'S', "short", 'Z', "boolean", 'V', "void");
+
+    private final List<Path> roots;
+    private final Map<Path, ZipFile> jars = new ConcurrentHashMap<>();
+    private final Map<String, ClassSource> sources = new LinkedHashMap<>();
+    private final List<ClassSource> xmlSources = new ArrayList<>();
+    private final Map<String, ClassFileFilter.ClassHeader> headers = new HashMap<>();
+    private final Map<String, ParsedClass> parsedClasses = new ConcurrentHashMap<>();
+    private final Map<String, ClassSignature> signatures = new ConcurrentHashMap<>();
+    private final Set<String> stereotypeAnnotations = new HashSet<>(StereotypeClassifier.BUILT_IN_STEREOTYPES);
+    private final Map<String, ParsedClass> beanClasses = new LinkedHashMap<>();
+    private final Set<String> beanClassNames = new HashSet<>();
+    private final Set<String> xmlBeanNames = new HashSet<>();
+    private final List<FactoryBean> factoryBeans = new ArrayList<>();
+    private final Map<String, List<String>> implementationsByClass = new HashMap<>();
+    private final Map<String, List<String>> implementationsByType = new HashMap<>();
+    private final Map<String, List<String>> openImplementationsByClass = new HashMap<>();
+    private final Map<String, List<FactoryBean>> providersByClass = new HashMap<>();
+    private final Map<String, Set<String>> beanNames = new HashMap<>();
+    private final Map<String, List<String>> beansByName = new HashMap<>();
+    private final Set<String> primaryBeans = new HashSet<>();
+    private final Map<String, Resolution> resolutions = new ConcurrentHashMap<>();
+
+    /**
+     * Where a class or XML file is read from.
+     *
+     * @param root      the output directory or jar
+     * @param entryName the path of the file relative to the root, separated by '/'
+     */
+    private record ClassSource(Path root, String entryName) {
+    }
+
+    /**
+     * A type read from a descriptor or a generic signature.
+     *
+     * @param className  the fully qualified class name, or the primitive name, null for type variables and wildcards
+     * @param variable   the name of a type variable
+     * @param arguments  the type arguments
+     * @param dimensions the number of array dimensions
+     * @param wildcard   whether the type is a wildcard, {@code className} being its upper bound if any
+     */
+    private record TypeRef(@Nullable String className, @Nullable String variable, List<TypeRef> arguments,
+                           int dimensions, boolean wildcard) {
+
+        static TypeRef of(String className) {
+            return new TypeRef(className, null, List.of(), 0, false);
+        }
+
+        boolean isClassType() {
+            return className != null && dimensions == 0 && !wildcard && !PRIMITIVE_TYPES.containsValue(className);
+        }
+    }
+
+    /**
+     * The type parameters of a class and its direct supertypes, expressed with these parameters.
+     */
+    private record ClassSignature(List<String> typeParameters, List<TypeRef> supertypes) {
+        static final ClassSignature UNKNOWN = new ClassSignature(List.of(), List.of());
+    }
+
+    /**
+     * A bean produced by a @Bean factory method.
+     *
+     * @param graphName          the configuration class and method names joined by '#'
+     * @param configurationClass the class declaring the method
+     * @param method             the factory method
+     * @param providedTypes      the return type and its supertypes, by class
+     */
+    private record FactoryBean(String graphName, ParsedClass configurationClass, ParsedMember method,
+                               Map<String, TypeRef> providedTypes) {
+    }
+
+    /**
+     * An injection point with the type of the injected bean, as {@link InjectionPoint} describes it for PSI.
+     */
+    private record Injection(TypeRef type, BeanGraph.DependencyKind kind, boolean multiple, @Nullable String qualifier) {
+    }
+
+    /**
+     * The beans which can be injected for a type and qualifier, by graph name.
+     */
+    private record Resolution(List<String> candidates, List<String> primaries) {
+
+        @Nullable String getInjectedBean(String injectingBean) {
+            List<String> others = without(candidates, injectingBean);
+            if (others.size() == 1) {
+                return others.get(0);
+            }
+            List<String> otherPrimaries = without(primaries, injectingBean);
+            return others.size() > 1 && otherPrimaries.size() == 1 ? otherPrimaries.get(0) : null;
+        }
+
+        List<String> getCandidates(String injectingBean) {
+            return without(candidates, injectingBean);
+        }
+
+        static List<String> without(List<String> beans, String injectingBean) {
+            if (!beans.contains(injectingBean)) {
+                return beans;
+            }
+            List<String> others = new ArrayList<>(beans);
+            others.remove(injectingBean);
+            return others;
+        }
+    }
+
+    /**
+     * Creates a scanner of the given class roots, read in the order of a classpath.
+     *
+     * @param roots the build output directories and jars
+     */
+    public BytecodeBeanScanner(@NotNull List<Path> roots) {
+        this.roots = roots;
+    }
+
+    /**
+     * Reads the class roots and builds their bean graph in memory.
+     *
+     * @return the graph of the stereotype, factory and XML beans found in the roots
+     * @throws IOException if a root cannot be read
+     */
+    public BeanGraph scan() throws IOException {
+        return scan(new ConcurrentBeanGraphBuilder());
+    }
+
+    /**
+     * Reads the class roots and builds their bean graph with the given collector,
+     * for example a {@link SpilledBeanGraphBuilder}.
+     *
+     * @param collector a collector accepting beans from several threads
+     * @return the graph of the stereotype, factory and XML beans found in the roots
+     * @throws IOException if a root cannot be read
+     */
+    public BeanGraph scan(@NotNull BeanGraph.Collector collector) throws IOException {
+        try {
+            readHeaders();
+            parseAnnotatedClasses();
+            indexBeans();
+            List<SpringXmlBeanModel> xmlModels = readXmlModels();
+            for (SpringXmlBeanModel xmlModel : xmlModels) {
+                for (SpringXmlBeanModel.XmlBean xmlBean : xmlModel.getBeans()) {
+                    if (xmlBean.className() != null) {
+                        xmlBeanNames.add(getGraphName(xmlBean.className()));
+                    }
+                }
+            }
+            beanClasses.values().parallelStream().forEach(beanClass -> addBean(collector, beanClass));
+            factoryBeans.parallelStream().forEach(factoryBean -> addFactoryBean(collector, factoryBean));
+            if (!xmlModels.isEmpty()) {
+                collector.addGraph(SpringXmlBeanModel.buildGraph(xmlModels));
+            }
+            return collector.build();
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        } finally {
+            for (ZipFile jar : jars.values()) {
+                jar.close();
+            }
+            jars.clear();
+        }
+    }
+
+    /**
+     * Gets the number of class files read.
+     *
+     * @return the number of classes of the roots
+     */
+    public int getClassCount() {
+        return headers.size();
+    }
+
+    /**
+     * Gets the number of class files which passed the constant pool filter and were parsed completely.
+     *
+     * @return the number of parsed classes
+     */
+    public int getParsedClassCount() {
+        return parsedClasses.size();
+    }
+
+    /**
+     * Lists the class and XML files of every root and reads the class headers. A class found in several roots
+     * is taken from the first one, like on a classpath.
+     */
+    private void readHeaders() throws IOException {
+        List<ClassSource> classSources = new ArrayList<>();
+        for (Path root : roots) {
+            if (Files.isDirectory(root)) {
+                try (Stream<Path> files = Files.walk(root)) {
+                    files.filter(Files::isRegularFile).forEach(file -> {
+                        ClassSource source = new ClassSource(root, root.relativize(file).toString().replace('\\', '/'));
+                        if (isClassFile(source.entryName())) {
+                            classSources.add(source);
+                        } else if (source.entryName().endsWith(".xml")) {
+                            xmlSources.add(source);
+                        }
+                    });
+                }
+            } else if (Files.isRegularFile(root)) {
+                ZipFile jar = new ZipFile(root.toFile());
+                jars.put(root, jar);
+                jar.stream().filter(entry -> !entry.isDirectory()).forEach(entry -> {
+                    if (isClassFile(entry.getName()) && !entry.getName().startsWith("META-INF/")) {
+                        classSources.add(new ClassSource(root, entry.getName()));
+                    } else if (entry.getName().endsWith(".xml")) {
+                        xmlSources.add(new ClassSource(root, entry.getName()));
+                    }
+                });
+            }
+        }
+        ClassFileFilter filter = new ClassFileFilter(getSpringAnnotations());
+        ClassFileFilter.ClassHeader[] classHeaders = classSources.parallelStream()
+                .map(source -> filter.readHeader(read(source)))
+                .toArray(ClassFileFilter.ClassHeader[]::new);
+        for (int i = 0; i < classHeaders.length; i++) {
+            if (classHeaders[i] != null && headers.putIfAbsent(classHeaders[i].name(), classHeaders[i]) == null) {
+                sources.put(classHeaders[i].name(), classSources.get(i));
+            }
+        }
+    }
+
+    /**
+     * Parses the annotation types and the classes mentioning Spring annotations, then the classes mentioning
+     * only composed stereotypes, which the first filter could not know about.
+     */
+    private void parseAnnotatedClasses() {
+        headers.values().parallelStream()
+                .filter(header -> header.marked() || header.isAnnotation())
+                .forEach(header -> parse(header.name()));
+
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (ParsedClass parsedClass : parsedClasses.values()) {
+                if (parsedClass.isAnnotation() && !stereotypeAnnotations.contains(parsedClass.name)
+                        && !Collections.disjoint(parsedClass.annotations.keySet(), stereotypeAnnotations)) {
+                    stereotypeAnnotations.add(parsedClass.name);
+                    changed = true;
+                }
+            }
+        }
+        Set<String> composedStereotypes = new HashSet<>(stereotypeAnnotations);
+        composedStereotypes.removeAll(StereotypeClassifier.BUILT_IN_STEREOTYPES);
+        if (!composedStereotypes.isEmpty()) {
+            ClassFileFilter filter = new ClassFileFilter(composedStereotypes);
+            headers.values().parallelStream()
+                    .filter(header -> !header.marked() && !header.isAnnotation())
+                    .filter(header -> Objects.requireNonNull(filter.readHeader(read(sources.get(header.name())))).marked())
+                    .forEach(header -> parse(header.name()));
+        }
+        logger.info("Parsed " + parsedClasses.size() + " of " + headers.size() + " classes");
+    }
+
+    /**
+     * Parses the Spring XML files of the roots. Files whose bytes do not mention a Spring beans schema
+     * or DTD are rejected without being parsed.
+     */
+    private List<SpringXmlBeanModel> readXmlModels() {
+        List<SpringXmlBeanModel> xmlModels = xmlSources.stream()
+                .map(source -> {
+                    ByteBuffer content = read(source);
+                    if (SPRING_XML_MARKERS.stream().noneMatch(marker -> MappedFileReader.contains(content, marker))) {
+                        return null;
+                    }
+                    try {
+                        return SpringXmlBeanModel.parse(MappedFileReader.asInputStream(content));
+                    } catch (XMLStreamException ex) {
+                        logger.warn("Error parsing XML file " + source.entryName(), ex);
+                        return null;
+                    }
+                })
+                .filter(Objects::nonNull)
+                .toList();
+        logger.info("Parsed " + xmlModels.size() + " of " + xmlSources.size() + " XML files");
+        return xmlModels;
+    }
+
+    /**
+     * Indexes the bean classes by the types they can be injected as, the factory beans by the types
+     * they provide and every bean by its names.
+     */
+    private void indexBeans() {
+        for (String className : sources.keySet()) {
+            ParsedClass parsedClass = parsedClasses.get(className);
+            if (parsedClass == null || parsedClass.isAnnotation()) {
+                continue;
+            }
+            if (!Collections.disjoint(parsedClass.annotations.keySet(), stereotypeAnnotations)) {
+                beanClasses.put(parsedClass.name, parsedClass);
+                beanClassNames.add(getGraphName(parsedClass.name));
+            }
+            for (ParsedMember method : parsedClass.methods) {
+                if (method.annotations.containsKey(BEAN_ANNOTATION)) {
+                    TypeRef returnType = method.getReturnType();
+                    Map<String, TypeRef> providedTypes = new LinkedHashMap<>();
+                    if (returnType.isClassType()) {
+                        for (TypeRef providedType : getSupertypes(returnType)) {
+                            providedTypes.put(providedType.className(), providedType);
+                        }
+                    }
+                    factoryBeans.add(new FactoryBean(getGraphName(parsedClass.name) + "#" + method.name, parsedClass, method, providedTypes));
+                }
+            }
+        }
+
+        for (ParsedClass beanClass : beanClasses.values()) {
+            String graphName = getGraphName(beanClass.name);
+            String stereotypeName = getStereotypeName(beanClass);
+            addBeanName(graphName, stereotypeName != null ? stereotypeName : Introspector.decapitalize(getSimpleName(beanClass.name)));
+            for (String qualifier : beanClass.annotations.getOrDefault(QUALIFIER_ANNOTATION, List.of())) {
+                addBeanName(graphName, qualifier);
+            }
+            if (beanClass.annotations.containsKey(PRIMARY_ANNOTATION)) {
+                primaryBeans.add(graphName);
+            }
+            if (!beanClass.isConcrete()) {
+                continue;
+            }
+            List<TypeRef> typeParameters = new ArrayList<>();
+            for (String typeParameter : getClassSignature(beanClass.name).typeParameters()) {
+                typeParameters.add(new TypeRef(null, typeParameter, List.of(), 0, false));
+            }
+            for (TypeRef supertype : getSupertypes(new TypeRef(beanClass.name, null, typeParameters, 0, false))) {
+                if (OBJECT_CLASS.equals(supertype.className())) {
+                    continue;
+                }
+                implementationsByClass.computeIfAbsent(supertype.className(), k -> new ArrayList<>()).add(beanClass.name);
+                if (supertype.arguments().isEmpty()) {
+                    continue;
+                }
+                String typeKey = getTypeKey(supertype);
+                Map<String, List<String>> index = typeKey != null ? implementationsByType : openImplementationsByClass;
+                index.computeIfAbsent(typeKey != null ? typeKey : supertype.className(), k -> new ArrayList<>()).add(beanClass.name);
+            }
+        }
+
+        for (FactoryBean factoryBean : factoryBeans) {
+            List<String> names = factoryBean.method().annotations.getOrDefault(BEAN_ANNOTATION, List.of());
+            addBeanName(factoryBean.graphName(), names.isEmpty() ? factoryBean.method().name : names.get(0));
+            for (String name : names) {
+                addBeanName(factoryBean.graphName(), name);
+            }
+            for (String qualifier : factoryBean.method().annotations.getOrDefault(QUALIFIER_ANNOTATION, List.of())) {
+                addBeanName(factoryBean.graphName(), qualifier);
+            }
+            if (factoryBean.method().annotations.containsKey(PRIMARY_ANNOTATION)) {
+                primaryBeans.add(factoryBean.graphName());
+            }
+            for (String providedClass : factoryBean.providedTypes().keySet()) {
+                providersByClass.computeIfAbsent(providedClass, k -> new ArrayList<>()).add(factoryBean);
+            }
+        }
+    }
+
+    private void addBeanName(String graphName, String name) {
+        if (name == null || name.isEmpty()) {
+            return;
+        }
+        if (beanNames.computeIfAbsent(graphName, k -> new HashSet<>()).add(name)) {
+            beansByName.computeIfAbsent(name, k -> new ArrayList<>()).add(graphName);
+        }
+    }
+
+    /**
+     * Adds a bean class and the beans injected into it, see {@link BeanGraphExtractor#addBean}.
+     */
+    private void addBean(BeanGraph.Collector builder, ParsedClass beanClass) {
+        String beanName = getGraphName(beanClass.name);
+        builder.addBean(beanName, getModuleName(beanClass.name));
+        for (Injection injection : getInjections(beanClass)) {
+            addDependency(builder, beanName, beanName, injection);
+        }
+    }
+
+    /**
+     * Adds a factory bean and the beans injected into its parameters, see {@link BeanGraphExtractor#addFactoryBeans}.
+     */
+    private void addFactoryBean(BeanGraph.Collector builder, FactoryBean factoryBean) {
+        String configurationName = getGraphName(factoryBean.configurationClass().name);
+        builder.addBean(factoryBean.graphName(), getModuleName(factoryBean.configurationClass().name));
+        if ((factoryBean.method().access & Opcodes.ACC_STATIC) == 0) {
+            builder.addDependency(factoryBean.graphName(), configurationName, BeanGraph.DependencyKind.CONSTRUCTOR);
+        }
+        List<TypeRef> parameterTypes = factoryBean.method().getParameterTypes();
+        for (int i = 0; i < parameterTypes.size(); i++) {
+            Injection injection = getInjection(parameterTypes.get(i), factoryBean.method().getParameterAnnotations(i),
+                    BeanGraph.DependencyKind.CONSTRUCTOR);
+            addDependency(builder, factoryBean.graphName(), configurationName, injection);
+        }
+    }
+
+    /**
+     * Gets the injection points of a bean class: the parameters of the constructor Spring uses,
+     * and the @Autowired fields and method parameters of the class and its superclasses.
+     */
+    private List<Injection> getInjections(ParsedClass beanClass) {
+        List<Injection> injections = new ArrayList<>();
+        List<ParsedMember> constructors = new ArrayList<>();
+        for (ParsedMember method : beanClass.methods) {
+            if ("<init>".equals(method.name)) {
+                constructors.add(method);
+            }
+        }
+        for (ParsedMember constructor : constructors) {
+            if (constructors.size() > 1 && !constructor.annotations.containsKey(AUTOWIRED_ANNOTATION)) {
+                continue;
+            }
+            List<TypeRef> parameterTypes = constructor.getParameterTypes();
+            for (int i = 0; i < parameterTypes.size(); i++) {
+                injections.add(getInjection(parameterTypes.get(i), constructor.getParameterAnnotations(i), BeanGraph.DependencyKind.CONSTRUCTOR));
+            }
+        }
+        Set<String> visitedMethods = new HashSet<>();
+        for (ParsedClass parsedClass = beanClass; parsedClass != null; parsedClass = parsedClasses.get(parsedClass.superName)) {
+            for (ParsedMember field : parsedClass.fields) {
+                if (field.annotations.containsKey(AUTOWIRED_ANNOTATION)) {
+                    injections.add(getInjection(field.getType(), field.annotations, BeanGraph.DependencyKind.PROPERTY));
+                }
+            }
+            for (ParsedMember method : parsedClass.methods) {
+                if (!"<init>".equals(method.name) && method.annotations.containsKey(AUTOWIRED_ANNOTATION)
+                        && visitedMethods.add(method.name + method.descriptor)) {
+                    List<TypeRef> parameterTypes = method.getParameterTypes();
+                    for (int i = 0; i < parameterTypes.size(); i++) {
+                        injections.add(getInjection(parameterTypes.get(i), method.getParameterAnnotations(i), BeanGraph.DependencyKind.PROPERTY));
+                    }
+                }
+            }
+            if (parsedClass.superName == null) {
+                break;
+            }
+        }
+        return injections;
+    }
+
+    /**
+     * Unwraps the declared type of an injection point like {@link InjectionPoint#of}.
+     */
+    private static Injection getInjection(TypeRef declaredType, Map<String, List<String>> annotations,
+                                          BeanGraph.DependencyKind declaredKind) {
+        BeanGraph.DependencyKind kind = annotations.containsKey(InjectionPoint.LAZY_ANNOTATION) ? BeanGraph.DependencyKind.DEFERRED : declaredKind;
+        boolean multiple = false;
+        TypeRef type = declaredType;
+        while (true) {
+            if (type.dimensions() > 0 && !multiple && !(type.dimensions() == 1 && PRIMITIVE_TYPES.containsValue(type.className()))) {
+                multiple = true;
+                type = new TypeRef(type.className(), type.variable(), type.arguments(), type.dimensions() - 1, false);
+                continue;
+            }
+            if (type.className() == null || type.dimensions() > 0 || type.arguments().isEmpty()) {
+                break;
+            }
+            List<TypeRef> parameters = type.arguments();
+            if (InjectionPoint.DEFERRED_TYPES.contains(type.className())) {
+                kind = BeanGraph.DependencyKind.DEFERRED;
+            } else if (!multiple && InjectionPoint.COLLECTION_TYPES.contains(type.className())) {
+                multiple = true;
+            } else if (!multiple && MAP_CLASS.equals(type.className()) && parameters.size() == 2
+                    && !parameters.get(0).wildcard() && STRING_CLASS.equals(parameters.get(0).className())) {
+                // Beans by name
+                multiple = true;
+                parameters = List.of(parameters.get(1));
+            } else if (!InjectionPoint.OPTIONAL_TYPE.equals(type.className())) {
+                break;
+            }
+            if (parameters.size() != 1) {
+                break;
+            }
+            type = parameters.get(0);
+            if (type.wildcard()) {
+                type = type.className() != null
+                        ? new TypeRef(type.className(), null, type.arguments(), type.dimensions(), false)
+                        : TypeRef.of(OBJECT_CLASS);
+            }
+        }
+        List<String> qualifiers = annotations.getOrDefault(QUALIFIER_ANNOTATION, List.of());
+        return new Injection(type, kind, multiple, qualifiers.isEmpty() ? null : qualifiers.get(0));
+    }
+
+    /**
+     * Adds the dependency of a bean on an injection point, following {@link BeanGraphExtractor}: a concrete type
+     * is injected as is, an abstract type through its only or primary candidate, and types which are not
+     * stereotype beans through the matching factory beans. Classes which are not beans of the roots, stereotype,
+     * factory or XML, get no edge, so types the scanner never read do not show up in cycles.
+     *
+     * @param builder       the collector of the graph
+     * @param beanName      the bean declaring the injection point
+     * @param injectingBean the class declaring the injection point, which is never injected into itself
+     * @param injection     the injection point
+     */
+    private void addDependency(BeanGraph.Collector builder, String beanName, String injectingBean, Injection injection) {
+        TypeRef type = injection.type();
+        if (!type.isClassType()) {
+            return;
+        }
+        if (injection.multiple()) {
+            for (String candidate : resolve(type, injection.qualifier()).getCandidates(injectingBean)) {
+                builder.addDependency(beanName, candidate, injection.kind());
+            }
+            return;
+        }
+        ClassFileFilter.ClassHeader header = headers.get(type.className());
+        String resolvedBean;
+        if (header == null || header.isConcrete()) {
+            resolvedBean = getGraphName(type.className());
+        } else {
+            Resolution resolution = resolve(type, injection.qualifier());
+            String injectedBean = resolution.getInjectedBean(injectingBean);
+            if (injectedBean != null && injectedBean.indexOf('#') < 0) {
+                resolvedBean = injectedBean;
+            } else if (injection.qualifier() != null && resolution.candidates().isEmpty()) {
+                resolvedBean = findClassBeanByName(injection.qualifier());
+            } else {
+                resolvedBean = null;
+            }
+        }
+        if (resolvedBean == null || !beanClassNames.contains(resolvedBean)) {
+            String typeKey = getTypeKey(type);
+            boolean added = false;
+            for (FactoryBean provider : providersByClass.getOrDefault(type.className(), List.of())) {
+                if (!provides(provider, type.className(), typeKey)) {
+                    // Same class with other type arguments
+                    continue;
+                }
+                if (injection.qualifier() == null || beanNames.get(provider.graphName()).contains(injection.qualifier())) {
+                    builder.addDependency(beanName, provider.graphName(), injection.kind());
+                    added = true;
+                }
+            }
+            if (added) {
+                return;
+            }
+        }
+        if (resolvedBean != null && (beanClassNames.contains(resolvedBean) || xmlBeanNames.contains(resolvedBean))) {
+            builder.addDependency(beanName, resolvedBean, injection.kind());
+        }
+    }
+
+    /**
+     * Resolves the beans which can be injected for a type and qualifier, like
+     * {@link InjectionCandidateResolver#resolve}. Each type and qualifier is resolved once.
+     */
+    private Resolution resolve(TypeRef type, @Nullable String qualifier) {
+        String typeKey = getTypeKey(type);
+        String resolutionKey = (typeKey != null ? typeKey : type.className()) + (qualifier != null ? "@" + qualifier : "");
+        return resolutions.computeIfAbsent(resolutionKey, key -> {
+            List<String> candidates = new ArrayList<>();
+            List<String> implementations = typeKey != null
+                    ? new ArrayList<>(implementationsByType.getOrDefault(typeKey, List.of()))
+                    : implementationsByClass.getOrDefault(type.className(), List.of());
+            if (typeKey != null) {
+                implementations.addAll(openImplementationsByClass.getOrDefault(type.className(), List.of()));
+            }
+            for (String implementation : implementations) {
+                candidates.add(getGraphName(implementation));
+            }
+            for (FactoryBean provider : providersByClass.getOrDefault(type.className(), List.of())) {
+                if (provides(provider, type.className(), typeKey)) {
+                    candidates.add(provider.graphName());
+                }
+            }
+            if (qualifier != null) {
+                candidates.retainAll(beansByName.getOrDefault(qualifier, List.of()));
+            }
+            List<String> primaries = new ArrayList<>(candidates);
+            primaries.retainAll(primaryBeans);
+            return new Resolution(List.copyOf(candidates), List.copyOf(primaries));
+        });
+    }
+
+    /**
+     * Checks if a factory bean can be injected for a type: a raw return type is assignable to every
+     * parameterization of its class, otherwise the type arguments must be the same.
+     */
+    private static boolean provides(FactoryBean factoryBean, String className, @Nullable String typeKey) {
+        TypeRef providedType = factoryBean.providedTypes().get(className);
+        return typeKey == null || providedType.arguments().isEmpty() || typeKey.equals(getTypeKey(providedType));
+    }
+
+    private @Nullable String findClassBeanByName(String name) {
+        List<String> beans = beansByName.getOrDefault(name, List.of());
+        return beans.size() == 1 && beans.get(0).indexOf('#') < 0 ? beans.get(0) : null;
+    }
+
+    /**
+     * Gets a class type and all its supertypes, each class once, with the type arguments of the supertypes
+     * bound as seen from the type. The supertypes of a raw type are raw.
+     */
+    private List<TypeRef> getSupertypes(TypeRef type) {
+        Map<String, TypeRef> supertypes = new LinkedHashMap<>();
+        Deque<TypeRef> pending = new ArrayDeque<>();
+        pending.add(type);
+        while (!pending.isEmpty()) {
+            TypeRef supertype = pending.poll();
+            if (supertype.className() == null || supertypes.putIfAbsent(supertype.className(), supertype) != null) {
+                continue;
+            }
+            ClassSignature signature = getClassSignature(supertype.className());
+            boolean raw = supertype.arguments().size() != signature.typeParameters().size();
+            Map<String, TypeRef> bindings = new HashMap<>();
+            for (int i = 0; !raw && i < signature.typeParameters().size(); i++) {
+                bindings.put(signature.typeParameters().get(i), supertype.arguments().get(i));
+            }
+            for (TypeRef superSupertype : signature.supertypes()) {
+                pending.add(raw ? TypeRef.of(superSupertype.className()) : substitute(superSupertype, bindings));
+            }
+        }
+        return new ArrayList<>(supertypes.values());
+    }
+
+    private static TypeRef substitute(TypeRef type, Map<String, TypeRef> bindings) {
+        if (type.variable() != null) {
+            TypeRef binding = bindings.get(type.variable());
+            return binding != null && type.dimensions() == 0 ? binding : type;
+        }
+        if (type.arguments().isEmpty()) {
+            return type;
+        }
+        List<TypeRef> arguments = new ArrayList<>();
+        for (TypeRef argument : type.arguments()) {
+            arguments.add(substitute(argument, bindings));
+        }
+        return new TypeRef(type.className(), null, arguments, type.dimensions(), type.wildcard());
+    }
+
+    /**
+     * Gets the type parameters and direct supertypes of a class, reading its signature if the class was not parsed.
+     * Classes outside the roots have no known supertypes.
+     */
+    private ClassSignature getClassSignature(String className) {
+        return signatures.computeIfAbsent(className, name -> {
+            ParsedClass parsedClass = parsedClasses.get(name);
+            if (parsedClass == null && sources.containsKey(name)) {
+                parsedClass = new ParsedClass();
+                new ClassReader(MappedFileReader.toArray(read(sources.get(name)))).accept(parsedClass, PARSING_OPTIONS);
+            }
+            return parsedClass != null ? parsedClass.getSignature() : ClassSignature.UNKNOWN;
+        });
+    }
+
+    /**
+     * Builds the key of a parameterized type, or null if the type is raw or one of its arguments is not concrete.
+     */
+    private static @Nullable String getTypeKey(TypeRef type) {
+        if (type.arguments().isEmpty()) {
+            return null;
+        }
+        StringBuilder typeKey = new StringBuilder();
+        return appendConcreteType(typeKey, type) ? typeKey.toString() : null;
+    }
+
+    private static boolean appendConcreteType(StringBuilder typeKey, TypeRef type) {
+        if (type.className() == null || type.wildcard()) {
+            return false;
+        }
+        typeKey.append(type.className());
+        if (!type.arguments().isEmpty()) {
+            typeKey.append('<');
+            for (int i = 0; i < type.arguments().size(); i++) {
+                if (!appendConcreteType(typeKey.append(i > 0 ? "," : ""), type.arguments().get(i))) {
+                    return false;
+                }
+            }
+            typeKey.append('>');
+        }
+        typeKey.append("[]".repeat(type.dimensions()));
+        return true;
+    }
+
+    private @Nullable String getStereotypeName(ParsedClass beanClass) {
+        for (Map.Entry<String, List<String>> annotation : beanClass.annotations.entrySet()) {
+            if (stereotypeAnnotations.contains(annotation.getKey()) && !annotation.getValue().isEmpty()) {
+                return annotation.getValue().get(0);
+            }
+        }
+        return null;
+    }
+
+    private void parse(String className) {
+        ParsedClass parsedClass = new ParsedClass();
+        try {
+            new ClassReader(MappedFileReader.toArray(read(sources.get(className)))).accept(parsedClass, PARSING_OPTIONS);
+            parsedClasses.put(className, parsedClass);
+        } catch (RuntimeException ex) {
+            logger.warn("Error parsing class " + className, ex);
+        }
+    }
+
+    /**
+     * Reads a file of a root. The content is only valid until the next read on the same thread.
+     */
+    private ByteBuffer read(ClassSource source) {
+        try {
+            ZipFile jar = jars.get(source.root());
+            if (jar == null) {
+                return MappedFileReader.read(source.root().resolve(source.entryName()));
+            }
+            ZipEntry entry = jar.getEntry(source.entryName());
+            try (InputStream input = jar.getInputStream(entry)) {
+                return MappedFileReader.read(input, entry.getSize());
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private String getModuleName(String className) {
+        Path fileName = sources.get(className).root().getFileName();
+        return fileName != null ? fileName.toString() : null;
+    }
+
+    private static Set<String> getSpringAnnotations() {
+        Set<String> annotations = new HashSet<>(StereotypeClassifier.BUILT_IN_STEREOTYPES);
+        annotations.add(AUTOWIRED_ANNOTATION);
+        annotations.add(BEAN_ANNOTATION);
+        return annotations;
+    }
+
+    private static boolean isClassFile(String path) {
+        return path.endsWith(".class") && !path.endsWith("module-info.class") && !path.endsWith("package-info.class");
+    }
+
+    /**
+     * Gets the name of a class as in PSI, with '.' between nested class names.
+     */
+    private static String getGraphName(String className) {
+        return className.replace('$', '.');
+    }
+
+    private static String getSimpleName(String className) {
+        return className.substring(Math.max(className.lastIndexOf('.'), className.lastIndexOf('$')) + 1);
+    }
+
+    private static String getTypeName(String descriptor) {
+        return descriptor.substring(1, descriptor.length() - 1).replace('/', '.');
+    }
+
+    /**
+     * The declarations of a class needed to find its beans and injection points.
+     */
+    private static final class ParsedClass extends ClassVisitor {
+
+        String name;
+        int access;
+        @Nullable String signature;
+        @Nullable String superName;
+        List<String> interfaces = List.of();
+        final Map<String, List<String>> annotations = new HashMap<>();
+        final List<ParsedMember> fields = new ArrayList<>();
+        final List<ParsedMember> methods = new ArrayList<>();
+
+        ParsedClass() {
+            super(Opcodes.ASM9);
+        }
+
+        @Override
+        public void visit(int version, int access, String name, String signature, String superName, String[] interfaces) {
+            this.name = name.replace('/', '.');
+            this.access = access;
+            this.signature = signature;
+            this.superName = superName != null ? superName.replace('/', '.') : null;
+            this.interfaces = new ArrayList<>();
+            for (String interfaceName : interfaces) {
+                this.interfaces.add(interfaceName.replace('/', '.'));
+            }
+        }
+
+        @Override
+        public AnnotationVisitor visitAnnotation(String descriptor, boolean visible) {
+            return new AnnotationValues(annotations, getTypeName(descriptor));
+        }
+
+        @Override
+        public FieldVisitor visitField(int access, String name, String descriptor, String signature, Object value) {
+            if ((access & Opcodes.ACC_SYNTHETIC) != 0) {
+                return null;
+            }
+            ParsedMember field = new ParsedMember(access, name, descriptor, signature);
+            fields.add(field);
+            return new FieldVisitor(Opcodes.ASM9) {
+                @Override
+                public AnnotationVisitor visitAnnotation(String annotationDescriptor, boolean visible) {
+                    return new AnnotationValues(field.annotations, getTypeName(annotationDescriptor));
+                }
+            };
+        }
+
+        @Override
+        public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+            if ((access & (Opcodes.ACC_SYNTHETIC | Opcodes.ACC_BRIDGE)) != 0 || "<clinit>".equals(name)) {
+                return null;
+            }
+            ParsedMember method = new ParsedMember(access, name, descriptor, signature);
+            methods.add(method);
+            return new MethodVisitor(Opcodes.ASM9) {
+                @Override
+                public AnnotationVisitor visitAnnotation(String annotationDescriptor, boolean visible) {
+                    return new AnnotationValues(method.annotations, getTypeName(annotationDescriptor));
+                }
+
+                @Override
+                public void visitAnnotableParameterCount(int parameterCount, boolean visible) {
+                    method.annotableParameterCount = parameterCount;
+                }
+
+                @Override
+                public AnnotationVisitor visitParameterAnnotation(int parameter, String annotationDescriptor, boolean visible) {
+                    Map<String, List<String>> parameterAnnotations = method.parameterAnnotations
+                            .computeIfAbsent(parameter, k -> new HashMap<>());
+                    return new AnnotationValues(parameterAnnotations, getTypeName(annotationDescriptor));
+                }
+            };
+        }
+
+        boolean isAnnotation() {
+            return (access & Opcodes.ACC_ANNOTATION) != 0;
+        }
+
+        boolean isConcrete() {
+            return (access & (Opcodes.ACC_INTERFACE | Opcodes.ACC_ABSTRACT)) == 0;
+        }
+
+        ClassSignature getSignature() {
+            if (signature == null) {
+                List<TypeRef> supertypes = new ArrayList<>();
+                if (superName != null) {
+                    supertypes.add(TypeRef.of(superName));
+                }
+                for (String interfaceName : interfaces) {
+                    supertypes.add(TypeRef.of(interfaceName));
+                }
+                return new ClassSignature(List.of(), supertypes);
+            }
+            SignatureParser parser = new SignatureParser(signature);
+            List<String> typeParameters = parser.typeParameters();
+            List<TypeRef> supertypes = new ArrayList<>();
+            while (parser.hasMore()) {
+                supertypes.add(parser.type());
+            }
+            return new ClassSignature(typeParameters, supertypes);
+        }
+    }
+
+    /**
+     * A field or method with its annotations.
+     */
+    private static final class ParsedMember {
+
+        final int access;
+        final String name;
+        final String descriptor;
+        final @Nullable String signature;
+        final Map<String, List<String>> annotations = new HashMap<>();
+        final Map<Integer, Map<String, List<String>>> parameterAnnotations = new HashMap<>();
+        int annotableParameterCount = -1;
+
+        ParsedMember(int access, String name, String descriptor, @Nullable String signature) {
+            this.access = access;
+            this.name = name;
+            this.descriptor = descriptor;
+            this.signature = signature;
+        }
+
+        TypeRef getType() {
+            return new SignatureParser(signature != null ? signature : descriptor).type();
+        }
+
+        /**
+         * Gets the parameter types from the generic signature, or from the descriptor when the signature
+         * leaves out synthetic parameters.
+         */
+        List<TypeRef> getParameterTypes() {
+            List<TypeRef> parameterTypes = new SignatureParser(descriptor).parameterTypes();
+            if (signature != null) {
+                List<TypeRef> genericTypes = new SignatureParser(signature).parameterTypes();
+                if (genericTypes.size() == parameterTypes.size()) {
+                    return genericTypes;
+                }
+            }
+            return parameterTypes;
+        }
+
+        TypeRef getReturnType() {
+            SignatureParser parser = new SignatureParser(signature != null ? signature : descriptor);
+            parser.parameterTypes();
+            return parser.type();
+        }
+
+        /**
+         * Gets the annotations of a parameter. Compilers may leave synthetic leading parameters out
+         * of the annotated ones, so indices are aligned on the last parameter.
+         */
+        Map<String, List<String>> getParameterAnnotations(int parameter) {
+            int parameterCount = Type.getArgumentTypes(descriptor).length;
+            int shift = annotableParameterCount >= 0 ? parameterCount - annotableParameterCount : 0;
+            return parameterAnnotations.getOrDefault(parameter - shift, Map.of());
+        }
+    }
+
+    /**
+     * Records an annotation with the strings of its {@code value} and {@code name} attributes.
+     */
+    private static final class AnnotationValues extends AnnotationVisitor {
+
+        private final List<String> values = new ArrayList<>();
+
+        AnnotationValues(Map<String, List<String>> annotations, String annotationName) {
+            super(Opcodes.ASM9);
+            annotations.put(annotationName, values);
+        }
+
+        @Override
+        public void visit(String name, Object value) {
+            if ((name == null || "value".equals(name) || "name".equals(name))
+                    && value instanceof String string && !string.isEmpty()) {
+                values.add(string);
+            }
+        }
+
+        @Override
+        public AnnotationVisitor visitArray(String name) {
+            return "value".equals(name) || "name".equals(name) ? this : null;
+        }
+    }
+
+    /**
+     * Reads types from descriptors and generic signatures, see JVMS 4.7.9.1.
+     */
+    private static final class SignatureParser {
+
+        private final String signature;
+        private int position;
+
+        SignatureParser(String signature) {
+            this.signature = signature;
+        }
+
+        boolean hasMore() {
+            return position < signature.length() && signature.charAt(position) != '^';
+        }
+
+        /**
+         * Reads the formal type parameters, if any, and returns their names.
+         */
+        List<String> typeParameters() {
+            List<String> typeParameters = new ArrayList<>();
+            if (signature.charAt(position) != '<') {
+                return typeParameters;
+            }
+            position++;
+            while (signature.charAt(position) != '>') {
+                int colon = signature.indexOf(':', position);
+                typeParameters.add(signature.substring(position, colon));
+                position = colon + 1;
+                if (signature.charAt(position) != ':') {
+                    type();
+                }
+                while (signature.charAt(position) == ':') {
+                    position++;
+                    type();
+                }
+            }
+            position++;
+            return typeParameters;
+        }
+
+        /**
+         * Reads the parameter types of a method, skipping its type parameters.
+         */
+        List<TypeRef> parameterTypes() {
+            typeParameters();
+            List<TypeRef> parameterTypes = new ArrayList<>();
+            position++;
+            while (signature.charAt(position) != ')') {
+                parameterTypes.add(type());
+            }
+            position++;
+            return parameterTypes;
+        }
+
+        TypeRef type() {
+            int dimensions = 0;
+            while (signature.charAt(position) == '[') {
+                dimensions++;
+                position++;
+            }
+            char tag = signature.charAt(position++);
+            if (tag == 'T') {
+                int end = signature.indexOf(';', position);
+                String variable = signature.substring(position, end);
+                position = end + 1;
+                return new TypeRef(null, variable, List.of(), dimensions, false);
+            }
+            if (tag != 'L') {
+                return new TypeRef(PRIMITIVE_TYPES.get(tag), null, List.of(), dimensions, false);
+            }
+            StringBuilder className = new StringBuilder();
+            List<TypeRef> arguments = List.of();
+            while (true) {
+                int start = position;
+                while ("<;.".indexOf(signature.charAt(position)) < 0) {
+                    position++;
+                }
+                className.append(className.length() > 0 ? "$" : "").append(signature, start, position);
+                char next = signature.charAt(position++);
+                if (next == '<') {
+                    arguments = typeArguments();
+                    next = signature.charAt(position++);
+                }
+                if (next == ';') {
+                    return new TypeRef(className.toString().replace('/', '.'), null, arguments, dimensions, false);
+                }
+                // Nested class of a parameterized outer class
+                arguments = List.of();
+            }
+        }
+
+        private List<TypeRef> typeArguments() {
+            List<TypeRef> arguments = new ArrayList<>();
+            while (signature.charAt(position) != '>') {
+                char wildcard = signature.charAt(position);
+                if (wildcard == '*') {
+                    position++;
+                    arguments.add(new TypeRef(null, null, List.of(), 0, true));
+                } else if (wildcard == '+') {
+                    position++;
+                    TypeRef bound = type();
+                    arguments.add(new TypeRef(bound.className(), bound.variable(), bound.arguments(), bound.dimensions(), true));
+                } else if (wildcard == '-') {
+                    position++;
+                    type();
+                    arguments.add(new TypeRef(null, null, List.of(), 0, true));
+                } else {
+                    arguments.add(type());
+                }
+            }
+            position++;
+            return arguments;
+        }
+    }
+}
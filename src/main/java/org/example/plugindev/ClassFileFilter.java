@@ -0,0 +1,151 @@
+package org.example.plugindev;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Reads the header of a class file and tells whether its constant pool mentions one of a set of annotations.
+ * Every annotation used in a class, on the class or on a member, has its descriptor in the constant pool,
+ * so a class whose pool holds none of the descriptors cannot carry the annotations and does not need
+ * to be parsed. The pool is walked once with absolute reads, comparing UTF-8 entries of the right length
+ * byte by byte, and only the class, superclass and interface names are decoded, so a mapped class file
+ * which is rejected is never copied.
+ */
+final class ClassFileFilter {
+
+    private static final int MAGIC = 0xCAFEBABE;
+    private static final int ACC_INTERFACE = 0x0200;
+    private static final int ACC_ABSTRACT = 0x0400;
+    private static final int ACC_ANNOTATION = 0x2000;
+
+    private final Map<Integer, List<byte[]>> descriptorsByLength = new HashMap<>();
+
+    /**
+     * The names read from the header of a class file.
+     *
+     * @param name       the fully qualified class name
+     * @param access     the access flags of the class
+     * @param superName  the fully qualified superclass name, null for java.lang.Object and module descriptors
+     * @param interfaces the fully qualified names of the implemented interfaces
+     * @param marked     whether the constant pool mentions one of the annotations of the filter
+     */
+    record ClassHeader(String name, int access, @Nullable String superName, List<String> interfaces, boolean marked) {
+
+        /**
+         * Checks if the class can be instantiated.
+         *
+         * @return false for interfaces, annotation types and abstract classes
+         */
+        boolean isConcrete() {
+            return (access & (ACC_INTERFACE | ACC_ABSTRACT)) == 0;
+        }
+
+        /**
+         * Checks if the class is an annotation type.
+         *
+         * @return true for annotation types
+         */
+        boolean isAnnotation() {
+            return (access & ACC_ANNOTATION) != 0;
+        }
+    }
+
+    /**
+     * Creates a filter looking for the given annotations.
+     *
+     * @param annotationNames the fully qualified names of the annotations
+     */
+    ClassFileFilter(@NotNull Collection<String> annotationNames) {
+        for (String annotationName : annotationNames) {
+            byte[] descriptor = ("L" + annotationName.replace('.', '/') + ";").getBytes(StandardCharsets.UTF_8);
+            descriptorsByLength.computeIfAbsent(descriptor.length, k -> new ArrayList<>()).add(descriptor);
+        }
+    }
+
+    /**
+     * Reads the header of a class file.
+     *
+     * @param classFile the content of the class file, from index 0 to the limit of the buffer
+     * @return the header, or null if the content is not a class file
+     */
+    @Nullable ClassHeader readHeader(@NotNull ByteBuffer classFile) {
+        if (classFile.limit() < 10 || classFile.getInt(0) != MAGIC) {
+            return null;
+        }
+        int constantCount = readUnsignedShort(classFile, 8);
+        int[] offsets = new int[constantCount];
+        boolean marked = false;
+        int offset = 10;
+        for (int i = 1; i < constantCount; i++) {
+            if (offset >= classFile.limit()) {
+                return null;
+            }
+            offsets[i] = offset;
+            int tag = classFile.get(offset);
+            switch (tag) {
+                case 1 -> {
+                    int length = readUnsignedShort(classFile, offset + 1);
+                    marked = marked || matches(classFile, offset + 3, length);
+                    offset += 3 + length;
+                }
+                case 3, 4, 9, 10, 11, 12, 17, 18 -> offset += 5;
+                case 5, 6 -> {
+                    offset += 9;
+                    // Longs and doubles take two slots
+                    i++;
+                }
+                case 7, 8, 16, 19, 20 -> offset += 3;
+                case 15 -> offset += 4;
+                default -> {
+                    return null;
+                }
+            }
+        }
+        if (offset + 8 > classFile.limit()) {
+            return null;
+        }
+        int access = readUnsignedShort(classFile, offset);
+        String name = readClassName(classFile, offsets, readUnsignedShort(classFile, offset + 2));
+        String superName = readClassName(classFile, offsets, readUnsignedShort(classFile, offset + 4));
+        int interfaceCount = readUnsignedShort(classFile, offset + 6);
+        List<String> interfaces = new ArrayList<>(interfaceCount);
+        for (int i = 0; i < interfaceCount; i++) {
+            interfaces.add(readClassName(classFile, offsets, readUnsignedShort(classFile, offset + 8 + 2 * i)));
+        }
+        return name != null ? new ClassHeader(name, access, superName, interfaces, marked) : null;
+    }
+
+    private boolean matches(ByteBuffer classFile, int from, int length) {
+        List<byte[]> descriptors = descriptorsByLength.get(length);
+        if (descriptors == null || classFile.get(from) != 'L') {
+            return false;
+        }
+        for (byte[] descriptor : descriptors) {
+            if (MappedFileReader.matches(classFile, from, descriptor)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Decodes the name of the Class constant at the given index.
+     */
+    private static @Nullable String readClassName(ByteBuffer classFile, int[] offsets, int index) {
+        if (index == 0 || index >= offsets.length || classFile.get(offsets[index]) != 7) {
+            return null;
+        }
+        int nameOffset = offsets[readUnsignedShort(classFile, offsets[index] + 1)];
+        byte[] name = new byte[readUnsignedShort(classFile, nameOffset + 1)];
+        classFile.get(nameOffset + 3, name);
+        return new String(name, StandardCharsets.UTF_8).replace('/', '.');
+    }
+
+    private static int readUnsignedShort(ByteBuffer classFile, int offset) {
+        return classFile.getShort(offset) & 0xFFFF;
+    }
+}
@@ -0,0 +1,176 @@
+package org.example.plugindev;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * Collects beans and dependencies from many threads into one {@link BeanGraph}.
+ * Bean names are interned in a {@link ConcurrentHashMap}, whose bins are locked independently, so workers
+ * adding different beans do not wait for each other. Dependencies are appended to a buffer owned by the
+ * calling thread without any synchronization; {@link #build()} merges the buffers into the adjacency arrays
+ * once all workers are done and keeps the strongest kind of duplicated dependencies. A bean added by several
+ * modules keeps the first of them in the module order given to the builder, whichever thread was faster.
+ * The interned indices depend on thread timing, so the built graph numbers the beans in name order and lists
+ * the dependencies of a bean in index order: the same beans always give the same graph and the same cycles.
+ */
+public class ConcurrentBeanGraphBuilder implements BeanGraph.Collector {
+
+    private final Map<String, Integer> beanIndex = new ConcurrentHashMap<>();
+    private final Map<Integer, String> moduleNames = new ConcurrentHashMap<>();
+    private final Comparator<String> moduleOrder;
+    private final AtomicInteger beanCount = new AtomicInteger();
+    private final Queue<EdgeBuffer> buffers = new ConcurrentLinkedQueue<>();
+    private final ThreadLocal<EdgeBuffer> threadBuffer = ThreadLocal.withInitial(() -> {
+        EdgeBuffer buffer = new EdgeBuffer();
+        buffers.add(buffer);
+        return buffer;
+    });
+
+    /**
+     * Dependencies added by one thread.
+     */
+    private static final class EdgeBuffer {
+        private int[] beans = new int[64];
+        private int[] dependencies = new int[64];
+        private byte[] kinds = new byte[64];
+        private int size;
+
+        void add(int bean, int dependency, BeanGraph.DependencyKind kind) {
+            if (size == beans.length) {
+                int capacity = size * 2;
+                beans = Arrays.copyOf(beans, capacity);
+                dependencies = Arrays.copyOf(dependencies, capacity);
+                kinds = Arrays.copyOf(kinds, capacity);
+            }
+            beans[size] = bean;
+            dependencies[size] = dependency;
+            kinds[size++] = (byte) kind.ordinal();
+        }
+    }
+
+    /**
+     * Creates a builder which attributes beans to modules by name order.
+     */
+    public ConcurrentBeanGraphBuilder() {
+        this(List.of());
+    }
+
+    /**
+     * Creates a builder which attributes a bean added by several modules to the first of them in the given order.
+     *
+     * @param moduleOrder the module names, in dependency order
+     */
+    public ConcurrentBeanGraphBuilder(@NotNull List<String> moduleOrder) {
+        this.moduleOrder = getModuleOrder(moduleOrder);
+    }
+
+    /**
+     * Orders module names by their position in a list, then by name for the modules not listed.
+     *
+     * @param moduleOrder the module names, in dependency order
+     * @return the comparator of module names
+     */
+    static Comparator<String> getModuleOrder(@NotNull List<String> moduleOrder) {
+        Map<String, Integer> positions = new HashMap<>();
+        for (String module : moduleOrder) {
+            positions.putIfAbsent(module, positions.size());
+        }
+        return Comparator.<String>comparingInt(module -> positions.getOrDefault(module, Integer.MAX_VALUE))
+                .thenComparing(Comparator.naturalOrder());
+    }
+
+    @Override
+    public int addBean(@NotNull String beanName, @Nullable String moduleName) {
+        int index = beanIndex.computeIfAbsent(beanName, name -> beanCount.getAndIncrement());
+        if (moduleName != null) {
+            moduleNames.merge(index, moduleName,
+                    (current, added) -> moduleOrder.compare(added, current) < 0 ? added : current);
+        }
+        return index;
+    }
+
+    @Override
+    public void addDependency(@NotNull String beanName, @NotNull String dependencyName, @NotNull BeanGraph.DependencyKind kind) {
+        int bean = addBean(beanName, null);
+        int dependency = addBean(dependencyName, null);
+        threadBuffer.get().add(bean, dependency, kind);
+    }
+
+    /**
+     * Merges the dependencies of all threads into an immutable graph, with the beans renumbered in name order.
+     * Must only be called once every worker has finished adding beans and dependencies.
+     *
+     * @return the immutable graph
+     */
+    @Override
+    public BeanGraph build() {
+        int count = beanCount.get();
+        String[] internedNames = new String[count];
+        beanIndex.forEach((name, index) -> internedNames[index] = name);
+        int[] order = IntStream.range(0, count).boxed()
+                .sorted(Comparator.comparing(index -> internedNames[index]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+        int[] newIndex = new int[count];
+        String[] names = new String[count];
+        String[] modules = new String[count];
+        for (int bean = 0; bean < count; bean++) {
+            newIndex[order[bean]] = bean;
+            names[bean] = internedNames[order[bean]];
+            modules[bean] = moduleNames.get(order[bean]);
+        }
+
+        // Counting sort of the buffered dependencies by bean, each packed with its kind in the low byte
+        int[] offsets = new int[count + 1];
+        for (EdgeBuffer buffer : buffers) {
+            for (int i = 0; i < buffer.size; i++) {
+                offsets[newIndex[buffer.beans[i]] + 1]++;
+            }
+        }
+        for (int bean = 0; bean < count; bean++) {
+            offsets[bean + 1] += offsets[bean];
+        }
+        long[] edges = new long[offsets[count]];
+        int[] cursor = Arrays.copyOf(offsets, count);
+        for (EdgeBuffer buffer : buffers) {
+            for (int i = 0; i < buffer.size; i++) {
+                int position = cursor[newIndex[buffer.beans[i]]]++;
+                edges[position] = (long) newIndex[buffer.dependencies[i]] << 8 | buffer.kinds[i];
+            }
+        }
+
+        // Sort the dependencies of each bean and drop the duplicated ones, keeping their strongest kind
+        int[] targets = new int[edges.length];
+        byte[] kinds = new byte[edges.length];
+        int[] dedupedOffsets = new int[count + 1];
+        int size = 0;
+        for (int bean = 0; bean < count; bean++) {
+            dedupedOffsets[bean] = size;
+            Arrays.sort(edges, offsets[bean], offsets[bean + 1]);
+            for (int i = offsets[bean]; i < offsets[bean + 1]; i++) {
+                int dependency = (int) (edges[i] >>> 8);
+                byte kind = (byte) edges[i];
+                if (size > dedupedOffsets[bean] && targets[size - 1] == dependency) {
+                    kinds[size - 1] = (byte) Math.max(kinds[size - 1], kind);
+                } else {
+                    targets[size] = dependency;
+                    kinds[size++] = kind;
+                }
+            }
+        }
+        dedupedOffsets[count] = size;
+        return BeanGraph.of(names, modules, dedupedOffsets,
+                Arrays.copyOf(targets, size), Arrays.copyOf(kinds, size));
+    }
+}
@@ -1,398 +1,126 @@
 package org.example.plugindev;
 
+import com.intellij.openapi.application.ReadAction;
 import com.intellij.openapi.project.Project;
 import com.intellij.psi.*;
 import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.search.PsiShortNamesCache;
-import com.intellij.notification.Notification;
-import com.intellij.notification.NotificationType;
-import com.intellij.notification.Notifications;
-import com.intellij.psi.search.searches.ClassInheritorsSearch;
-import com.intellij.util.Query;
 import java.util.*;
 
 /**
- * The {@code CyclicDependencyDetector} class is responsible for detecting circular dependencies
- * within a given set of PSI classes in an IntelliJ project.
+ * The {@code CyclicDependencyDetector} class resolves the beans injected into a class and reports
+ * the circular dependencies found on the {@link BeanGraph} and by the {@link BeanCycleService}.
  */
 public class CyclicDependencyDetector {
     private static final String QUALIFIER_ANNOTATION = "org.springframework.beans.factory.annotation.Qualifier";
     private static final String AUTOWIRED_ANNOTATION = "org.springframework.beans.factory.annotation.Autowired";
-    private static final String LAZY_ANNOTATION = "org.springframework.context.annotation.Lazy";
-
-
-    private static final Set<String> ANNOTATION_SET = new HashSet<>();
-
-    static {
-        ANNOTATION_SET.add("org.springframework.stereotype.Service");
-        ANNOTATION_SET.add("org.springframework.stereotype.Component");
-        ANNOTATION_SET.add("org.springframework.stereotype.Repository");
-        ANNOTATION_SET.add("org.springframework.stereotype.Controller");
-    }
-
-     private final MultipleBeansAndDuplicateQualifiers beansChecker;
-
-    public CyclicDependencyDetector(MultipleBeansAndDuplicateQualifiers beansChecker) {
-        this.beansChecker = beansChecker;
-    }
-
-
-
-    private void showErrorNotificationForCycleDetection(String message, Project project) {
-
-        String htmlMessage = "<html><body style='width: 300px;'>" +
-                "<h3 style='margin-bottom: 10px;'>Cycle Detected:</h3>" +
-                "<pre>" + message + "</pre>" +
-                "</body></html>";
-
-        Notification notification = new Notification(
-                "annotationCheckerGroup",
-                "Cycle detection",
-                htmlMessage,
-                NotificationType.ERROR
-        );
-        Notifications.Bus.notify(notification, project);
-        throw new RuntimeException("Error notification shown: " + message);
-    }
 
     /**
-     * Checks if the specified PSI class has any circular dependencies.
+     * Reports several cycles found in a {@link BeanGraph}. Every cycle is added as a finding, and the finding
+     * notifications only count them, so many cycles do not make one huge balloon.
+     * Cycles Spring resolves through field or setter injection are told apart from constructor cycles.
      *
-     * @param psiClass         the PSI class to check for circular dependencies
-     * @param visitedBeans     the set of already visited beans
-     * @param initializedBeans the set of already initialized beans
-     * @param currentPath      the current path of beans being checked
-     * @param visitedCycles    the set of already detected cycles
-     * @param project          the IntelliJ project
+     * @param cycles  the bean names along each cycle with the kind of its component
+     * @param project the project plugin runs on
      */
-
-
-
-    void hasCircularDependency(PsiClass psiClass, Set<PsiClass> visitedBeans,
-                               Set<PsiClass> initializedBeans, List<PsiClass> currentPath, Set<String> visitedCycles, Project project) {
-        if (initializedBeans.contains(psiClass)) {
-            return;
-        }
-
-        if (currentPath.contains(psiClass)) {
-            handleCycleDetection(currentPath, psiClass, visitedCycles, project);
-            return;
+    static void reportCycles(Map<List<String>, BeanCycleFinder.CycleKind> cycles, Project project) {
+        BeanFindingsService findings = BeanFindingsService.getInstance(project);
+        for (Map.Entry<List<String>, BeanCycleFinder.CycleKind> cycle : cycles.entrySet()) {
+            System.out.println(renderCycle(cycle.getKey())); // Print cycle path to console
+            String description = getCycleTitle(cycle.getKey(), cycle.getValue()) + ": "
+                    + String.join(" → ", cycle.getKey()) + " → " + cycle.getKey().get(0);
+            findings.addFinding(ReadAction.compute(
+                    () -> BeanFinding.forBean("Cycle detection", project, cycle.getKey().get(0), description)));
         }
-
-        visitedBeans.add(psiClass);
-        currentPath.add(psiClass);
-
-        traverseConstructors(psiClass, visitedBeans, initializedBeans, currentPath, visitedCycles, project);
-
-        //changes
-//        PsiMethod[] constructors = psiClass.getConstructors();
-//        if(constructors.length == 1) {
-//            PsiMethod constructor = constructors[0];
-//            for(PsiParameter parameter : constructor.getParameterList().getParameters()) {
-//                PsiClass parameterClass = PsiUtil.resolveClassInType(parameter.getType());
-//                if(parameterClass != null && !Objects.requireNonNull(parameterClass.getQualifiedName()).startsWith("java.")) {
-//                    traverseConstructors(parameterClass, visitedBeans, initializedBeans, currentPath, visitedCycles, project);
-//                    traverseFields(parameterClass, visitedBeans, initializedBeans, currentPath, visitedCycles, project);
-//                    traverseSetters(parameterClass, visitedBeans, initializedBeans, currentPath, visitedCycles, project);
-//                }
-//            }
-//        }
-//        else {
-//            for (PsiMethod constructor : constructors) {
-//                for(PsiParameter parameter : constructor.getParameterList().getParameters()) {
-//                    PsiClass parameterClass = PsiUtil.resolveClassInType(parameter.getType());
-//                    if(parameterClass != null && !Objects.requireNonNull(parameterClass.getQualifiedName()).startsWith("java.")) {
-//                        traverseConstructors(parameterClass, visitedBeans, initializedBeans, currentPath, visitedCycles, project);
-//                        traverseFields(parameterClass, visitedBeans, initializedBeans, currentPath, visitedCycles, project);
-//                        traverseSetters(parameterClass, visitedBeans, initializedBeans, currentPath, visitedCycles, project);
-//                    }
-//                }
-//            }
-//        }
-        //end
-
-        initializedBeans.add(psiClass);
-        currentPath.remove(currentPath.size() - 1);
     }
 
-
     /**
-     * Handles the detection of a circular dependency.
+     * Describes a cycle found in a {@link BeanGraph}, telling cycles Spring resolves through field
+     * or setter injection apart from constructor cycles.
      *
-     * @param currentPath   the current path of beans being checked
-     * @param psiClass      the PSI class where the cycle is detected
-     * @param visitedCycles the set of already detected cycles
-     * @param project       the project plugin runs on
+     * @param cycle the bean names along the cycle
+     * @param kind  the kind of the component of the cycle
+     * @return the description followed by the rendered cycle path
      */
-
-
-
-    private void handleCycleDetection(List<PsiClass> currentPath, PsiClass psiClass, Set<String> visitedCycles, Project project) {
-        String cyclePath = getCyclePath(currentPath, psiClass);
-        if (!visitedCycles.contains(cyclePath)) {
-            visitedCycles.add(cyclePath);
-            if (currentPath.size() == 1) {
-                System.out.println(cyclePath);
-                String errorMessage = "Self loop detected:\n" + cyclePath;
-                showErrorNotificationForCycleDetection(errorMessage, project);
-
-            } else {
-                System.out.println(cyclePath); // Print cycle path to console
-                String errorMessage = "Cycle detected:\n" + cyclePath;
-                showErrorNotificationForCycleDetection(errorMessage, project);
-
-            }
-        }
-    }
-
-    private List<PsiClass> getConstructorParameterClasses(PsiClass psiClass, Project project) {
-        List<PsiClass> parameterClasses = new ArrayList<>();
-        PsiMethod[] constructors = psiClass.getConstructors();
-
-        for (PsiMethod constructor : constructors) {
-            for (PsiParameter parameter : constructor.getParameterList().getParameters()) {
-                if (isLazy(parameter)) continue;
-                PsiClass parameterClass = resolvePsiClassFromParameter(parameter, project, psiClass);
-                if (parameterClass != null) {
-                    parameterClasses.add(parameterClass);
-                }
-            }
-        }
-
-        return parameterClasses;
+    static String describeCycle(List<String> cycle, BeanCycleFinder.CycleKind kind) {
+        return getCycleTitle(cycle, kind) + ":\n" + renderCycle(cycle);
     }
 
-
-    /**
-     * Traverses the fields of the given PSI class to check for circular dependencies.
-     *
-     * @param psiClass         the PSI class to traverse
-     * @param visitedBeans     the set of already visited beans
-     * @param initializedBeans the set of already initialized beans
-     * @param currentPath      the current path of beans being checked
-     * @param visitedCycles    the set of already detected cycles
-     * @param project          the IntelliJ project
-     */
-    private void traverseFields(PsiClass psiClass, Set<PsiClass> visitedBeans, Set<PsiClass> initializedBeans, List<PsiClass> currentPath, Set<String> visitedCycles, Project project) {
-        for (PsiField field : psiClass.getAllFields()) {
-            if(field.hasAnnotation(AUTOWIRED_ANNOTATION)) {
-                if (isLazy(field)) continue;
-                PsiClass fieldClass = resolvePsiClassFromField(field, project,psiClass);
-                if (fieldClass != null) {
-                    hasCircularDependency(fieldClass, visitedBeans, initializedBeans, currentPath, visitedCycles, project);
-                }
-            }
-        }
+    private static String getCycleTitle(List<String> cycle, BeanCycleFinder.CycleKind kind) {
+        String title = cycle.size() == 1 ? "Self loop detected" : "Cycle detected";
+        return kind == BeanCycleFinder.CycleKind.RESOLVABLE ? title + " through field or setter injection" : title;
     }
 
     /**
-     * Traverses the constructors of the given PSI class to check for circular dependencies.
+     * Gets every injection point of the given class with the kind of its dependency: the parameters of the
+     * constructor Spring uses, the @Autowired fields and the parameters of the @Autowired methods.
+     * Lazy injection points are returned as deferred instead of being skipped.
      *
-     * @param psiClass         the PSI class to traverse
-     * @param visitedBeans     the set of already visited beans
-     * @param initializedBeans the set of already initialized beans
-     * @param currentPath      the current path of beans being checked
-     * @param visitedCycles    the set of already detected cycles
-     * @param project          the IntelliJ project
+     * @param psiClass the PSI class to inspect
+     * @return the injection points of the class
      */
-
-    private void traverseConstructors(PsiClass psiClass, Set<PsiClass> visitedBeans, Set<PsiClass> initializedBeans, List<PsiClass> currentPath, Set<String> visitedCycles, Project project) {
+    List<InjectionPoint> getInjectionPoints(PsiClass psiClass) {
+        List<InjectionPoint> injectionPoints = new ArrayList<>();
         PsiMethod[] constructors = psiClass.getConstructors();
-        boolean isCorrectlyInjected = constructors.length == 0;
-
-        if (constructors.length == 1) {
-            PsiMethod constructor = constructors[0];
-            for (PsiParameter parameter : constructor.getParameterList().getParameters()) {
-                if (isLazy(parameter)) continue;
-                PsiClass parameterClass = resolvePsiClassFromParameter(parameter, project, psiClass);
-                if (parameterClass != null && !Objects.requireNonNull(parameterClass.getQualifiedName()).startsWith("java.")) {
-                    hasCircularDependency(parameterClass, visitedBeans, initializedBeans, currentPath, visitedCycles, project);
-                    isCorrectlyInjected = true;
-                }
+        for (PsiMethod constructor : constructors) {
+            if (constructors.length > 1 && !constructor.hasAnnotation(AUTOWIRED_ANNOTATION)) {
+                continue;
             }
-        } else if(constructors.length>1){
-            for (PsiMethod constructor : constructors) {
-                if (constructor.hasAnnotation(AUTOWIRED_ANNOTATION)) {
-                    for (PsiParameter parameter : constructor.getParameterList().getParameters()) {
-                        if (isLazy(parameter)) continue;
-                        PsiClass parameterClass = resolvePsiClassFromParameter(parameter, project, psiClass);
-                        if (parameterClass != null && !Objects.requireNonNull(parameterClass.getQualifiedName()).startsWith("java.")) {
-                            hasCircularDependency(parameterClass, visitedBeans, initializedBeans, currentPath, visitedCycles, project);
-                            isCorrectlyInjected = true;
-                        }
-                    }
-                }
+            for (PsiParameter parameter : constructor.getParameterList().getParameters()) {
+                injectionPoints.add(InjectionPoint.of(parameter, BeanGraph.DependencyKind.CONSTRUCTOR));
             }
         }
-
-        if (isCorrectlyInjected) {
-            initializedBeans.add(psiClass);
+        for (PsiField field : psiClass.getAllFields()) {
+            if (field.hasAnnotation(AUTOWIRED_ANNOTATION)) {
+                injectionPoints.add(InjectionPoint.of(field, BeanGraph.DependencyKind.PROPERTY));
+            }
         }
-    }
-
-
-    /**
-     * Traverses the setter methods of the given PSI class to check for circular dependencies.
-     *
-     * @param psiClass         the PSI class to traverse
-     * @param visitedBeans     the set of already visited beans
-     * @param initializedBeans the set of already initialized beans
-     * @param currentPath      the current path of beans being checked
-     * @param visitedCycles    the set of already detected cycles
-     * @param project          the IntelliJ project
-     */
-    private void traverseSetters(PsiClass psiClass, Set<PsiClass> visitedBeans, Set<PsiClass> initializedBeans, List<PsiClass> currentPath, Set<String> visitedCycles, Project project) {
         for (PsiMethod method : psiClass.getAllMethods()) {
-            if (method.hasAnnotation(AUTOWIRED_ANNOTATION)) {
-                PsiParameter parameter = method.getParameterList().getParameters()[0];
-                if (isLazy(parameter)) continue;
-                PsiClass parameterClass = resolvePsiClassFromParameter(parameter, project,psiClass);
-                if (parameterClass != null) {
-                    hasCircularDependency(parameterClass, visitedBeans, initializedBeans, currentPath, visitedCycles, project);
+            if (!method.isConstructor() && method.hasAnnotation(AUTOWIRED_ANNOTATION)) {
+                for (PsiParameter parameter : method.getParameterList().getParameters()) {
+                    injectionPoints.add(InjectionPoint.of(parameter, BeanGraph.DependencyKind.PROPERTY));
                 }
             }
         }
+        return injectionPoints;
     }
 
     /**
-     * Resolves the PSI class from the given field.
+     * Resolves the bean class injected into the given injection point. Interfaces and abstract classes are
+     * resolved through the shared {@link InjectionCandidateResolver}: the only implementation, or the only
+     * @Primary one among several. A qualifier naming no implementation falls back to the class named by it.
      *
-     * @param field   the PSI field
-     * @param project the IntelliJ project
+     * @param injectionPoint the injection point
+     * @param project        the IntelliJ project
+     * @param psiClass       the class declaring the injection point
      * @return the resolved PSI class, or {@code null} if not resolvable
      */
-    private PsiClass resolvePsiClassFromField(PsiField field, Project project,PsiClass psiClass) {
-        PsiType fieldType = field.getType();
-        if (fieldType instanceof PsiClassType) {
-            PsiClass fieldClass = ((PsiClassType) fieldType).resolve();
-            if (fieldClass != null) {
-                // Check if the parameter class is not an interface or abstract
-                if (!fieldClass.isInterface() && !fieldClass.hasModifierProperty(PsiModifier.ABSTRACT)) {
-                    return fieldClass;
-                }
-
-                if(!field.hasAnnotation(QUALIFIER_ANNOTATION)) {
-                    // Find all child classes of the parameter class
-                    List<PsiClass> childClasses = findAllChildClasses(fieldClass, project);
-                    if(childClasses.size()==2)
-                    {
-                        childClasses.remove(psiClass);
-                    }
-
-                    if (childClasses.size() == 1) {
-                        return childClasses.get(0);
-                    }
-                }
-                else {
-                    return handleAbstractOrInterfaceField(field, project);
-                }
-            }
+    PsiClass resolveInjectedClass(InjectionPoint injectionPoint, Project project, PsiClass psiClass) {
+        PsiClass injectedClass = injectionPoint.resolveClass();
+        if (injectedClass == null) {
+            return null;
         }
-        return null;
-    }
-
-    /**
-     * Resolves the PSI class from the given parameter.
-     *
-     * @param parameter the PSI parameter
-     * @param project   the IntelliJ project
-     * @param psiClass  the current class
-     * @return the resolved PSI class, or {@code null} if not resolvable
-     */
-    private PsiClass resolvePsiClassFromParameter(PsiParameter parameter, Project project,PsiClass psiClass) {
-        PsiType parameterType = parameter.getType();
-
-        if (parameterType instanceof PsiClassType) {
-            PsiClass parameterClass = ((PsiClassType) parameterType).resolve();
-
-            if (parameterClass != null) {
-                // Check if the parameter class is not an interface or abstract
-                if (!parameterClass.isInterface() && !parameterClass.hasModifierProperty(PsiModifier.ABSTRACT)) {
-                    return parameterClass;
-                }
-
-                // Find all child classes of the parameter class
-
-                if(!parameter.hasAnnotation(QUALIFIER_ANNOTATION)) {
-                    List<PsiClass> childClasses = findAllChildClasses(parameterClass, project);
-                    if(childClasses.size()==2)
-                    {
-                        childClasses.remove(psiClass);
-                    }
-
-                    if (childClasses.size() == 1 ) {
-
-                        return childClasses.get(0);
-                    }
-                }
-                else {
-                    return handleAbstractOrInterfaceParameter(parameter, project);
-                }
-
-            }
+        if (!injectedClass.isInterface() && !injectedClass.hasModifierProperty(PsiModifier.ABSTRACT)) {
+            return injectedClass;
         }
-
-        return null;
-    }
-
-    /**
-     * Handles resolving a field's PSI class if it is an interface or abstract class.
-     *
-     * @param field   the PSI field
-     * @param project the IntelliJ project
-     * @return the resolved PSI class, or {@code null} if not resolvable
-     */
-    private PsiClass handleAbstractOrInterfaceField(PsiField field, Project project) {
-        PsiAnnotation[] annotations = field.getAnnotations();
-        for (PsiAnnotation annotation : annotations) {
-            if (QUALIFIER_ANNOTATION.equals(annotation.getQualifiedName())) {
-                return resolveQualifiedClass(annotation, field.getName(), project);
-            }
+        if (!(injectionPoint.type() instanceof PsiClassType classType)) {
+            return null;
         }
-        return null;
-    }
-
-    /**
-     * Finds and returns all child classes of the specified parent class within the given project.
-     *
-     * @param parentClass the parent class whose child classes are to be found
-     * @param project     the current project context
-     * @return a list of child classes that inherit from the specified parent class and are annotated with @Service
-     */
-    private List<PsiClass> findAllChildClasses(PsiClass parentClass, Project project) {
-        List<PsiClass> childClasses = new ArrayList<>();
-
-        if (parentClass != null) {
-            GlobalSearchScope scope = GlobalSearchScope.allScope(project);
-            Query<PsiClass> query = ClassInheritorsSearch.search(parentClass, scope, true);
-
-            for (PsiClass psiClass : query) {
-                if(hasServiceAnnotation(psiClass))
-                    childClasses.add(psiClass);
-            }
+        GlobalSearchScope scope = BeanSearchScopes.getInstance(project).getInjectionScope(psiClass);
+        String qualifier = InjectionCandidateResolver.getQualifier(injectionPoint.element());
+        InjectionCandidateResolver.Resolution resolution =
+                InjectionCandidateResolver.getInstance(project).resolve(classType, qualifier, scope);
+        if (resolution.getInjectedBean(psiClass) instanceof PsiClass injectedBean) {
+            return injectedBean;
         }
-
-
-        return childClasses;
-    }
-
-    /**
-     * Handles resolving a parameter's PSI class if it is an interface or abstract class.
-     *
-     * @param parameter the PSI parameter
-     * @param project   the IntelliJ project
-     * @return the resolved PSI class, or {@code null} if not resolvable
-     */
-    private PsiClass handleAbstractOrInterfaceParameter(PsiParameter parameter, Project project) {
-        PsiAnnotation[] annotations = parameter.getAnnotations();
-        for (PsiAnnotation annotation : annotations) {
-            if (QUALIFIER_ANNOTATION.equals(annotation.getQualifiedName())) {
-                return resolveQualifiedClass(annotation, parameter.getName(), project);
-            }
+        PsiAnnotation qualifierAnnotation = injectionPoint.element().getAnnotation(QUALIFIER_ANNOTATION);
+        if (qualifierAnnotation != null && resolution.candidates().isEmpty()) {
+            return resolveQualifiedClass(qualifierAnnotation, injectionPoint.element().getName(), project);
         }
         return null;
     }
 
+
     /**
      * Resolves the PSI class from the @Qualifier annotation.
      *
@@ -408,11 +136,11 @@ public class CyclicDependencyDetector {
             String beanName = value.getText().replaceAll("\"", "");
             String className = capitalizeFirstLetter(beanName);
             System.out.println("Class name defined in @Qualifier: " + className);
-            PsiClass resolvedClass = findClassByName(project, className);
+            PsiClass resolvedClass = findClassByName(project, className, annotation);
 
             // Attempt to resolve using qualifier name if class name resolution failed
             if (resolvedClass == null && !beanName.isEmpty()) {
-                resolvedClass = findClassByQualifierName(beanName);
+                resolvedClass = findClassByQualifierName(beanName, annotation, project);
             }
 
             if (resolvedClass != null) {
@@ -426,27 +154,23 @@ public class CyclicDependencyDetector {
 
     /**
      * Finds and returns the class associated with the given qualifier name.
+     * The name is looked up in the {@link QualifierRegistry} of the scope visible from the injection point.
      *
      * @param qualifierName the name of the qualifier to look for
+     * @param context       the element declaring the injection point
+     * @param project       the IntelliJ project
      * @return the class associated with the given qualifier name, or null if not found
      */
-    private PsiClass findClassByQualifierName(String qualifierName) {
-        Map<String, PsiClass> qualifierMap = beansChecker.getQualifierMap();
-        return qualifierMap.get(qualifierName);
+    private PsiClass findClassByQualifierName(String qualifierName, PsiElement context, Project project) {
+        GlobalSearchScope scope = BeanSearchScopes.getInstance(project).getInjectionScope(context);
+        List<QualifierRegistry.QualifiedBean> qualifiedBeans = QualifierRegistry.getInstance(project).findBeans(qualifierName, scope);
+        if (qualifiedBeans.size() == 1 && qualifiedBeans.get(0).declaration() instanceof PsiClass qualifiedClass) {
+            return qualifiedClass;
+        }
+        return null;
     }
 
 
-    /**
-     * Checks if the given element has a @Lazy annotation.
-     *
-     * @param element the PSI element
-     * @return {@code true} if the element is lazy, otherwise {@code false}
-     */
-    private boolean isLazy(PsiModifierListOwner element) {
-        PsiAnnotation lazyAnnotation = element.getAnnotation(LAZY_ANNOTATION);
-        return lazyAnnotation != null;
-    }
-
     /**
      * Capitalizes the first letter of the given string.
      *
@@ -460,30 +184,19 @@ public class CyclicDependencyDetector {
         return str.substring(0, 1).toUpperCase() + str.substring(1);
     }
 
+
     /**
-     * Generates a string representation of the detected cycle path.
+     * Generates a string representation of a cycle given by the bean names along it.
      *
-     * @param currentPath the current path of beans being checked
-     * @param startClass  the PSI class where the cycle starts
+     * @param cycle the bean names along the cycle, starting at the bean where the cycle closes
      * @return a string representation of the cycle path
      */
-    private String getCyclePath(List<PsiClass> currentPath, PsiClass startClass) {
-        StringBuilder pathBuilder = new StringBuilder();
-        boolean foundStart = false;
-        for (int i = 0; i < currentPath.size(); i++) {
-            PsiClass clazz = currentPath.get(i);
-            if (clazz == startClass) {
-                if (!foundStart) {
-                    foundStart = true;
-                    pathBuilder.append("┌─────┐\n");
-                }
-                pathBuilder.append("|  ").append(clazz.getQualifiedName()).append("\n");
+    static String renderCycle(List<String> cycle) {
+        StringBuilder pathBuilder = new StringBuilder("┌─────┐\n");
+        for (int i = 0; i < cycle.size(); i++) {
+            pathBuilder.append("|  ").append(cycle.get(i)).append("\n");
+            if (i == 0 || i < cycle.size() - 1) {
                 pathBuilder.append("↑     ↓\n");
-            } else if (foundStart) {
-                pathBuilder.append("|  ").append(clazz.getQualifiedName()).append("\n");
-                if (i < currentPath.size() - 1) {
-                    pathBuilder.append("↑     ↓\n");
-                }
             }
         }
         pathBuilder.append("└─────┘");
@@ -491,52 +204,20 @@ public class CyclicDependencyDetector {
     }
 
     /**
-     * Checks if the given method is a setter method.
-     *
-     * @param method the PSI method
-     * @return {@code true} if the method is a setter, otherwise {@code false}
-     */
-    private boolean isSetter(PsiMethod method) {
-        String methodName = method.getName();
-        PsiParameterList parameterList = method.getParameterList();
-        if (methodName.startsWith("set") && parameterList.getParametersCount() == 1) {
-            PsiType returnType = method.getReturnType();
-            return returnType != null && "void".equals(returnType.getCanonicalText());
-        }
-        return false;
-    }
-
-    /**
-     * Finds a PSI class by its name.
+     * Finds a PSI class by its name among the classes visible from the given injection point.
      *
      * @param project   the IntelliJ project
      * @param className the name of the class to find
+     * @param context   the element declaring the injection point
      * @return the PSI class, or {@code null} if not found
      */
-    private static PsiClass findClassByName(Project project, String className) {
+    private static PsiClass findClassByName(Project project, String className, PsiElement context) {
         PsiClass psiClass = null;
-        PsiClass[] classes = PsiShortNamesCache.getInstance(project).getClassesByName(className, GlobalSearchScope.allScope(project));
+        GlobalSearchScope scope = BeanSearchScopes.getInstance(project).getInjectionScope(context);
+        PsiClass[] classes = PsiShortNamesCache.getInstance(project).getClassesByName(className, scope);
         if (classes.length > 0) {
             psiClass = classes[0];
         }
         return psiClass;
     }
-
-    /**
-     * Checks if a class has a service annotation.
-     *
-     * @param psiClass the class to inspect
-     * @return true if the class has a service annotation, false otherwise
-     */
-    private static boolean hasServiceAnnotation(PsiClass psiClass) {
-        PsiModifierList modifierList = psiClass.getModifierList();
-        if (modifierList != null) {
-            for (String annotation : ANNOTATION_SET) {
-                if (modifierList.findAnnotation(annotation) != null) {
-                    return true;
-                }
-            }
-        }
-        return false;
-    }
 }
\ No newline at end of file
@@ -0,0 +1,417 @@
+package org.example.plugindev;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Mutable bean dependency graph which keeps its strongly connected components up to date
+ * as dependencies are added and removed.
+ * The components are kept in a topological order, every component ranked before the components it depends on,
+ * as in the dynamic topological sort of Pearce and Kelly. Adding a dependency which follows the order
+ * changes nothing; otherwise only the components ranked between its two ends are searched and reordered,
+ * and the beans lying on the new cycles are merged. Removing a dependency only recomputes the components
+ * of the component it belonged to. Instances are not thread safe.
+ */
+public class IncrementalBeanGraph {
+
+    private static final long RANK_GAP = 1L << 20;
+
+    private final Map<String, Map<String, BeanGraph.DependencyKind>> dependencies = new HashMap<>();
+    private final Map<String, Set<String>> dependents = new HashMap<>();
+    private final Map<String, Integer> componentOf = new HashMap<>();
+    private final Map<Integer, Set<String>> components = new HashMap<>();
+    private final Map<Integer, Long> rankOf = new HashMap<>();
+    private final TreeMap<Long, Integer> order = new TreeMap<>();
+    private int nextComponent;
+
+    /**
+     * Replaces the graph with the beans and dependencies of the given graph.
+     *
+     * @param graph the graph to load
+     */
+    public void load(@NotNull BeanGraph graph) {
+        dependencies.clear();
+        dependents.clear();
+        componentOf.clear();
+        components.clear();
+        rankOf.clear();
+        order.clear();
+        for (int bean = 0; bean < graph.getBeanCount(); bean++) {
+            addBean(graph.getBeanName(bean));
+        }
+        for (int bean = 0; bean < graph.getBeanCount(); bean++) {
+            int[] beanDependencies = graph.getDependencies(bean);
+            BeanGraph.DependencyKind[] kinds = graph.getDependencyKinds(bean);
+            for (int i = 0; i < beanDependencies.length; i++) {
+                String dependency = graph.getBeanName(beanDependencies[i]);
+                dependencies.get(graph.getBeanName(bean)).put(dependency, kinds[i]);
+                dependents.get(dependency).add(graph.getBeanName(bean));
+            }
+        }
+        for (int[] component : BeanCycleFinder.findCyclicComponents(graph)) {
+            Set<String> members = new HashSet<>();
+            for (int bean : component) {
+                members.add(graph.getBeanName(bean));
+            }
+            assignComponent(members);
+        }
+        rankComponents(sortComponents(components.keySet()), 0);
+    }
+
+    /**
+     * Adds a bean without dependencies if it is not part of the graph yet.
+     *
+     * @param beanName the bean name
+     */
+    public void addBean(@NotNull String beanName) {
+        if (!dependencies.containsKey(beanName)) {
+            dependencies.put(beanName, new LinkedHashMap<>());
+            dependents.put(beanName, new HashSet<>());
+            int component = assignComponent(Set.of(beanName));
+            setRank(component, order.isEmpty() ? 0 : order.lastKey() + RANK_GAP);
+        }
+    }
+
+    /**
+     * Checks if the bean is part of the graph.
+     *
+     * @param beanName the bean name
+     * @return true if the bean was added, false otherwise
+     */
+    public boolean containsBean(@NotNull String beanName) {
+        return dependencies.containsKey(beanName);
+    }
+
+    /**
+     * Gets the dependencies of a bean.
+     *
+     * @param beanName the bean name
+     * @return the dependencies with their kinds, empty for unknown beans
+     */
+    public Map<String, BeanGraph.DependencyKind> getDependencies(@NotNull String beanName) {
+        return Collections.unmodifiableMap(dependencies.getOrDefault(beanName, Map.of()));
+    }
+
+    /**
+     * Replaces the dependencies of a bean, typically after the bean was edited.
+     * Only the dependencies which actually changed update the components.
+     *
+     * @param beanName        the bean name
+     * @param newDependencies the new dependencies with their kinds
+     */
+    public void setDependencies(@NotNull String beanName, @NotNull Map<String, BeanGraph.DependencyKind> newDependencies) {
+        addBean(beanName);
+        for (String dependency : new ArrayList<>(dependencies.get(beanName).keySet())) {
+            if (!newDependencies.containsKey(dependency)) {
+                removeDependency(beanName, dependency);
+            }
+        }
+        for (Map.Entry<String, BeanGraph.DependencyKind> dependency : newDependencies.entrySet()) {
+            addDependency(beanName, dependency.getKey(), dependency.getValue());
+        }
+    }
+
+    /**
+     * Adds a dependency and merges the components it closes a cycle through. A dependency on a component ranked
+     * later needs nothing else. Otherwise the components reachable from the dependency and ranked no later than
+     * the bean, and the components reaching the bean and ranked no earlier than the dependency, are the only ones
+     * the dependency can close a cycle through or which must be reordered.
+     *
+     * @param beanName       the bean having the dependency
+     * @param dependencyName the bean it depends on
+     * @param kind           how the dependency is injected
+     */
+    public void addDependency(@NotNull String beanName, @NotNull String dependencyName, @NotNull BeanGraph.DependencyKind kind) {
+        addBean(beanName);
+        addBean(dependencyName);
+        dependencies.get(beanName).put(dependencyName, kind);
+        dependents.get(dependencyName).add(beanName);
+        long upperBound = rankOf.get(componentOf.get(beanName));
+        long lowerBound = rankOf.get(componentOf.get(dependencyName));
+        if (lowerBound >= upperBound) {
+            return;
+        }
+        Set<String> reachable = collect(dependencyName, bean -> dependencies.get(bean).keySet(), upperBound, true);
+        Set<String> reaching = collect(beanName, dependents::get, lowerBound, false);
+        Set<Integer> forward = getComponents(reachable);
+        Set<Integer> backward = getComponents(reaching);
+        List<Long> ranks = new ArrayList<>();
+        for (Integer component : forward) {
+            ranks.add(rankOf.get(component));
+        }
+        for (Integer component : backward) {
+            if (!forward.contains(component)) {
+                ranks.add(rankOf.get(component));
+            }
+        }
+        Collections.sort(ranks);
+
+        // The components reaching the bean take the lowest ranks and the components reachable from the dependency
+        // the highest ones, each part keeping its previous order, so that no component moves past a component
+        // outside the searched ones. The new cycle, if any, goes in between.
+        List<Integer> sortedBackward = new ArrayList<>();
+        List<Integer> sortedForward = new ArrayList<>();
+        Set<String> cycle = new HashSet<>();
+        for (Integer component : sortByRank(backward)) {
+            if (forward.contains(component)) {
+                cycle.addAll(components.get(component));
+            } else {
+                sortedBackward.add(component);
+            }
+        }
+        for (Integer component : sortByRank(forward)) {
+            if (!backward.contains(component)) {
+                sortedForward.add(component);
+            }
+        }
+        for (Long rank : ranks) {
+            order.remove(rank);
+        }
+        for (int i = 0; i < sortedBackward.size(); i++) {
+            setRank(sortedBackward.get(i), ranks.get(i));
+        }
+        if (!cycle.isEmpty()) {
+            setRank(assignComponent(cycle), ranks.get(sortedBackward.size()));
+        }
+        int firstForward = ranks.size() - sortedForward.size();
+        for (int i = 0; i < sortedForward.size(); i++) {
+            setRank(sortedForward.get(i), ranks.get(firstForward + i));
+        }
+    }
+
+    /**
+     * Removes a dependency and splits its component if the dependency was needed to keep it strongly connected.
+     *
+     * @param beanName       the bean having the dependency
+     * @param dependencyName the bean it depends on
+     */
+    public void removeDependency(@NotNull String beanName, @NotNull String dependencyName) {
+        Map<String, BeanGraph.DependencyKind> beanDependencies = dependencies.get(beanName);
+        if (beanDependencies == null || beanDependencies.remove(dependencyName) == null) {
+            return;
+        }
+        dependents.get(dependencyName).remove(beanName);
+        if (!componentOf.get(beanName).equals(componentOf.get(dependencyName))) {
+            return;
+        }
+        Set<String> members = components.get(componentOf.get(beanName));
+        if (members.size() == 1) {
+            return;
+        }
+        long rank = rankOf.get(componentOf.get(beanName));
+        BeanGraph componentGraph = getComponentGraph(beanName);
+        for (String member : new ArrayList<>(members)) {
+            assignComponent(Set.of(member));
+        }
+        for (int[] component : BeanCycleFinder.findCyclicComponents(componentGraph)) {
+            Set<String> split = new HashSet<>();
+            for (int bean : component) {
+                split.add(componentGraph.getBeanName(bean));
+            }
+            assignComponent(split);
+        }
+
+        // The split components take the place of the component in the order, renumbering all if there is no room
+        Set<Integer> splitComponents = new HashSet<>();
+        for (int bean = 0; bean < componentGraph.getBeanCount(); bean++) {
+            splitComponents.add(componentOf.get(componentGraph.getBeanName(bean)));
+        }
+        Long nextRank = order.higherKey(rank);
+        long step = nextRank != null ? (nextRank - rank) / splitComponents.size() : RANK_GAP;
+        if (step == 0) {
+            rankComponents(sortComponents(components.keySet()), 0);
+        } else {
+            for (Integer component : sortComponents(splitComponents)) {
+                setRank(component, rank);
+                rank += step;
+            }
+        }
+    }
+
+    /**
+     * Gets the beans of the strongly connected component of a bean.
+     *
+     * @param beanName the bean name
+     * @return the members of the component, empty for unknown beans
+     */
+    public Set<String> getComponent(@NotNull String beanName) {
+        Integer component = componentOf.get(beanName);
+        return component != null ? Collections.unmodifiableSet(components.get(component)) : Set.of();
+    }
+
+    /**
+     * Checks if a bean is part of a dependency cycle.
+     *
+     * @param beanName the bean name
+     * @return true if the component of the bean has several beans or the bean depends on itself
+     */
+    public boolean isCyclic(@NotNull String beanName) {
+        return getComponent(beanName).size() > 1 || getDependencies(beanName).containsKey(beanName);
+    }
+
+    /**
+     * Takes an immutable snapshot of the cycles of the graph, which can be read while the graph changes.
+     *
+     * @return the component of every bean lying on a cycle, by bean name
+     */
+    public Map<String, Integer> getCyclicComponents() {
+        Map<String, Integer> cyclicComponents = new HashMap<>();
+        for (Map.Entry<Integer, Set<String>> component : components.entrySet()) {
+            Set<String> members = component.getValue();
+            if (members.size() > 1 || isCyclic(members.iterator().next())) {
+                for (String member : members) {
+                    cyclicComponents.put(member, component.getKey());
+                }
+            }
+        }
+        return Map.copyOf(cyclicComponents);
+    }
+
+    /**
+     * Builds an immutable graph of the component of a bean, with the dependencies between its members only.
+     * Every bean of the returned graph belongs to the component.
+     *
+     * @param beanName the bean name
+     * @return the graph of the component
+     */
+    public BeanGraph getComponentGraph(@NotNull String beanName) {
+        Set<String> members = getComponent(beanName);
+        BeanGraph.Builder builder = BeanGraph.builder();
+        for (String member : members) {
+            builder.addBean(member, null);
+        }
+        for (String member : members) {
+            for (Map.Entry<String, BeanGraph.DependencyKind> dependency : dependencies.get(member).entrySet()) {
+                if (members.contains(dependency.getKey())) {
+                    builder.addDependency(member, dependency.getKey(), dependency.getValue());
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Moves the given beans to a new component, which has no rank yet. Components left empty are removed.
+     *
+     * @return the new component
+     */
+    private int assignComponent(Set<String> members) {
+        int component = nextComponent++;
+        for (String member : members) {
+            Integer previous = componentOf.put(member, component);
+            if (previous != null) {
+                Set<String> previousMembers = components.get(previous);
+                previousMembers.remove(member);
+                if (previousMembers.isEmpty()) {
+                    components.remove(previous);
+                    Long previousRank = rankOf.remove(previous);
+                    if (previousRank != null) {
+                        order.remove(previousRank, previous);
+                    }
+                }
+            }
+        }
+        components.put(component, new HashSet<>(members));
+        return component;
+    }
+
+    private void setRank(int component, long rank) {
+        Long previousRank = rankOf.put(component, rank);
+        if (previousRank != null) {
+            order.remove(previousRank, component);
+        }
+        order.put(rank, component);
+    }
+
+    private void rankComponents(List<Integer> sortedComponents, long firstRank) {
+        order.clear();
+        rankOf.clear();
+        long rank = firstRank;
+        for (Integer component : sortedComponents) {
+            setRank(component, rank);
+            rank += RANK_GAP;
+        }
+    }
+
+    private List<Integer> sortByRank(Set<Integer> componentSet) {
+        List<Integer> sorted = new ArrayList<>(componentSet);
+        sorted.sort(Comparator.comparing(rankOf::get));
+        return sorted;
+    }
+
+    /**
+     * Sorts components topologically, every component before the components it depends on.
+     * Dependencies on components outside the given ones are ignored.
+     */
+    private List<Integer> sortComponents(Collection<Integer> componentSet) {
+        Set<Integer> included = new HashSet<>(componentSet);
+        Set<Integer> visited = new HashSet<>();
+        List<Integer> postOrder = new ArrayList<>();
+        Deque<Integer> path = new ArrayDeque<>();
+        Deque<Iterator<Integer>> successors = new ArrayDeque<>();
+        for (Integer start : componentSet) {
+            if (!visited.add(start)) {
+                continue;
+            }
+            path.push(start);
+            successors.push(getSuccessors(start, included).iterator());
+            while (!path.isEmpty()) {
+                if (successors.peek().hasNext()) {
+                    Integer next = successors.peek().next();
+                    if (visited.add(next)) {
+                        path.push(next);
+                        successors.push(getSuccessors(next, included).iterator());
+                    }
+                } else {
+                    postOrder.add(path.pop());
+                    successors.pop();
+                }
+            }
+        }
+        Collections.reverse(postOrder);
+        return postOrder;
+    }
+
+    private Set<Integer> getSuccessors(Integer component, Set<Integer> included) {
+        Set<Integer> successors = new LinkedHashSet<>();
+        for (String member : components.get(component)) {
+            for (String dependency : dependencies.get(member).keySet()) {
+                Integer successor = componentOf.get(dependency);
+                if (!successor.equals(component) && included.contains(successor)) {
+                    successors.add(successor);
+                }
+            }
+        }
+        return successors;
+    }
+
+    private Set<Integer> getComponents(Set<String> beans) {
+        Set<Integer> beanComponents = new HashSet<>();
+        for (String bean : beans) {
+            beanComponents.add(componentOf.get(bean));
+        }
+        return beanComponents;
+    }
+
+    /**
+     * Collects the beans reachable from a bean through the given edges, without leaving the components ranked
+     * up to the bound, or from the bound on.
+     */
+    private Set<String> collect(String start, Function<String, Collection<String>> edges, long bound, boolean upTo) {
+        Set<String> visited = new HashSet<>();
+        Deque<String> pending = new ArrayDeque<>();
+        pending.push(start);
+        visited.add(start);
+        while (!pending.isEmpty()) {
+            for (String next : edges.apply(pending.pop())) {
+                long rank = rankOf.get(componentOf.get(next));
+                if ((upTo ? rank <= bound : rank >= bound) && visited.add(next)) {
+                    pending.push(next);
+                }
+            }
+        }
+        return visited;
+    }
+}
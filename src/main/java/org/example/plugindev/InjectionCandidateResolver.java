@@ -0,0 +1,358 @@
+package org.example.plugindev;
+
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.*;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.beans.Introspector;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index from injected types to the beans which can be injected for them.
+ * For every scope the stereotype classes are read once from the {@link BeanAnnotationIndex} and registered
+ * under each of their supertypes, both by class and by parameterized type, so finding the implementations
+ * of an injected interface is a hash lookup instead of a {@code ClassInheritorsSearch}. Only the project sources
+ * are walked; library beans come from the {@link LibraryBeanSummaries}. Factory beans come from the
+ * {@link BeanFactoryMethodIndex} and qualifiers from the {@link QualifierRegistry}.
+ * Results are cached until the next PSI modification. All methods must be called inside a read action.
+ */
+@Service(Service.Level.PROJECT)
+public final class InjectionCandidateResolver {
+
+    private static final String QUALIFIER_ANNOTATION = "org.springframework.beans.factory.annotation.Qualifier";
+    private static final String PRIMARY_ANNOTATION = "org.springframework.context.annotation.Primary";
+
+    private final Project project;
+    private final CachedValue<Map<GlobalSearchScope, TypeIndex>> cache;
+    private final CachedValue<Map<ResolutionKey, Resolution>> resolutions;
+
+    /**
+     * The beans which can be injected for a type and qualifier.
+     *
+     * @param candidates the candidate classes and factory methods
+     * @param primaries  the candidates annotated with @Primary
+     */
+    public record Resolution(List<PsiMember> candidates, List<PsiMember> primaries) {
+
+        /**
+         * Gets the bean Spring injects: the only candidate, or the only primary candidate among several.
+         *
+         * @param injectingClass the class declaring the injection point, which is never injected into itself
+         * @return the injected bean, or null if there is no candidate or the injection is ambiguous
+         */
+        public @Nullable PsiMember getInjectedBean(@Nullable PsiClass injectingClass) {
+            List<PsiMember> others = getCandidates(injectingClass);
+            if (others.size() == 1) {
+                return others.get(0);
+            }
+            List<PsiMember> otherPrimaries = getPrimaries(injectingClass);
+            return others.size() > 1 && otherPrimaries.size() == 1 ? otherPrimaries.get(0) : null;
+        }
+
+        /**
+         * Gets the candidates which can be injected into the given class.
+         *
+         * @param injectingClass the class declaring the injection point
+         * @return the candidates other than the injecting class
+         */
+        public List<PsiMember> getCandidates(@Nullable PsiClass injectingClass) {
+            return without(candidates, injectingClass);
+        }
+
+        /**
+         * Gets the primary candidates which can be injected into the given class.
+         *
+         * @param injectingClass the class declaring the injection point
+         * @return the primary candidates other than the injecting class
+         */
+        public List<PsiMember> getPrimaries(@Nullable PsiClass injectingClass) {
+            return without(primaries, injectingClass);
+        }
+
+        private static List<PsiMember> without(List<PsiMember> members, PsiClass injectingClass) {
+            if (injectingClass == null || !members.contains(injectingClass)) {
+                return members;
+            }
+            List<PsiMember> others = new ArrayList<>(members);
+            others.remove(injectingClass);
+            return others;
+        }
+    }
+
+    /**
+     * The stereotype classes of a scope by the types they can be injected as.
+     *
+     * @param byClass     the implementations of every supertype class, whatever its type arguments
+     * @param byType      the implementations of every fully parameterized supertype, by type key
+     * @param openByClass the implementations leaving the type arguments of a supertype class open
+     */
+    private record TypeIndex(Map<String, List<PsiClass>> byClass, Map<String, List<PsiClass>> byType,
+                             Map<String, List<PsiClass>> openByClass) {
+    }
+
+    private record ResolutionKey(String typeKey, @Nullable String qualifier, GlobalSearchScope scope) {
+    }
+
+    public InjectionCandidateResolver(@NotNull Project project) {
+        this.project = project;
+        this.cache = CachedValuesManager.getManager(project).createCachedValue(
+                () -> CachedValueProvider.Result.create(new ConcurrentHashMap<>(), PsiModificationTracker.getInstance(project)),
+                false);
+        this.resolutions = CachedValuesManager.getManager(project).createCachedValue(
+                () -> CachedValueProvider.Result.create(new ConcurrentHashMap<>(), PsiModificationTracker.getInstance(project)),
+                false);
+    }
+
+    /**
+     * Gets the resolver service of the given project.
+     *
+     * @param project the current project
+     * @return the resolver service
+     */
+    public static InjectionCandidateResolver getInstance(@NotNull Project project) {
+        return project.getService(InjectionCandidateResolver.class);
+    }
+
+    /**
+     * Finds the beans which can be injected into the given injection point, visible from its module.
+     * Candidates are stereotype classes and @Bean factory methods providing the injected type, narrowed
+     * by the @Qualifier of the injection point. A concrete injected type without any candidate
+     * is its own candidate, as the extractor assumes.
+     *
+     * @param injectionPoint the injection point
+     * @return the candidate classes and factory methods, empty if the type does not resolve
+     */
+    public List<PsiMember> findCandidates(@NotNull InjectionPoint injectionPoint) {
+        PsiClass injectedClass = injectionPoint.resolveClass();
+        if (!(injectionPoint.type() instanceof PsiClassType classType)
+                || injectedClass == null || injectedClass.getQualifiedName() == null) {
+            return Collections.emptyList();
+        }
+        GlobalSearchScope scope = BeanSearchScopes.getInstance(project).getInjectionScope(injectionPoint.element());
+        List<PsiMember> candidates = resolve(classType, getQualifier(injectionPoint.element()), scope).candidates();
+        if (candidates.isEmpty() && !injectedClass.isInterface() && !injectedClass.hasModifierProperty(PsiModifier.ABSTRACT)) {
+            return List.of(injectedClass);
+        }
+        return candidates;
+    }
+
+    /**
+     * Resolves the beans which can be injected for a type and qualifier in the given scope.
+     * Each (type, qualifier, scope) is resolved once until the next PSI modification, however many
+     * injection points and checkers ask for it. Type arguments are taken into account, so
+     * {@code Repository<User>} and {@code Repository<Order>} are resolved separately.
+     *
+     * @param type      the injected type
+     * @param qualifier the @Qualifier value of the injection point, or null
+     * @param scope     the scope visible from the injection point
+     * @return the stereotype classes and factory methods providing the type, and the primary ones among them
+     */
+    public Resolution resolve(@NotNull PsiClassType type, @Nullable String qualifier, @NotNull GlobalSearchScope scope) {
+        PsiClass typeClass = type.resolve();
+        String typeName = typeClass != null ? typeClass.getQualifiedName() : null;
+        if (typeName == null) {
+            return new Resolution(List.of(), List.of());
+        }
+        String typeKey = getTypeKey(typeName, type.getParameters());
+        return resolutions.getValue().computeIfAbsent(new ResolutionKey(typeKey != null ? typeKey : typeName, qualifier, scope), key -> {
+            List<PsiMember> candidates = new ArrayList<>();
+            List<PsiMember> primaries = new ArrayList<>();
+            for (PsiClass implementation : findImplementations(type, scope)) {
+                candidates.add(implementation);
+                if (implementation.hasAnnotation(PRIMARY_ANNOTATION)) {
+                    primaries.add(implementation);
+                }
+            }
+            for (BeanFactoryMethodIndex.FactoryBean factoryBean : BeanFactoryMethodIndex.getInstance(project).findProviders(typeName, scope)) {
+                PsiType returnType = factoryBean.method().getReturnType();
+                if (typeKey != null && returnType != null && !type.isAssignableFrom(returnType)) {
+                    continue;
+                }
+                candidates.add(factoryBean.method());
+                if (factoryBean.primary()) {
+                    primaries.add(factoryBean.method());
+                }
+            }
+            if (qualifier != null) {
+                Set<PsiMember> qualifiedMembers = new HashSet<>();
+                for (QualifierRegistry.QualifiedBean bean : QualifierRegistry.getInstance(project).findBeans(qualifier, scope)) {
+                    qualifiedMembers.add(bean.declaration());
+                }
+                candidates.retainAll(qualifiedMembers);
+                primaries.retainAll(qualifiedMembers);
+            }
+            return new Resolution(List.copyOf(candidates), List.copyOf(primaries));
+        });
+    }
+
+    /**
+     * Gets the @Qualifier value of an injection point.
+     *
+     * @param element the injected field or parameter
+     * @return the qualifier value, or null if the element is not qualified
+     */
+    static @Nullable String getQualifier(@NotNull PsiModifierListOwner element) {
+        PsiAnnotation qualifierAnnotation = element.getAnnotation(QUALIFIER_ANNOTATION);
+        PsiAnnotationMemberValue qualifierValue = qualifierAnnotation != null ? qualifierAnnotation.findAttributeValue("value") : null;
+        return qualifierValue != null ? qualifierValue.getText().replaceAll("\"", "").trim() : null;
+    }
+
+    /**
+     * Finds the concrete stereotype classes in the given scope which can be assigned to the given type,
+     * the class of the type included. A raw type or a type with wildcards or type variables matches every
+     * implementation of its class; a fully parameterized type only matches the implementations binding
+     * the same type arguments and the generic ones leaving them open.
+     *
+     * @param type  the injected type
+     * @param scope the scope to search
+     * @return the implementing bean classes
+     */
+    public List<PsiClass> findImplementations(@NotNull PsiClassType type, @NotNull GlobalSearchScope scope) {
+        PsiClass typeClass = type.resolve();
+        String typeName = typeClass != null ? typeClass.getQualifiedName() : null;
+        if (typeName == null) {
+            return Collections.emptyList();
+        }
+        TypeIndex typeIndex = cache.getValue().computeIfAbsent(scope, this::collectImplementations);
+        String typeKey = getTypeKey(typeName, type.getParameters());
+        if (typeKey == null) {
+            return typeIndex.byClass().getOrDefault(typeName, Collections.emptyList());
+        }
+        List<PsiClass> implementations = new ArrayList<>(typeIndex.byType().getOrDefault(typeKey, Collections.emptyList()));
+        implementations.addAll(typeIndex.openByClass().getOrDefault(typeName, Collections.emptyList()));
+        return implementations;
+    }
+
+    /**
+     * Gets the name Spring gives to a stereotype class without an explicit name.
+     *
+     * @param psiClass the bean class
+     * @return the decapitalized simple name
+     */
+    static String getDefaultBeanName(PsiClass psiClass) {
+        return psiClass.getName() != null ? Introspector.decapitalize(psiClass.getName()) : null;
+    }
+
+    private TypeIndex collectImplementations(GlobalSearchScope scope) {
+        TypeIndex typeIndex = new TypeIndex(new HashMap<>(), new HashMap<>(), new HashMap<>());
+        LibraryBeanSummaries librarySummaries = LibraryBeanSummaries.getInstance(project);
+        List<String> classKeys = new ArrayList<>();
+        List<String> typeKeys = new ArrayList<>();
+        List<String> openKeys = new ArrayList<>();
+        for (PsiClass beanClass : BeanAnnotationIndex.getInstance(project).getStereotypeClasses(librarySummaries.getSourceScope(scope))) {
+            if (beanClass.isInterface() || beanClass.hasModifierProperty(PsiModifier.ABSTRACT)
+                    || beanClass.getQualifiedName() == null) {
+                continue;
+            }
+            classKeys.clear();
+            typeKeys.clear();
+            openKeys.clear();
+            collectSupertypeKeys(beanClass, classKeys, typeKeys, openKeys);
+            register(typeIndex, beanClass, classKeys, typeKeys, openKeys);
+        }
+        // Library beans come with their supertypes, so their hierarchies are not walked again
+        for (LibraryBeanSummaries.LibraryBean bean : librarySummaries.getBeans(scope)) {
+            PsiClass beanClass = librarySummaries.findClass(bean, scope);
+            if (beanClass != null) {
+                register(typeIndex, beanClass, bean.classKeys(), bean.typeKeys(), bean.openKeys());
+            }
+        }
+        return typeIndex;
+    }
+
+    private static void register(TypeIndex typeIndex, PsiClass beanClass, List<String> classKeys,
+                                 List<String> typeKeys, List<String> openKeys) {
+        for (String classKey : classKeys) {
+            typeIndex.byClass().computeIfAbsent(classKey, k -> new ArrayList<>()).add(beanClass);
+        }
+        for (String typeKey : typeKeys) {
+            typeIndex.byType().computeIfAbsent(typeKey, k -> new ArrayList<>()).add(beanClass);
+        }
+        for (String openKey : openKeys) {
+            typeIndex.openByClass().computeIfAbsent(openKey, k -> new ArrayList<>()).add(beanClass);
+        }
+    }
+
+    /**
+     * Collects the types a bean class can be injected as.
+     *
+     * @param beanClass the concrete bean class
+     * @param classKeys receives the names of the bean class and of its supertype classes
+     * @param typeKeys  receives the keys of the supertypes whose type arguments the bean class binds
+     * @param openKeys  receives the names of the generic supertype classes whose type arguments it leaves open
+     */
+    static void collectSupertypeKeys(@NotNull PsiClass beanClass, @NotNull List<String> classKeys,
+                                     @NotNull List<String> typeKeys, @NotNull List<String> openKeys) {
+        Set<PsiClass> superClasses = new LinkedHashSet<>();
+        superClasses.add(beanClass);
+        InheritanceUtil.getSuperClasses(beanClass, superClasses, true);
+        for (PsiClass superClass : superClasses) {
+            String superClassName = superClass.getQualifiedName();
+            if (superClassName == null || CommonClassNames.JAVA_LANG_OBJECT.equals(superClassName)) {
+                continue;
+            }
+            classKeys.add(superClassName);
+            if (!superClass.hasTypeParameters()) {
+                continue;
+            }
+            // Bind the type parameters of the supertype as seen from the bean class
+            PsiSubstitutor substitutor = TypeConversionUtil.getSuperClassSubstitutor(superClass, beanClass, PsiSubstitutor.EMPTY);
+            PsiTypeParameter[] typeParameters = superClass.getTypeParameters();
+            PsiType[] typeArguments = new PsiType[typeParameters.length];
+            for (int i = 0; i < typeParameters.length; i++) {
+                typeArguments[i] = substitutor.substitute(typeParameters[i]);
+            }
+            String typeKey = getTypeKey(superClassName, typeArguments);
+            if (typeKey != null) {
+                typeKeys.add(typeKey);
+            } else {
+                openKeys.add(superClassName);
+            }
+        }
+    }
+
+    /**
+     * Builds the key of a parameterized type from the canonical text of its type arguments.
+     *
+     * @param className     the fully qualified name of the class of the type
+     * @param typeArguments the type arguments
+     * @return the key, or null if the type is raw or one of its arguments is not a concrete type
+     */
+    private static @Nullable String getTypeKey(String className, PsiType[] typeArguments) {
+        if (typeArguments.length == 0) {
+            return null;
+        }
+        StringBuilder typeKey = new StringBuilder(className).append('<');
+        for (int i = 0; i < typeArguments.length; i++) {
+            if (!isConcrete(typeArguments[i])) {
+                return null;
+            }
+            typeKey.append(i > 0 ? "," : "").append(typeArguments[i].getCanonicalText(false));
+        }
+        return typeKey.append('>').toString();
+    }
+
+    private static boolean isConcrete(PsiType type) {
+        if (type instanceof PsiArrayType arrayType) {
+            return isConcrete(arrayType.getComponentType());
+        }
+        if (type instanceof PsiPrimitiveType) {
+            return true;
+        }
+        if (!(type instanceof PsiClassType classType) || classType.resolve() == null
+                || classType.resolve() instanceof PsiTypeParameter) {
+            return false;
+        }
+        for (PsiType parameter : classType.getParameters()) {
+            if (!isConcrete(parameter)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,138 @@
+package org.example.plugindev;
+
+import com.intellij.codeInsight.daemon.RelatedItemLineMarkerInfo;
+import com.intellij.codeInsight.daemon.RelatedItemLineMarkerProvider;
+import com.intellij.codeInsight.navigation.NavigationGutterIconBuilder;
+import com.intellij.icons.AllIcons;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.psi.*;
+import org.jetbrains.annotations.NotNull;
+
+import javax.swing.Icon;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Puts a gutter icon on @Autowired fields, on the parameters of bean constructors, @Autowired methods
+ * and @Bean methods, navigating to the beans injected there. The icon tells at a glance whether the
+ * injection point has one candidate, several candidates or closes a dependency cycle. Collections, arrays
+ * and maps by bean name receive every candidate, so several candidates are expected there.
+ * Candidates come from the {@link InjectionCandidateResolver} and cycles from the {@link BeanCycleService},
+ * so painting a marker only does hash lookups.
+ */
+public class InjectionLineMarkerProvider extends RelatedItemLineMarkerProvider {
+
+    private static final String AUTOWIRED_ANNOTATION = "org.springframework.beans.factory.annotation.Autowired";
+    private static final String BEAN_ANNOTATION = "org.springframework.context.annotation.Bean";
+
+    /**
+     * Adds a marker on the name of an injected field or parameter.
+     *
+     * @param element the leaf element being painted
+     * @param result  the markers of the file
+     */
+    @Override
+    protected void collectNavigationMarkers(@NotNull PsiElement element,
+                                            @NotNull Collection<? super RelatedItemLineMarkerInfo<?>> result) {
+        if (!(element instanceof PsiIdentifier) || !(element.getParent() instanceof PsiVariable variable)
+                || variable.getNameIdentifier() != element || DumbService.isDumb(element.getProject())) {
+            return;
+        }
+        InjectionPoint injectionPoint = getInjectionPoint(variable);
+        if (injectionPoint == null) {
+            return;
+        }
+        List<PsiMember> candidates = InjectionCandidateResolver.getInstance(element.getProject()).findCandidates(injectionPoint);
+        if (candidates.isEmpty()) {
+            return;
+        }
+
+        Icon icon = AllIcons.Gutter.ImplementedMethod;
+        String tooltip = "Injects " + getGraphName(candidates.get(0));
+        if (injectionPoint.multiple()) {
+            PsiMember cyclicCandidate = null;
+            for (PsiMember candidate : candidates) {
+                if (isCyclic(variable, candidate)) {
+                    cyclicCandidate = candidate;
+                    break;
+                }
+            }
+            icon = cyclicCandidate != null ? AllIcons.General.Error : icon;
+            tooltip = cyclicCandidate != null
+                    ? "Injecting " + getGraphName(cyclicCandidate) + " closes a dependency cycle"
+                    : "Injects all " + candidates.size() + " beans";
+        } else if (candidates.size() > 1) {
+            icon = AllIcons.General.Warning;
+            tooltip = candidates.size() + " beans can be injected here";
+        } else if (isCyclic(variable, candidates.get(0))) {
+            icon = AllIcons.General.Error;
+            tooltip = "Injecting " + getGraphName(candidates.get(0)) + " closes a dependency cycle";
+        }
+        result.add(NavigationGutterIconBuilder.create(icon)
+                .setTargets(candidates)
+                .setTooltipText(tooltip)
+                .setPopupTitle("Injected Beans")
+                .createLineMarkerInfo(element));
+    }
+
+    /**
+     * Gets the injection point of a variable Spring injects a bean into.
+     *
+     * @param variable the field or parameter
+     * @return the injection point, or null if Spring does not inject the variable
+     */
+    private InjectionPoint getInjectionPoint(PsiVariable variable) {
+        if (variable instanceof PsiField field) {
+            return field.hasAnnotation(AUTOWIRED_ANNOTATION)
+                    ? InjectionPoint.of(field, BeanGraph.DependencyKind.PROPERTY)
+                    : null;
+        }
+        if (!(variable instanceof PsiParameter parameter) || !(parameter.getDeclarationScope() instanceof PsiMethod method)) {
+            return null;
+        }
+        PsiClass psiClass = method.getContainingClass();
+        if (method.isConstructor()) {
+            boolean injected = psiClass != null && StereotypeClassifier.isStereotype(psiClass)
+                    && (psiClass.getConstructors().length == 1 || method.hasAnnotation(AUTOWIRED_ANNOTATION));
+            return injected ? InjectionPoint.of(parameter, BeanGraph.DependencyKind.CONSTRUCTOR) : null;
+        }
+        if (method.hasAnnotation(BEAN_ANNOTATION)) {
+            return InjectionPoint.of(parameter, BeanGraph.DependencyKind.CONSTRUCTOR);
+        }
+        return method.hasAnnotation(AUTOWIRED_ANNOTATION)
+                ? InjectionPoint.of(parameter, BeanGraph.DependencyKind.PROPERTY)
+                : null;
+    }
+
+    /**
+     * Checks if injecting the candidate into the bean declaring the variable closes a cycle.
+     */
+    private boolean isCyclic(PsiVariable variable, PsiMember candidate) {
+        PsiMember declaringBean = getDeclaringBean(variable);
+        String beanName = declaringBean != null ? getGraphName(declaringBean) : null;
+        String dependencyName = getGraphName(candidate);
+        return beanName != null && dependencyName != null
+                && BeanCycleService.getInstance(variable.getProject()).isCyclicDependency(beanName, dependencyName);
+    }
+
+    /**
+     * Gets the bean receiving the injection: the factory method of a @Bean parameter, otherwise the class.
+     */
+    private static PsiMember getDeclaringBean(PsiVariable variable) {
+        if (variable instanceof PsiParameter parameter && parameter.getDeclarationScope() instanceof PsiMethod method) {
+            return method.hasAnnotation(BEAN_ANNOTATION) ? method : method.getContainingClass();
+        }
+        return variable instanceof PsiField field ? field.getContainingClass() : null;
+    }
+
+    /**
+     * Gets the name of a bean class or factory method in the bean graph.
+     */
+    private static String getGraphName(PsiMember member) {
+        if (member instanceof PsiClass psiClass) {
+            return psiClass.getQualifiedName();
+        }
+        PsiClass containingClass = member.getContainingClass();
+        return containingClass != null ? containingClass.getQualifiedName() + "#" + member.getName() : null;
+    }
+}
@@ -0,0 +1,97 @@
+package org.example.plugindev;
+
+import com.intellij.psi.*;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A field, constructor parameter or method parameter into which Spring injects a bean.
+ * Lookup wrappers such as {@code ObjectProvider<T>} and containers such as {@code List<T>} are unwrapped,
+ * so {@link #type()} is the type of the injected bean, {@link #kind()} tells how the bean is obtained
+ * and {@link #multiple()} whether every bean of the type is injected.
+ *
+ * @param element  the injected field or parameter
+ * @param type     the type of the injected bean
+ * @param kind     how the bean receives the dependency
+ * @param multiple whether the variable is a collection, a map by bean name or an array of beans
+ */
+public record InjectionPoint(@NotNull PsiVariable element, @NotNull PsiType type, @NotNull BeanGraph.DependencyKind kind,
+                             boolean multiple) {
+
+    static final String LAZY_ANNOTATION = "org.springframework.context.annotation.Lazy";
+    static final String OPTIONAL_TYPE = "java.util.Optional";
+    static final Set<String> DEFERRED_TYPES = new HashSet<>();
+    static final Set<String> COLLECTION_TYPES = new HashSet<>();
+
+    static {
+        DEFERRED_TYPES.add("org.springframework.beans.factory.ObjectProvider");
+        DEFERRED_TYPES.add("org.springframework.beans.factory.ObjectFactory");
+        DEFERRED_TYPES.add("javax.inject.Provider");
+        DEFERRED_TYPES.add("jakarta.inject.Provider");
+        COLLECTION_TYPES.add(CommonClassNames.JAVA_LANG_ITERABLE);
+        COLLECTION_TYPES.add(CommonClassNames.JAVA_UTIL_COLLECTION);
+        COLLECTION_TYPES.add(CommonClassNames.JAVA_UTIL_LIST);
+        COLLECTION_TYPES.add(CommonClassNames.JAVA_UTIL_SET);
+        COLLECTION_TYPES.add("java.util.SortedSet");
+    }
+
+    /**
+     * Creates the injection point of a variable. Variables annotated with @Lazy and lookup wrappers
+     * are deferred. {@code Optional<T>} is unwrapped but keeps the declared kind, because Spring
+     * resolves optional dependencies eagerly. Collections, arrays and maps with String keys of beans
+     * receive every bean of their element type.
+     *
+     * @param element      the injected field or parameter
+     * @param declaredKind the kind of the injection the variable belongs to
+     * @return the injection point
+     */
+    public static InjectionPoint of(@NotNull PsiVariable element, @NotNull BeanGraph.DependencyKind declaredKind) {
+        PsiType type = element.getType();
+        BeanGraph.DependencyKind kind = element.hasAnnotation(LAZY_ANNOTATION) ? BeanGraph.DependencyKind.DEFERRED : declaredKind;
+        boolean multiple = false;
+        while (true) {
+            if (type instanceof PsiArrayType arrayType && !multiple && !(arrayType.getComponentType() instanceof PsiPrimitiveType)) {
+                multiple = true;
+                type = arrayType.getComponentType();
+                continue;
+            }
+            if (!(type instanceof PsiClassType classType) || classType.getParameterCount() == 0) {
+                break;
+            }
+            PsiClass wrapperClass = classType.resolve();
+            String wrapperName = wrapperClass != null ? wrapperClass.getQualifiedName() : null;
+            PsiType[] parameters = classType.getParameters();
+            if (DEFERRED_TYPES.contains(wrapperName)) {
+                kind = BeanGraph.DependencyKind.DEFERRED;
+            } else if (!multiple && COLLECTION_TYPES.contains(wrapperName)) {
+                multiple = true;
+            } else if (!multiple && CommonClassNames.JAVA_UTIL_MAP.equals(wrapperName) && parameters.length == 2
+                    && parameters[0].equalsToText(CommonClassNames.JAVA_LANG_STRING)) {
+                // Beans by name
+                multiple = true;
+                parameters = new PsiType[]{parameters[1]};
+            } else if (!OPTIONAL_TYPE.equals(wrapperName)) {
+                break;
+            }
+            if (parameters.length != 1) {
+                break;
+            }
+            type = parameters[0];
+            if (type instanceof PsiWildcardType wildcardType) {
+                type = wildcardType.getExtendsBound();
+            }
+        }
+        return new InjectionPoint(element, type, kind, multiple);
+    }
+
+    /**
+     * Gets the class of the injected bean type.
+     *
+     * @return the resolved class, or null if the type is not a resolvable class type
+     */
+    public PsiClass resolveClass() {
+        return type instanceof PsiClassType classType ? classType.resolve() : null;
+    }
+}
@@ -0,0 +1,339 @@
+package org.example.plugindev;
+
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.OrderEnumerator;
+import com.intellij.openapi.roots.ProjectRootManager;
+import com.intellij.openapi.vfs.JarFileSystem;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.*;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.search.GlobalSearchScopesCore;
+import com.intellij.psi.search.searches.AllClassesSearch;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps a summary of the annotated classes of every library jar: class-level annotations, bean names and the types
+ * the classes can be injected as. A jar is summarized once from its PSI and the summary is stored on disk under
+ * a hash of the jar path, length and modification time only, so the jar itself is never read and adding or
+ * updating another library summarizes nothing but that library. Which annotations are stereotypes, composed
+ * ones declared in other jars or in the project included, is decided when the summaries are read, so the
+ * stored summary does not depend on the rest of the classpath. The supertypes are resolved when the jar is
+ * summarized. Library roots which are not jars are summarized again after PSI or root changes. The checkers
+ * walk the PSI of the project sources only and take library beans from the summaries. All methods must be
+ * called inside a read action.
+ */
+@Service(Service.Level.PROJECT)
+public final class LibraryBeanSummaries {
+
+    private static final Logger logger = Logger.getInstance(LibraryBeanSummaries.class);
+    private static final int FORMAT_VERSION = 3;
+
+    private final Project project;
+    private final Map<String, List<SummarizedClass>> summaries = new ConcurrentHashMap<>();
+    private final CachedValue<Map<VirtualFile, List<SummarizedClass>>> directorySummaries;
+
+    /**
+     * A stereotype bean declared in a library jar.
+     *
+     * @param className    the fully qualified name of the bean class
+     * @param beanName     the name of the bean
+     * @param explicitName whether the name is given in the stereotype annotation
+     * @param qualifiers   the class level @Qualifier values
+     * @param classKeys    the supertype classes the bean can be injected as, the bean class included
+     * @param typeKeys     the fully parameterized supertypes, by type key
+     * @param openKeys     the supertype classes whose type arguments the bean leaves open
+     */
+    public record LibraryBean(String className, String beanName, boolean explicitName, List<String> qualifiers,
+                              List<String> classKeys, List<String> typeKeys, List<String> openKeys) {
+    }
+
+    /**
+     * A concrete annotated class of a library jar, as stored in its summary.
+     *
+     * @param className   the fully qualified name of the class
+     * @param defaultName the bean name of the class if no stereotype annotation names it
+     * @param annotations the class-level annotations in declaration order, with their value attribute or ""
+     * @param qualifiers  the class level @Qualifier values
+     * @param classKeys   the supertype classes the class can be injected as, the class included
+     * @param typeKeys    the fully parameterized supertypes, by type key
+     * @param openKeys    the supertype classes whose type arguments the class leaves open
+     */
+    private record SummarizedClass(String className, String defaultName, Map<String, String> annotations,
+                                   List<String> qualifiers, List<String> classKeys, List<String> typeKeys,
+                                   List<String> openKeys) {
+
+        /**
+         * Gets the bean of the class if one of its annotations is a stereotype, named by the first stereotype
+         * annotation giving a name.
+         */
+        @Nullable LibraryBean toBean(Set<String> stereotypeAnnotations) {
+            boolean bean = false;
+            String stereotypeName = null;
+            for (Map.Entry<String, String> annotation : annotations.entrySet()) {
+                if (stereotypeAnnotations.contains(annotation.getKey())) {
+                    bean = true;
+                    if (stereotypeName == null && !annotation.getValue().isEmpty()) {
+                        stereotypeName = annotation.getValue();
+                    }
+                }
+            }
+            return bean ? new LibraryBean(className, stereotypeName != null ? stereotypeName : defaultName,
+                    stereotypeName != null, qualifiers, classKeys, typeKeys, openKeys) : null;
+        }
+    }
+
+    public LibraryBeanSummaries(@NotNull Project project) {
+        this.project = project;
+        CachedValuesManager manager = CachedValuesManager.getManager(project);
+        this.directorySummaries = manager.createCachedValue(
+                () -> CachedValueProvider.Result.create(new ConcurrentHashMap<>(),
+                        PsiModificationTracker.getInstance(project), ProjectRootManager.getInstance(project)),
+                false);
+    }
+
+    /**
+     * Gets the summary service of the given project.
+     *
+     * @param project the current project
+     * @return the summary service
+     */
+    public static LibraryBeanSummaries getInstance(@NotNull Project project) {
+        return project.getService(LibraryBeanSummaries.class);
+    }
+
+    /**
+     * Restricts a scope to the project sources, the part of the scope not covered by the summaries.
+     *
+     * @param scope the scope to search
+     * @return the scope without libraries
+     */
+    public GlobalSearchScope getSourceScope(@NotNull GlobalSearchScope scope) {
+        return scope.intersectWith(GlobalSearchScope.projectScope(project));
+    }
+
+    /**
+     * Gets the library beans visible in the given scope, summarizing the jars seen for the first time.
+     * The summarized classes are beans if one of their annotations is a stereotype of the current classpath.
+     *
+     * @param scope the scope to search
+     * @return the beans of the library jars in the scope
+     */
+    public List<LibraryBean> getBeans(@NotNull GlobalSearchScope scope) {
+        Set<String> stereotypeAnnotations = BeanAnnotationIndex.getInstance(project).getStereotypeAnnotations();
+        List<LibraryBean> beans = new ArrayList<>();
+        for (VirtualFile root : OrderEnumerator.orderEntries(project).withoutSdk().librariesOnly().getClassesRoots()) {
+            if (scope.contains(root)) {
+                for (SummarizedClass summarizedClass : getSummary(root)) {
+                    LibraryBean bean = summarizedClass.toBean(stereotypeAnnotations);
+                    if (bean != null) {
+                        beans.add(bean);
+                    }
+                }
+            }
+        }
+        return beans;
+    }
+
+    /**
+     * Finds the class of a library bean.
+     *
+     * @param bean  the library bean
+     * @param scope the scope the bean was found in
+     * @return the bean class, or null if it is no longer there
+     */
+    public @Nullable PsiClass findClass(@NotNull LibraryBean bean, @NotNull GlobalSearchScope scope) {
+        return JavaPsiFacade.getInstance(project).findClass(bean.className(), scope);
+    }
+
+    /**
+     * Gets the summary of a library root, from memory, from disk or by summarizing it.
+     * Roots which are not jars have no stable content and are kept in memory until the next PSI or root change.
+     * Summarizing happens outside the maps, so two threads may summarize the same root at once, and the
+     * first summary stored wins.
+     */
+    private List<SummarizedClass> getSummary(VirtualFile root) {
+        String jarKey = getJarKey(root);
+        if (jarKey == null) {
+            Map<VirtualFile, List<SummarizedClass>> directories = directorySummaries.getValue();
+            List<SummarizedClass> classes = directories.get(root);
+            if (classes == null) {
+                classes = summarize(root);
+                List<SummarizedClass> existing = directories.putIfAbsent(root, classes);
+                classes = existing != null ? existing : classes;
+            }
+            return classes;
+        }
+        List<SummarizedClass> classes = summaries.get(jarKey);
+        if (classes == null) {
+            Path file = getSummaryFile(jarKey);
+            classes = read(file);
+            if (classes == null) {
+                classes = summarize(root);
+                write(file, classes);
+            }
+            List<SummarizedClass> existing = summaries.putIfAbsent(jarKey, classes);
+            classes = existing != null ? existing : classes;
+        }
+        return classes;
+    }
+
+    /**
+     * Identifies the jar of a root by its path, length and modification time, hashed. The jar is not read,
+     * so the key is cheap to get inside a read action; a jar rewritten in place gets a new key.
+     */
+    private static @Nullable String getJarKey(VirtualFile root) {
+        VirtualFile jar = JarFileSystem.getInstance().getVirtualFileForJar(root);
+        if (jar == null || !jar.isInLocalFileSystem()) {
+            return null;
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((jar.getPath() + "\0" + jar.getLength() + "\0" + jar.getTimeStamp()).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Summarizes the concrete classes of a root having class-level annotations, whichever they are,
+     * as a class may be a bean through a composed stereotype declared in another jar.
+     */
+    private List<SummarizedClass> summarize(VirtualFile root) {
+        long startTime = System.currentTimeMillis();
+        GlobalSearchScope rootScope = GlobalSearchScopesCore.directoryScope(project, root, true);
+        List<SummarizedClass> classes = new ArrayList<>();
+        AllClassesSearch.search(rootScope, project).forEach(psiClass -> {
+            ProgressManager.checkCanceled();
+            PsiModifierList modifierList = psiClass.getModifierList();
+            if (psiClass.isInterface() || psiClass.hasModifierProperty(PsiModifier.ABSTRACT)
+                    || psiClass.getQualifiedName() == null || modifierList == null
+                    || modifierList.getAnnotations().length == 0) {
+                return true;
+            }
+            Map<String, String> annotations = new LinkedHashMap<>();
+            for (PsiAnnotation annotation : modifierList.getAnnotations()) {
+                String annotationName = annotation.getQualifiedName();
+                if (annotationName != null) {
+                    PsiAnnotationMemberValue value = annotation.findDeclaredAttributeValue("value");
+                    annotations.putIfAbsent(annotationName, value != null ? value.getText().replaceAll("\"", "").trim() : "");
+                }
+            }
+            List<String> classKeys = new ArrayList<>();
+            List<String> typeKeys = new ArrayList<>();
+            List<String> openKeys = new ArrayList<>();
+            InjectionCandidateResolver.collectSupertypeKeys(psiClass, classKeys, typeKeys, openKeys);
+            String qualifier = InjectionCandidateResolver.getQualifier(psiClass);
+            classes.add(new SummarizedClass(psiClass.getQualifiedName(), InjectionCandidateResolver.getDefaultBeanName(psiClass),
+                    annotations, qualifier != null && !qualifier.isEmpty() ? List.of(qualifier) : List.of(),
+                    classKeys, typeKeys, openKeys));
+            return true;
+        });
+        logger.info("Summarized " + classes.size() + " annotated classes of " + root.getPresentableUrl()
+                + " in " + (System.currentTimeMillis() - startTime) + " ms");
+        return classes;
+    }
+
+    private static Path getSummaryFile(String key) {
+        return Path.of(PathManager.getSystemPath(), "plugin-dev", "library-beans", key + ".beans");
+    }
+
+    /**
+     * Reads a stored summary.
+     *
+     * @return the classes, or null if there is no readable summary of the current format
+     */
+    private static @Nullable List<SummarizedClass> read(Path file) {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (input.readInt() != FORMAT_VERSION) {
+                return null;
+            }
+            int classCount = input.readInt();
+            List<SummarizedClass> classes = new ArrayList<>(classCount);
+            for (int i = 0; i < classCount; i++) {
+                String className = input.readUTF();
+                String defaultName = input.readUTF();
+                int annotationCount = input.readInt();
+                Map<String, String> annotations = new LinkedHashMap<>();
+                for (int j = 0; j < annotationCount; j++) {
+                    annotations.put(input.readUTF(), input.readUTF());
+                }
+                classes.add(new SummarizedClass(className, defaultName, annotations,
+                        readStrings(input), readStrings(input), readStrings(input), readStrings(input)));
+            }
+            return classes;
+        } catch (IOException ex) {
+            logger.warn("Error reading library summary " + file, ex);
+            return null;
+        }
+    }
+
+    /**
+     * Stores a summary. The file is written aside and moved in place, so a concurrent reader
+     * never sees a partial summary.
+     */
+    private static void write(Path file, List<SummarizedClass> classes) {
+        try {
+            Files.createDirectories(file.getParent());
+            Path temporaryFile = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryFile)))) {
+                output.writeInt(FORMAT_VERSION);
+                output.writeInt(classes.size());
+                for (SummarizedClass summarizedClass : classes) {
+                    output.writeUTF(summarizedClass.className());
+                    output.writeUTF(summarizedClass.defaultName());
+                    output.writeInt(summarizedClass.annotations().size());
+                    for (Map.Entry<String, String> annotation : summarizedClass.annotations().entrySet()) {
+                        output.writeUTF(annotation.getKey());
+                        output.writeUTF(annotation.getValue());
+                    }
+                    writeStrings(output, summarizedClass.qualifiers());
+                    writeStrings(output, summarizedClass.classKeys());
+                    writeStrings(output, summarizedClass.typeKeys());
+                    writeStrings(output, summarizedClass.openKeys());
+                }
+            }
+            Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            logger.warn("Error writing library summary " + file, ex);
+        }
+    }
+
+    private static List<String> readStrings(DataInputStream input) throws IOException {
+        int count = input.readInt();
+        List<String> strings = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            strings.add(input.readUTF());
+        }
+        return strings;
+    }
+
+    private static void writeStrings(DataOutputStream output, List<String> strings) throws IOException {
+        output.writeInt(strings.size());
+        for (String string : strings) {
+            output.writeUTF(string);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package org.example.plugindev;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads the files of headless scans without allocating a buffer per file. Large files are memory-mapped
+ * read only; small files, most class files among them, are read into a buffer owned by the reading thread,
+ * since a mapping per small file costs more in system calls and address space than it saves in copying.
+ * Callers look at the content through absolute reads, so a file rejected by a byte-level filter is never
+ * copied to the heap. A buffer returned by a read is only valid until the next read on the same thread.
+ */
+final class MappedFileReader {
+
+    private static final int MAPPING_THRESHOLD = 64 * 1024;
+    private static final ThreadLocal<ByteBuffer> buffers = ThreadLocal.withInitial(() -> ByteBuffer.allocate(16 * 1024));
+
+    private MappedFileReader() {
+    }
+
+    /**
+     * Reads a file.
+     *
+     * @param file the file to read
+     * @return the content of the file, from index 0 to the limit of the buffer
+     * @throws IOException if the file cannot be read
+     */
+    static ByteBuffer read(@NotNull Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size >= MAPPING_THRESHOLD) {
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+            ByteBuffer buffer = getBuffer((int) size);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // Read until the end of the file
+            }
+            return buffer.flip();
+        }
+    }
+
+    /**
+     * Reads a stream of known size, such as a jar entry. Compressed entries cannot be mapped,
+     * but small ones still reuse the buffer of the thread.
+     *
+     * @param input the stream to read
+     * @param size  the size of the content, negative if unknown
+     * @return the content of the stream, from index 0 to the limit of the buffer
+     * @throws IOException if the stream cannot be read
+     */
+    static ByteBuffer read(@NotNull InputStream input, long size) throws IOException {
+        if (size < 0 || size >= MAPPING_THRESHOLD) {
+            return ByteBuffer.wrap(input.readAllBytes());
+        }
+        ByteBuffer buffer = getBuffer((int) size);
+        int length = input.readNBytes(buffer.array(), 0, (int) size);
+        return buffer.limit(length);
+    }
+
+    /**
+     * Checks if the content contains the given bytes.
+     *
+     * @param content the content to search
+     * @param pattern the bytes to look for
+     * @return true if the pattern occurs in the content
+     */
+    static boolean contains(@NotNull ByteBuffer content, byte @NotNull [] pattern) {
+        int last = content.limit() - pattern.length;
+        for (int i = 0; i <= last; i++) {
+            if (content.get(i) == pattern[0] && matches(content, i, pattern)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks if the content holds the given bytes at an offset.
+     *
+     * @param content the content
+     * @param offset  the index of the first byte to compare
+     * @param pattern the expected bytes
+     * @return true if the bytes are equal
+     */
+    static boolean matches(@NotNull ByteBuffer content, int offset, byte @NotNull [] pattern) {
+        if (offset + pattern.length > content.limit()) {
+            return false;
+        }
+        for (int i = 0; i < pattern.length; i++) {
+            if (content.get(offset + i) != pattern[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Copies the content to a new array, for parsers which need one.
+     *
+     * @param content the content
+     * @return the bytes of the content
+     */
+    static byte[] toArray(@NotNull ByteBuffer content) {
+        byte[] bytes = new byte[content.limit()];
+        content.get(0, bytes);
+        return bytes;
+    }
+
+    /**
+     * Gets a stream over the content, for parsers reading streams. The content is not copied.
+     *
+     * @param content the content
+     * @return a stream reading the content from index 0
+     */
+    static InputStream asInputStream(@NotNull ByteBuffer content) {
+        ByteBuffer view = content.duplicate().position(0);
+        return new InputStream() {
+            @Override
+            public int read() {
+                return view.hasRemaining() ? view.get() & 0xFF : -1;
+            }
+
+            @Override
+            public int read(byte @NotNull [] bytes, int offset, int length) {
+                if (!view.hasRemaining()) {
+                    return length == 0 ? 0 : -1;
+                }
+                int count = Math.min(length, view.remaining());
+                view.get(bytes, offset, count);
+                return count;
+            }
+        };
+    }
+
+    private static ByteBuffer getBuffer(int size) {
+        ByteBuffer buffer = buffers.get();
+        if (buffer.capacity() < size) {
+            buffer = ByteBuffer.allocate(Math.max(size, 2 * buffer.capacity()));
+            buffers.set(buffer);
+        }
+        return buffer.clear().limit(size);
+    }
+}
@@ -0,0 +1,257 @@
+package org.example.plugindev;
+
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.module.ModuleManager;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.SmartPointerManager;
+import com.intellij.psi.SmartPsiElementPointer;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Analyzes the beans of a project module by module.
+ * Every module checks its own classes on a pooled thread, and all module tasks feed one
+ * {@link ConcurrentBeanGraphBuilder}, which interns bean names in a shared map and buffers dependencies per thread.
+ * The builder numbers the beans in name order once all tasks are done, so the graph and the reported cycles
+ * do not depend on thread timing. Circular dependencies spanning several modules are found on this one graph,
+ * one independent cluster of beans at a time.
+ * In the bounded memory mode of the {@link BeanValidationSettings} the graph is spilled to memory-mapped files
+ * and searched in place instead.
+ */
+public class ModuleBeanAnalyzer {
+
+    private static final Logger logger = Logger.getInstance(ModuleBeanAnalyzer.class);
+
+    private final Project project;
+    private final Set<String> packages;
+    private final Set<String> beanClassNames = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Creates an analyzer for the classes of the given packages.
+     *
+     * @param project  the project to analyze
+     * @param packages the packages scanned for beans
+     */
+    public ModuleBeanAnalyzer(@NotNull Project project, @NotNull Set<String> packages) {
+        this.project = project;
+        this.packages = packages;
+    }
+
+    /**
+     * Gets the set of bean class names discovered in all modules.
+     *
+     * @return a set of fully qualified bean class names
+     */
+    public Set<String> getBeanClassNames() {
+        return beanClassNames;
+    }
+
+    /**
+     * Checks the classes of all modules in parallel. Every module task feeds the same
+     * {@link ConcurrentBeanGraphBuilder}, or {@link SpilledBeanGraphBuilder} in bounded memory mode,
+     * so no per-module graph has to be merged afterwards. The beans defined outside the sources, such as
+     * the XML bean definitions, are added to the same collector, so a spilled graph is written once.
+     *
+     * @param indicator  progress bar indicator used to cancel the analysis
+     * @param extraBeans the beans to add to the graph of the modules
+     * @return the bean graph of the whole project
+     */
+    public BeanGraph analyze(@NotNull ProgressIndicator indicator, @NotNull BeanGraph extraBeans) {
+        Module[] modules = ReadAction.compute(() -> ModuleManager.getInstance(project).getSortedModules());
+        ExecutorService executor = AppExecutorUtil.createBoundedApplicationPoolExecutor(
+                "Bean Analysis", Runtime.getRuntime().availableProcessors());
+        List<String> moduleOrder = new ArrayList<>();
+        for (Module module : modules) {
+            moduleOrder.add(module.getName());
+        }
+        BeanGraph.Collector builder = createCollector(moduleOrder);
+        List<Future<?>> moduleTasks = new ArrayList<>();
+        try {
+            for (Module module : modules) {
+                moduleTasks.add(executor.submit(() -> analyzeModule(module, builder, indicator)));
+            }
+            for (Future<?> moduleTask : moduleTasks) {
+                awaitModule(moduleTask);
+            }
+            builder.addGraph(extraBeans);
+            return builder.build();
+        } finally {
+            for (Future<?> moduleTask : moduleTasks) {
+                moduleTask.cancel(false);
+            }
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Creates the collector of a full analysis: a {@link SpilledBeanGraphBuilder} in bounded memory mode,
+     * a {@link ConcurrentBeanGraphBuilder} otherwise or if the spill files cannot be created.
+     * Beans found in several modules are attributed to the first of them in the given order.
+     *
+     * @param moduleOrder the module names, in dependency order
+     * @return a new collector
+     */
+    private static BeanGraph.Collector createCollector(List<String> moduleOrder) {
+        if (BeanValidationSettings.getInstance().isBoundedMemoryAnalysis()) {
+            try {
+                return new SpilledBeanGraphBuilder(moduleOrder);
+            } catch (UncheckedIOException ex) {
+                logger.warn("Error creating bean graph spill files, analyzing in memory", ex);
+            }
+        }
+        return new ConcurrentBeanGraphBuilder(moduleOrder);
+    }
+
+    /**
+     * Reports the circular dependencies of the merged graph. The graph is first partitioned into
+     * independent clusters of beans, which are analyzed in parallel on the fork-join pool.
+     * Cycles are deduplicated by their canonical rotation and reported together.
+     *
+     * @param graph the bean graph of the whole project
+     */
+    public void checkCycles(@NotNull BeanGraph graph) {
+        Map<List<String>, BeanCycleFinder.CycleKind> cycles = findCycles(graph);
+        if (!cycles.isEmpty()) {
+            CyclicDependencyDetector.reportCycles(cycles, project);
+        }
+    }
+
+    /**
+     * Finds the circular dependencies to report in a bean graph, cluster by cluster in parallel.
+     * A mapped graph is searched as a whole instead: its strongly connected components are found in one
+     * streaming pass over the adjacency files, and only the beans of cyclic components are held on the heap,
+     * whereas the clusters would be copied to the heap as subgraphs.
+     *
+     * @param graph the bean graph
+     * @return the cycles to report with the kind of their component
+     */
+    static Map<List<String>, BeanCycleFinder.CycleKind> findCycles(@NotNull BeanGraph graph) {
+        int maxCycles = BeanValidationSettings.getInstance().getMaxReportedCyclesPerComponent();
+        if (graph.isMapped()) {
+            logger.info("Searching mapped bean graph of " + graph.getBeanCount() + " beans and "
+                    + graph.getDependencyCount() + " dependencies");
+            return findCycles(graph, maxCycles);
+        }
+        List<int[]> partitions = BeanGraphPartitioner.partition(graph);
+        logger.info("Bean graph of " + graph.getBeanCount() + " beans split into " + partitions.size() + " clusters");
+        List<Map<List<String>, BeanCycleFinder.CycleKind>> partitionCycles = partitions.parallelStream()
+                .filter(partition -> partition.length > 1 || graph.getDependencies(partition[0]).length > 0)
+                .map(partition -> findCycles(graph.subgraph(partition), maxCycles))
+                .toList();
+
+        Map<List<String>, BeanCycleFinder.CycleKind> cycles = new LinkedHashMap<>();
+        for (Map<List<String>, BeanCycleFinder.CycleKind> partitionCycle : partitionCycles) {
+            partitionCycle.forEach(cycles::putIfAbsent);
+        }
+        return cycles;
+    }
+
+    /**
+     * Finds the cycles to report in one cluster of beans. Each cyclic component is classified by the
+     * dependencies its cycles need: components which only cycle through deferred lookups are logged,
+     * the others contribute their shortest cycle of that kind and, if the settings allow more than one cycle
+     * per component, further elementary cycles.
+     *
+     * @param graph     the graph of the cluster
+     * @param maxCycles the maximum number of cycles reported per component
+     * @return the cycles to report with the kind of their component
+     */
+    private static Map<List<String>, BeanCycleFinder.CycleKind> findCycles(BeanGraph graph, int maxCycles) {
+        Map<List<String>, BeanCycleFinder.CycleKind> cycles = new LinkedHashMap<>();
+        for (int[] component : BeanCycleFinder.findCyclicComponents(graph)) {
+            BeanCycleFinder.CycleKind cycleKind = BeanCycleFinder.classifyComponent(graph, component);
+            BeanGraph.DependencyKind weakestKind = cycleKind.getWeakestKind();
+            if (cycleKind == BeanCycleFinder.CycleKind.DEFERRED) {
+                logger.info("Cycle broken by a deferred dependency: " + BeanCycleFinder.findShortestCycle(graph, component));
+                continue;
+            }
+            Set<List<String>> componentCycles = new LinkedHashSet<>();
+            componentCycles.add(BeanCycleFinder.canonicalCycle(BeanCycleFinder.findShortestCycle(graph, component, weakestKind)));
+            if (maxCycles > 1) {
+                for (List<String> cycle : BeanCycleFinder.findElementaryCycles(graph, component, weakestKind, maxCycles)) {
+                    if (componentCycles.size() == maxCycles) {
+                        break;
+                    }
+                    componentCycles.add(cycle);
+                }
+            }
+            for (List<String> cycle : componentCycles) {
+                cycles.putIfAbsent(cycle, cycleKind);
+            }
+        }
+        return cycles;
+    }
+
+    /**
+     * Checks the classes of one module and collects its beans.
+     *
+     * @param module    the module to analyze
+     * @param collector the collector shared by all module tasks
+     * @param indicator progress bar indicator used to cancel the analysis
+     */
+    private void analyzeModule(Module module, BeanGraph.Collector collector, ProgressIndicator indicator) {
+        BeanGraphExtractor extractor = new BeanGraphExtractor(module, collector);
+        AnnotationChecker annotationChecker = new AnnotationChecker(extractor);
+        for (SmartPsiElementPointer<PsiClass> candidate : getCandidateClasses(module)) {
+            indicator.checkCanceled();
+            ReadAction.run(() -> {
+                PsiClass psiClass = candidate.getElement();
+                if (psiClass != null) {
+                    annotationChecker.checkAnnotations(psiClass, project);
+                }
+            });
+        }
+        indicator.checkCanceled();
+        ReadAction.run(extractor::addFactoryBeans);
+        beanClassNames.addAll(annotationChecker.getBeanClassNames());
+        logger.info("Analyzed module " + module.getName());
+    }
+
+    /**
+     * Collects the stereotype classes and the classes declaring @Autowired members in the production sources
+     * of a module which belong to the scanned packages. Both filters read stubs only: the classes come from the
+     * {@link BeanAnnotationIndex} and the package from the file stub. The classes are kept as pointers to their
+     * stubs, so only the classes which pass the filters are ever checked and no class is looked up again by name.
+     *
+     * @param module the module to process
+     * @return pointers to the candidate classes of the module
+     */
+    private List<SmartPsiElementPointer<PsiClass>> getCandidateClasses(Module module) {
+        return ReadAction.compute(() -> {
+            SmartPointerManager pointerManager = SmartPointerManager.getInstance(project);
+            List<SmartPsiElementPointer<PsiClass>> candidates = new ArrayList<>();
+            for (PsiClass psiClass : BeanAnnotationIndex.getInstance(project).getCandidateClasses(module.getModuleScope(false))) {
+                if (psiClass.getQualifiedName() != null && packages.contains(BeanAnnotationIndex.getPackageName(psiClass))) {
+                    candidates.add(pointerManager.createSmartPsiElementPointer(psiClass));
+                }
+            }
+            return candidates;
+        });
+    }
+
+    private static void awaitModule(Future<?> moduleTask) {
+        try {
+            moduleTask.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ProcessCanceledException(ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new RuntimeException(ex.getCause());
+        }
+    }
+}
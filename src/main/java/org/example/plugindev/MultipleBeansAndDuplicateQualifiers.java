@@ -1,20 +1,14 @@
 package org.example.plugindev;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.project.Project;
-import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.*;
-import com.intellij.psi.search.FilenameIndex;
 import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.search.GlobalSearchScopesCore;
 import com.intellij.psi.search.PsiShortNamesCache;
 import com.intellij.psi.search.searches.ClassInheritorsSearch;
 
-import com.intellij.psi.xml.XmlFile;
-import com.intellij.psi.xml.XmlTag;
 import com.intellij.util.Query;
 import org.jetbrains.annotations.NotNull;
-import com.intellij.notification.Notification;
-import com.intellij.notification.NotificationType;
-import com.intellij.notification.Notifications;
 
 import java.util.*;
 
@@ -26,29 +20,11 @@ public class MultipleBeansAndDuplicateQualifiers {
     private static final Logger logger = Logger.getInstance(MultipleBeansAndDuplicateQualifiers.class);
     private static final String QUALIFIER_ANNOTATION = "org.springframework.beans.factory.annotation.Qualifier";
     private static final String AUTOWIRED_ANNOTATION = "org.springframework.beans.factory.annotation.Autowired";
-    private static final String PRIMARY_ANNOTATION = "org.springframework.context.annotation.Primary";
-    private final Map<String,PsiClass>qualifierToClass=new HashMap<>();
 
-
-    private static final Set<String> ANNOTATION_SET = new HashSet<>();
     private final Set<String> qualifierNames = new HashSet<>();
 
-    static {
-        ANNOTATION_SET.add("org.springframework.stereotype.Service");
-        ANNOTATION_SET.add("org.springframework.stereotype.Component");
-        ANNOTATION_SET.add("org.springframework.stereotype.Repository");
-        ANNOTATION_SET.add("org.springframework.stereotype.Controller");
-    }
-
-    private void showErrorNotification(String message, Project project) {
-        Notification notification = new Notification(
-                "annotationCheckerGroup",
-                "Multiple Bean detector",
-                message,
-                NotificationType.ERROR
-        );
-        Notifications.Bus.notify(notification, project);
-        throw new RuntimeException("Error notification shown: " + message);
+    private void reportFinding(String message, PsiElement element, Project project) {
+        BeanFindingsService.getInstance(project).addFinding(BeanFinding.of("Multiple Bean detector", element, message));
     }
 
 
@@ -173,10 +149,10 @@ public class MultipleBeansAndDuplicateQualifiers {
      */
     private void checkFieldForQualifierNeed(PsiField field, Project project,PsiClass psiClass) {
         PsiType fieldType = field.getType();
-        if (isCollectionType(fieldType)) {
+        if (isSingleBeanInjection(field)) {
             PsiClass fieldClass = ((PsiClassType) fieldType).resolve();
             if (fieldClass != null && (fieldClass.isInterface() || fieldClass.hasModifierProperty(PsiModifier.ABSTRACT))) {
-                checkChildClassesForQualifierNeed(fieldClass, project, field, null,psiClass);
+                checkChildClassesForQualifierNeed((PsiClassType) fieldType, fieldClass, project, field, null,psiClass);
             }
         }
     }
@@ -189,17 +165,20 @@ public class MultipleBeansAndDuplicateQualifiers {
      */
     private void checkParameterForQualifierNeed(PsiParameter parameter, Project project,PsiClass psiClass) {
         PsiType parameterType = parameter.getType();
-        if (isCollectionType(parameterType)) {
+        if (isSingleBeanInjection(parameter)) {
             PsiClass parameterClass = ((PsiClassType) parameterType).resolve();
             if (parameterClass != null && (parameterClass.isInterface() || parameterClass.hasModifierProperty(PsiModifier.ABSTRACT))) {
-                checkChildClassesForQualifierNeed(parameterClass, project, null, parameter,psiClass);
+                checkChildClassesForQualifierNeed((PsiClassType) parameterType, parameterClass, project, null, parameter,psiClass);
             }
         }
     }
 
     /**
-     * Checks child classes for the need for a qualifier annotation.
+     * Checks child classes for the need for a qualifier annotation. The candidate beans and the @Primary
+     * ones among them come from the {@link InjectionCandidateResolver}, which resolves every type once
+     * for all injection points and checkers. Type arguments of the injected type narrow the candidates.
      *
+     * @param parentType    the injected type
      * @param parentClass   the parent class
      * @param project       the current project
      * @param field         the field to inspect (optional)
@@ -207,17 +186,18 @@ public class MultipleBeansAndDuplicateQualifiers {
      * @param psiClass      the psiClass to inspect
      */
 
-    private void checkChildClassesForQualifierNeed(@NotNull PsiClass parentClass, @NotNull Project project, PsiField field, PsiParameter parameter, PsiClass psiClass) {
-        List<PsiClass> allChildClasses = findAllChildClasses(parentClass, project);
+    private void checkChildClassesForQualifierNeed(@NotNull PsiClassType parentType, @NotNull PsiClass parentClass, @NotNull Project project, PsiField field, PsiParameter parameter, PsiClass psiClass) {
+        GlobalSearchScope scope = BeanSearchScopes.getInstance(project).getInjectionScope(psiClass);
+        InjectionCandidateResolver.Resolution resolution =
+                InjectionCandidateResolver.getInstance(project).resolve(parentType, null, scope);
 
-        if(allChildClasses.size()==1)
-        {
+        if (!resolution.candidates().isEmpty()) {
             if (field != null) {
                 PsiModifierList fieldModifiers = field.getModifierList();
                 if (fieldModifiers != null) {
                     PsiAnnotation qualifierAnnotation = findQualifierAnnotation(fieldModifiers);
                     if (qualifierAnnotation != null) {
-                        handleQualifierAnnotation(qualifierAnnotation, "Field " + field.getName() + " defined in class: "+psiClass.getName(), allChildClasses, project);
+                        handleQualifierAnnotation(qualifierAnnotation, "Field " + field.getName() + " defined in class: "+psiClass.getName(), resolution.candidates(), psiClass, project);
                         return;
                     }
                 }
@@ -227,67 +207,47 @@ public class MultipleBeansAndDuplicateQualifiers {
                 if (parameterModifiers != null) {
                     PsiAnnotation qualifierAnnotation = findQualifierAnnotation(parameterModifiers);
                     if (qualifierAnnotation != null) {
-                        handleQualifierAnnotation(qualifierAnnotation, "Parameter " + parameter.getName() + " defined in class: "+psiClass.getName(), allChildClasses, project);
+                        handleQualifierAnnotation(qualifierAnnotation, "Parameter " + parameter.getName() + " defined in class: "+psiClass.getName(), resolution.candidates(), psiClass, project);
                         return;
                     }
                 }
             }
         }
 
-        if (allChildClasses.size()>1) {
-            List<PsiClass> serviceAnnotatedClasses = findServiceAnnotatedClasses(allChildClasses);
+        List<PsiMember> candidates = resolution.getCandidates(psiClass);
+        if (candidates.size() > 1) {
+            List<PsiMember> primaryCandidates = resolution.getPrimaries(psiClass);
+            if (primaryCandidates.size() > 1) {
+                logMultiplePrimaryAnnotations(primaryCandidates, project,field,parameter,psiClass);
+            } else if (primaryCandidates.isEmpty()) {
+                if(field!=null)
+                {
+                    String message = "Field: "+field.getName()+" has multiple beans found but neither @Qualifier nor @Primary annotation is present in :"+ psiClass+ " " +
+                            " Please use either @Qualifier or @Primary in the following child classes: "+ getClassNames(candidates);
+                    logger.warn(message);
+                    reportFinding(message, psiClass, project);
 
-            if (field != null) {
-                PsiModifierList fieldModifiers = field.getModifierList();
-                if (fieldModifiers != null) {
-                    PsiAnnotation qualifierAnnotation = findQualifierAnnotation(fieldModifiers);
-                    if (qualifierAnnotation != null) {
-                        handleQualifierAnnotation(qualifierAnnotation, "Field " + field.getName() + " defined in class: "+psiClass.getName(), allChildClasses, project);
-                        return;
-                    }
-                }
-            }
-            if (parameter != null) {
-                PsiModifierList parameterModifiers = parameter.getModifierList();
-                if (parameterModifiers != null) {
-                    PsiAnnotation qualifierAnnotation = findQualifierAnnotation(parameterModifiers);
-                    if (qualifierAnnotation != null) {
-                        handleQualifierAnnotation(qualifierAnnotation, "Parameter " + parameter.getName() + " defined in class: "+psiClass.getName(), allChildClasses, project);
-                        return;
-                    }
                 }
-            }
-            serviceAnnotatedClasses.remove(psiClass);
-            if (serviceAnnotatedClasses.size() > 1) {
-                List<PsiClass> primaryAnnotatedClasses = findPrimaryAnnotatedClasses(serviceAnnotatedClasses);
-                if (primaryAnnotatedClasses.size() > 1) {
-                    logMultiplePrimaryAnnotations(primaryAnnotatedClasses, project,field,parameter,psiClass);
-                } else if (primaryAnnotatedClasses.isEmpty()) {
-                    if(field!=null)
-                    {
-                        String message = "Field: "+field.getName()+" has multiple beans found but neither @Qualifier nor @Primary annotation is present in :"+ psiClass+ " " +
-                                " Please use either @Qualifier or @Primary in the following child classes: "+ getClassNames(allChildClasses);
-                        logger.warn(message);
-                        showErrorNotification(message, project);
-
-                    }
-                    if(parameter!=null)
-                    {
-                        String message = "Parameter: "+parameter.getName()+" has multiple beans found but neither @Qualifier nor @Primary annotation is present in :"+ psiClass+ " " +
-                                " Please use either @Qualifier or @Primary in the following child classes: "+ getClassNames(allChildClasses);
-                        logger.warn(message);
-                        showErrorNotification(message, project);
+                if(parameter!=null)
+                {
+                    String message = "Parameter: "+parameter.getName()+" has multiple beans found but neither @Qualifier nor @Primary annotation is present in :"+ psiClass+ " " +
+                            " Please use either @Qualifier or @Primary in the following child classes: "+ getClassNames(candidates);
+                    logger.warn(message);
+                    reportFinding(message, psiClass, project);
 
-                    }
                 }
             }
-            else if(serviceAnnotatedClasses.isEmpty()){
+        }
+        else if (candidates.isEmpty()) {
+            // Only search the plain child classes when no bean implements the type
+            List<PsiClass> allChildClasses = findAllChildClasses(parentClass, psiClass, project);
+            if (allChildClasses.size() > 1) {
                 if(field!=null)
                 {
                     String message = "Field: "+field.getName()+" has multiple child class found but neither @Service nor @Primary annotation is present in :"+ psiClass+ " " +
                             " Please use either @Service or @Primary in the following child classes: "+ getClassNames(allChildClasses);
                     logger.warn(message);
-                    showErrorNotification(message, project);
+                    reportFinding(message, psiClass, project);
 
                 }
                 if(parameter!=null)
@@ -295,7 +255,7 @@ public class MultipleBeansAndDuplicateQualifiers {
                     String message = "Parameter: "+parameter.getName()+" has multiple child class found but neither @Service nor @Primary annotation is present in"+ psiClass+ " " +
                             " Please use either @Service or @Primary in the following child classes: "+ getClassNames(allChildClasses);
                     logger.warn(message);
-                    showErrorNotification(message, project);
+                    reportFinding(message, psiClass, project);
 
                 }
             }
@@ -306,28 +266,43 @@ public class MultipleBeansAndDuplicateQualifiers {
     /**
      * Returns a space-separated string of the fully qualified names of the given classes.
      *
-     * @param classes the list of classes to process
+     * @param classes the list of classes and factory methods to process
      * @return a space-separated string of the fully qualified names of the classes
      */
-    private String getClassNames(List<PsiClass> classes) {
+    private String getClassNames(List<? extends PsiMember> classes) {
         StringBuilder classNames = new StringBuilder();
-        for (PsiClass psiClass : classes) {
-            classNames.append(psiClass.getQualifiedName()).append(" ");
+        for (PsiMember member : classes) {
+            classNames.append(getBeanName(member)).append(" ");
         }
         return classNames.toString().trim();
     }
 
     /**
-     * Finds all child classes of a given parent class.
+     * Gets the name of a bean class, or of the configuration class and method of a factory bean.
      *
-     * @param parentClass the parent class
-     * @param project     the current project
+     * @param member the bean class or factory method
+     * @return the bean name
+     */
+    private static String getBeanName(PsiMember member) {
+        if (member instanceof PsiClass psiClass) {
+            return psiClass.getQualifiedName();
+        }
+        PsiClass containingClass = member.getContainingClass();
+        return (containingClass != null ? containingClass.getQualifiedName() : null) + "#" + member.getName();
+    }
+
+    /**
+     * Finds all child classes of a given parent class visible from the injecting class.
+     *
+     * @param parentClass    the parent class
+     * @param injectingClass the class declaring the injection point, used to pick the module scope
+     * @param project        the current project
      * @return a list of all child classes
      */
 
-    private List<PsiClass> findAllChildClasses(@NotNull PsiClass parentClass, @NotNull Project project) {
+    private List<PsiClass> findAllChildClasses(@NotNull PsiClass parentClass, PsiClass injectingClass, @NotNull Project project) {
         Set<PsiClass> allChildClassesSet = new HashSet<>();
-        GlobalSearchScope projectScope = GlobalSearchScope.allScope(project);
+        GlobalSearchScope projectScope = BeanSearchScopes.getInstance(project).getInjectionScope(injectingClass);
         findAllChildClassesRecursive(parentClass, projectScope, allChildClassesSet);
         return new ArrayList<>(allChildClassesSet);
     }
@@ -347,39 +322,6 @@ public class MultipleBeansAndDuplicateQualifiers {
         }
     }
 
-    /**
-     * Finds all service-annotated classes from a list of classes.
-     *
-     * @param allChildClasses the list of classes
-     * @return a list of service-annotated classes
-     */
-    private List<PsiClass> findServiceAnnotatedClasses(List<PsiClass> allChildClasses) {
-        List<PsiClass> serviceAnnotatedClasses = new ArrayList<>();
-        for (PsiClass childClass : allChildClasses) {
-            if (hasServiceAnnotation(childClass)) {
-                serviceAnnotatedClasses.add(childClass);
-            }
-        }
-        return serviceAnnotatedClasses;
-    }
-
-
-    /**
-     * Finds all primary-annotated classes from a list of service-annotated classes.
-     *
-     * @param serviceAnnotatedClasses the list of service-annotated classes
-     * @return a list of primary-annotated classes
-     */
-    private List<PsiClass> findPrimaryAnnotatedClasses(List<PsiClass> serviceAnnotatedClasses) {
-        List<PsiClass> primaryAnnotatedClasses = new ArrayList<>();
-        for (PsiClass serviceClass : serviceAnnotatedClasses) {
-            if (hasPrimaryAnnotation(serviceClass)) {
-                primaryAnnotatedClasses.add(serviceClass);
-            }
-        }
-        return primaryAnnotatedClasses;
-    }
-
     /**
      * Logs a warning message for multiple primary-annotated classes.
      *
@@ -389,39 +331,24 @@ public class MultipleBeansAndDuplicateQualifiers {
      * @param parameter a parameter in class
      * @param psiClass current class
      */
-    private void logMultiplePrimaryAnnotations(List<PsiClass> primaryAnnotatedClasses,Project project,PsiField field, PsiParameter parameter,PsiClass psiClass) {
-        StringBuilder classNames = new StringBuilder();
-        for (PsiClass primaryClass : primaryAnnotatedClasses) {
-            classNames.append(primaryClass.getQualifiedName()).append(" ");
-        }
+    private void logMultiplePrimaryAnnotations(List<PsiMember> primaryAnnotatedClasses,Project project,PsiField field, PsiParameter parameter,PsiClass psiClass) {
+        String classNames = getClassNames(primaryAnnotatedClasses);
         if(field!=null)
         {
             String message="Current class: "+psiClass+" has field "+field.getName()+" which has"+ " Multiple child classes with @Primary annotation found: " + classNames;
-            showErrorNotification(message, project);
+            reportFinding(message, psiClass, project);
 
         }
         if(parameter!=null)
         {
             String message="Current class: "+psiClass+" has parameter "+parameter.getName()+" which has"+ " Multiple child classes with @Primary annotation found: " + classNames;
-            showErrorNotification(message, project);
+            reportFinding(message, psiClass, project);
 
         }
     }
 
 
 
-    /**
-     * Checks if a class has the @Primary annotation.
-     *
-     * @param psiClass the class to inspect
-     * @return true if the class has the @Primary annotation, false otherwise
-     */
-    private static boolean hasPrimaryAnnotation(PsiClass psiClass) {
-        PsiModifierList modifierList = psiClass.getModifierList();
-        return modifierList != null && modifierList.findAnnotation(PRIMARY_ANNOTATION) != null;
-    }
-
-
     /**
      * Finds the @Qualifier annotation in a modifier list.
      *
@@ -442,21 +369,23 @@ public class MultipleBeansAndDuplicateQualifiers {
      *
      * @param qualifierAnnotation the @Qualifier annotation
      * @param elementDescription  the description of the element
-     * @param allChildClasses     the list of all child classes
+     * @param candidates          the beans which can be injected for the type of the element
+     * @param psiClass            the class declaring the qualified element
      * @param project             the current project
      */
-    private void handleQualifierAnnotation(PsiAnnotation qualifierAnnotation, String elementDescription, List<PsiClass> allChildClasses, Project project) {
+    private void handleQualifierAnnotation(PsiAnnotation qualifierAnnotation, String elementDescription, List<PsiMember> candidates,
+                                           PsiClass psiClass, Project project) {
         String qualifierName = getQualifierName(qualifierAnnotation);
         if (qualifierName == null || qualifierName.trim().isEmpty()) {
             String errorMessage = elementDescription + " has a @Qualifier annotation but it is missing a name. Please provide a name for the @Qualifier annotation.";
             logger.warn(errorMessage);
-            showErrorNotification(errorMessage, project);
+            reportFinding(errorMessage, psiClass, project);
 
         }
-        else if (!isValidQualifierName(qualifierName, allChildClasses,project)) {
+        else if (!isValidQualifierName(qualifierName, candidates, psiClass, project)) {
             String errorMessage = elementDescription + " has a @Qualifier annotation with an invalid name.";
             logger.warn(errorMessage);
-            showErrorNotification(errorMessage, project);
+            reportFinding(errorMessage, psiClass, project);
         }
 //        else {
 //            checkAndLogClassWithQualifierName(qualifierName, project);
@@ -480,14 +409,14 @@ public class MultipleBeansAndDuplicateQualifiers {
 //
 //        if (psiClass != null && !psiClass.isInterface() && !psiClass.hasModifierProperty(PsiModifier.ABSTRACT)) {
 //            qualifierNames.add(psiClass.getQualifiedName());
-//            if (hasServiceAnnotation(psiClass)) {
+//            if (StereotypeClassifier.isStereotype(psiClass)) {
 //                String message=psiClass + " is annotated with @Service, @Component, or @Repository annotation.";
 //                logger.warn(message);
 //            }
 //            else {
 //                String message=psiClass + " is not annotated with @Service, @Component, or @Repository annotation.";
 //                logger.warn(message);
-//                showErrorNotification(message, project);
+//                reportFinding(message, project);
 //
 //            }
 //        }
@@ -545,15 +474,20 @@ public class MultipleBeansAndDuplicateQualifiers {
     }
 
     /**
-     * Checks if a qualifier name is valid.
+     * Checks if a qualifier name is valid, that is if it names one of the candidate beans, a factory bean
+     * or an XML bean. The name is looked up in the {@link QualifierRegistry} instead of inspecting every candidate.
      *
-     * @param qualifierName  the qualifier name
-     * @param allChildClasses the list of all child classes
+     * @param qualifierName   the qualifier name
+     * @param candidates    the beans which can be injected for the type of the element
+     * @param psiClass      the class declaring the qualified element
+     * @param project       the current project
      * @return true if the qualifier name is valid, false otherwise
      */
-    private boolean isValidQualifierName(String qualifierName, List<PsiClass> allChildClasses,Project project) {
-        for (PsiClass childClass : allChildClasses) {
-            if (qualifierName.equals(decapitalize(childClass.getName())) || hasMatchingClassQualifierAnnotation(qualifierName, childClass) || isQualifierNameInXml(qualifierName, project)) {
+    private boolean isValidQualifierName(String qualifierName, List<PsiMember> candidates, PsiClass psiClass, Project project) {
+        GlobalSearchScope scope = BeanSearchScopes.getInstance(project).getInjectionScope(psiClass);
+        for (QualifierRegistry.QualifiedBean bean : QualifierRegistry.getInstance(project).findBeans(qualifierName, scope)) {
+            if (bean.source() == QualifierRegistry.NameSource.XML || bean.source() == QualifierRegistry.NameSource.FACTORY_METHOD
+                    || candidates.contains(bean.declaration())) {
                 return true;
             }
         }
@@ -561,107 +495,46 @@ public class MultipleBeansAndDuplicateQualifiers {
     }
 
     /**
-     * Checks if a class has a matching @Qualifier annotation.
-     *
-     * @param qualifierName the qualifier name
-     * @param childClass    the class to inspect
-     * @return true if the class has a matching @Qualifier annotation, false otherwise
-     */
-    private boolean hasMatchingClassQualifierAnnotation(String qualifierName, PsiClass childClass) {
-        PsiModifierList classModifierList = childClass.getModifierList();
-        if (classModifierList != null) {
-            PsiAnnotation classQualifierAnnotation = classModifierList.findAnnotation(QUALIFIER_ANNOTATION);
-            if (classQualifierAnnotation != null) {
-                qualifierToClass.put(qualifierName, childClass);
-                String classQualifierName = getQualifierName(classQualifierAnnotation);
-                return qualifierName.equals(classQualifierName);
-            }
-        }
-        return false; // No @Qualifier annotation found
-    }
-
-    private boolean isQualifierNameInXml(String qualifierName, Project project) {
-        GlobalSearchScope scope = GlobalSearchScope.projectScope(project);
-        Collection<VirtualFile> xmlFiles = FilenameIndex.getAllFilesByExt(project, "xml", scope);
-
-        for (VirtualFile xmlFile : xmlFiles) {
-            PsiFile psiFile = PsiManager.getInstance(project).findFile(xmlFile);
-            if (psiFile instanceof XmlFile xmlPsiFile) {
-                XmlTag rootTag = xmlPsiFile.getRootTag();
-                if (rootTag != null) {
-                    for (XmlTag beanTag : rootTag.findSubTags("bean")) {
-                            String id = beanTag.getAttributeValue("id");
-                            if (qualifierName.equals(id)) {
-                                return true;
-                            }
-                    }
-                }
-            }
-        }
-        return false;
-    }
-
-
-    /**
-     * Decapitalizes the first letter of a string.
+     * Reports the names given to more than one bean of the production sources and of the analyzed XML contexts
+     * as findings, logging them together. Test beans are left out, as they are not loaded with the application.
      *
-     * @param name the string to decapitalize
-     * @return the decapitalized string
+     * @param project   the current project
+     * @param xmlModels the models of the analyzed Spring XML contexts
+     * @return true if duplicated names were found, false otherwise
      */
-    private static String decapitalize(String name) {
-        if (name == null || name.isEmpty()) {
-            return name;
+    public static boolean reportDuplicateQualifiers(@NotNull Project project, @NotNull Collection<SpringXmlBeanModel> xmlModels) {
+        Map<String, List<QualifierRegistry.QualifiedBean>> duplicates = QualifierRegistry.getInstance(project)
+                .findDuplicates(GlobalSearchScopesCore.projectProductionScope(project), xmlModels);
+        if (duplicates.isEmpty()) {
+            return false;
         }
-        if (name.length() > 1 && Character.isUpperCase(name.charAt(1))) {
-            return name;
-        }
-        char[] chars = name.toCharArray();
-        chars[0] = Character.toLowerCase(chars[0]);
-        return new String(chars);
-    }
-
-    /**
-     * Checks if a type is a collection type.
-     *
-     * @param type the type to inspect
-     * @return true if the type is a collection type, false otherwise
-     */
-    private static boolean isCollectionType(PsiType type) {
-        if (type instanceof PsiClassType) {
-            PsiClass resolvedClass = ((PsiClassType) type).resolve();
-            if (resolvedClass != null) {
-                String className = resolvedClass.getQualifiedName();
-                return !"java.util.List".equals(className) && !"java.util.Set".equals(className);
+        BeanFindingsService findings = BeanFindingsService.getInstance(project);
+        StringBuilder message = new StringBuilder();
+        for (Map.Entry<String, List<QualifierRegistry.QualifiedBean>> duplicate : duplicates.entrySet()) {
+            String description = "Name '" + duplicate.getKey() + "' is given to " + duplicate.getValue().size() + " beans";
+            message.append(description).append(":");
+            for (QualifierRegistry.QualifiedBean bean : duplicate.getValue()) {
+                message.append("\n  ").append(bean.beanName()).append(" (").append(bean.source()).append(")");
+                findings.addFinding(bean.declaration() != null
+                        ? BeanFinding.of("Duplicate qualifiers", bean.declaration(), description + " (" + bean.source() + ")")
+                        : new BeanFinding("Duplicate qualifiers", null, bean.beanName(), description + " (" + bean.source() + ")"));
             }
+            message.append("\n");
         }
+        logger.warn(message.toString());
         return true;
     }
 
     /**
-     * Checks if a class has a service annotation.
-     *
-     * @param psiClass the class to inspect
-     * @return true if the class has a service annotation, false otherwise
-     */
-    private static boolean hasServiceAnnotation(PsiClass psiClass) {
-        PsiModifierList modifierList = psiClass.getModifierList();
-        if (modifierList != null) {
-            for (String annotation : ANNOTATION_SET) {
-                if (modifierList.findAnnotation(annotation) != null) {
-                    return true;
-                }
-            }
-        }
-        return false;
-    }
-
-    /**
-     * Retrieves the map that associates qualifier names with their corresponding PsiClass instances.
+     * Checks if a single bean is injected into a variable. Collections, arrays and maps by bean name receive
+     * every candidate, so they never need a qualifier; the graph models them as fan-out dependencies.
      *
-     * @return a map where the keys are qualifier names (as strings) and the values are PsiClass instances
+     * @param variable the field or parameter to inspect
+     * @return true if the variable has a class type receiving one bean, false otherwise
      */
-    public Map<String, PsiClass> getQualifierMap() {
-        return qualifierToClass;
+    private static boolean isSingleBeanInjection(PsiVariable variable) {
+        return variable.getType() instanceof PsiClassType
+                && !InjectionPoint.of(variable, BeanGraph.DependencyKind.PROPERTY).multiple();
     }
 
 }
\ No newline at end of file
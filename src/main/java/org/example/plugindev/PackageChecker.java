@@ -1,8 +1,5 @@
 package org.example.plugindev;
 
-import com.intellij.notification.Notification;
-import com.intellij.notification.NotificationType;
-import com.intellij.notification.Notifications;
 
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.project.Project;
@@ -41,20 +38,12 @@ public class PackageChecker {
     }
 
 
-    private static void showErrorNotification(String message) {
+    private static void reportFinding(String message) {
         if (project == null) {
-            logger.error("Project must be initialized before showing notifications");
+            logger.error("Project must be initialized before reporting findings");
             return;
         }
-        Notification notification = new Notification(
-                "annotationCheckerGroup",
-                "Package not found",
-                message,
-                NotificationType.ERROR
-        );
-        Notifications.Bus.notify(notification, project);
-//        logger.info("Error notification shown: " + message);
-        throw new RuntimeException("Error notification shown: " + message);
+        BeanFindingsService.getInstance(project).addFinding(new BeanFinding("Package not found", null, null, message));
     }
 
     /**
@@ -76,7 +65,7 @@ public class PackageChecker {
                 logger.warn(message);
 
                 // Show notifications
-                showErrorNotification(message);
+                reportFinding(message);
             }
         }
     }
@@ -1,9 +1,6 @@
 package org.example.plugindev;
 import com.intellij.psi.*;
 import com.intellij.openapi.project.Project;
-import com.intellij.notification.Notification;
-import com.intellij.notification.NotificationType;
-import com.intellij.notification.Notifications;
 import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
@@ -25,15 +22,8 @@ public class PayloadChecker {
         SUPPORTED_ANNOTATIONS.add("org.springframework.web.bind.annotation.ModelAttribute");
     }
 
-    private void showErrorNotification(String message, Project project) {
-        Notification notification = new Notification(
-                "annotationCheckerGroup",
-                "Payload checker",
-                message,
-                NotificationType.ERROR
-        );
-        Notifications.Bus.notify(notification, project);
-        throw new RuntimeException("Error notification shown: " + message);
+    private void reportFinding(String message, PsiElement element, Project project) {
+        BeanFindingsService.getInstance(project).addFinding(BeanFinding.of("Payload checker", element, message));
     }
 
     /**
@@ -55,7 +45,7 @@ public class PayloadChecker {
                                     Objects.requireNonNull(psiMethod.getContainingClass()).getQualifiedName() +
                                     " has no supported annotations";
                             System.out.println(errorMessage);
-                            showErrorNotification(errorMessage, project);
+                            reportFinding(errorMessage, psiClass, project);
                         }
                     }
                 }
@@ -0,0 +1,202 @@
+package org.example.plugindev;
+
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.*;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of every name a bean can be injected by: class level @Qualifier values, explicit stereotype names
+ * such as {@code @Service("name")}, the default names of stereotype classes, @Bean names and qualifiers,
+ * and the ids, names and aliases of XML beans. For every scope the registry is built in one pass over the
+ * indexes, so resolving an injection point qualifier is a hash lookup and duplicated names are found by
+ * looking at each name once. Library beans are taken from the {@link LibraryBeanSummaries}.
+ * Results are cached until the next PSI modification.
+ * All methods must be called inside a read action.
+ */
+@Service(Service.Level.PROJECT)
+public final class QualifierRegistry {
+
+    private final Project project;
+    private final CachedValue<Map<GlobalSearchScope, Map<String, List<QualifiedBean>>>> cache;
+
+    /**
+     * Where a name was given to a bean.
+     */
+    public enum NameSource {
+        QUALIFIER, STEREOTYPE_NAME, DEFAULT_NAME, FACTORY_METHOD, XML
+    }
+
+    /**
+     * A bean reachable through a name.
+     *
+     * @param name        the qualifier or bean name
+     * @param beanName    the name identifying the bean in a {@link BeanGraph}
+     * @param declaration the class or factory method declaring the bean, null for XML beans
+     * @param source      where the name was given
+     */
+    public record QualifiedBean(String name, String beanName, @Nullable PsiMember declaration, NameSource source) {
+    }
+
+    public QualifierRegistry(@NotNull Project project) {
+        this.project = project;
+        this.cache = CachedValuesManager.getManager(project).createCachedValue(
+                () -> CachedValueProvider.Result.create(new ConcurrentHashMap<>(), PsiModificationTracker.getInstance(project)),
+                false);
+    }
+
+    /**
+     * Gets the registry service of the given project.
+     *
+     * @param project the current project
+     * @return the registry service
+     */
+    public static QualifierRegistry getInstance(@NotNull Project project) {
+        return project.getService(QualifierRegistry.class);
+    }
+
+    /**
+     * Finds the beans reachable through the given name in the given scope.
+     *
+     * @param name  the qualifier or bean name
+     * @param scope the scope to search
+     * @return the beans having this name, empty if none
+     */
+    public List<QualifiedBean> findBeans(@NotNull String name, @NotNull GlobalSearchScope scope) {
+        return getNames(scope).getOrDefault(name, Collections.emptyList());
+    }
+
+    /**
+     * Finds the names given to more than one bean of the given scope and XML contexts. A class level @Qualifier
+     * value shared by several beans is legal, for example to inject them together as a list, so a name only
+     * given by such qualifiers is not a duplicate; it is one when it is also the name of another bean.
+     *
+     * @param scope     the scope to search
+     * @param xmlModels the models of the XML contexts loaded together with the beans of the scope
+     * @return the beans of every duplicated name, by name
+     */
+    public Map<String, List<QualifiedBean>> findDuplicates(@NotNull GlobalSearchScope scope,
+                                                          @NotNull Collection<SpringXmlBeanModel> xmlModels) {
+        Map<String, List<QualifiedBean>> names = collectNames(scope);
+        registerXmlBeans(names, xmlModels);
+        Map<String, List<QualifiedBean>> duplicates = new TreeMap<>();
+        for (Map.Entry<String, List<QualifiedBean>> name : names.entrySet()) {
+            if (name.getValue().size() > 1
+                    && !name.getValue().stream().allMatch(bean -> bean.source() == NameSource.QUALIFIER)) {
+                duplicates.put(name.getKey(), name.getValue());
+            }
+        }
+        return duplicates;
+    }
+
+    private Map<String, List<QualifiedBean>> getNames(GlobalSearchScope scope) {
+        return cache.getValue().computeIfAbsent(scope, s -> {
+            Map<String, List<QualifiedBean>> names = collectNames(s);
+            registerXmlBeans(names, SpringXmlModelCache.getInstance(project).getModels(s));
+            return names;
+        });
+    }
+
+    /**
+     * Collects the names of the beans declared in code: classes in the sources and libraries, and factory methods.
+     */
+    private Map<String, List<QualifiedBean>> collectNames(GlobalSearchScope scope) {
+        Map<String, List<QualifiedBean>> names = new HashMap<>();
+        BeanAnnotationIndex annotationIndex = BeanAnnotationIndex.getInstance(project);
+        LibraryBeanSummaries librarySummaries = LibraryBeanSummaries.getInstance(project);
+        GlobalSearchScope sourceScope = librarySummaries.getSourceScope(scope);
+        for (Map.Entry<String, Set<PsiClass>> qualifier : annotationIndex.getClassQualifiers(sourceScope).entrySet()) {
+            for (PsiClass psiClass : qualifier.getValue()) {
+                register(names, qualifier.getKey(), psiClass.getQualifiedName(), psiClass, NameSource.QUALIFIER);
+            }
+        }
+        for (LibraryBeanSummaries.LibraryBean bean : librarySummaries.getBeans(scope)) {
+            PsiClass psiClass = librarySummaries.findClass(bean, scope);
+            if (psiClass == null) {
+                continue;
+            }
+            for (String qualifier : bean.qualifiers()) {
+                register(names, qualifier, bean.className(), psiClass, NameSource.QUALIFIER);
+            }
+            register(names, bean.beanName(), bean.className(), psiClass,
+                    bean.explicitName() ? NameSource.STEREOTYPE_NAME : NameSource.DEFAULT_NAME);
+        }
+        for (PsiClass psiClass : annotationIndex.getStereotypeClasses(sourceScope)) {
+            String stereotypeName = getStereotypeName(psiClass);
+            if (stereotypeName != null) {
+                register(names, stereotypeName, psiClass.getQualifiedName(), psiClass, NameSource.STEREOTYPE_NAME);
+            } else {
+                register(names, InjectionCandidateResolver.getDefaultBeanName(psiClass), psiClass.getQualifiedName(),
+                        psiClass, NameSource.DEFAULT_NAME);
+            }
+        }
+        for (BeanFactoryMethodIndex.FactoryBean factoryBean : BeanFactoryMethodIndex.getInstance(project).getFactoryBeans(scope)) {
+            for (String qualifier : factoryBean.qualifiers()) {
+                register(names, qualifier, factoryBean.getGraphName(), factoryBean.method(), NameSource.FACTORY_METHOD);
+            }
+        }
+        return names;
+    }
+
+    private static void registerXmlBeans(Map<String, List<QualifiedBean>> names, Collection<SpringXmlBeanModel> xmlModels) {
+        for (SpringXmlBeanModel model : xmlModels) {
+            for (SpringXmlBeanModel.XmlBean bean : model.getBeans()) {
+                for (String name : bean.names()) {
+                    register(names, name, bean.getGraphName(), null, NameSource.XML);
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds a name to the registry unless the same bean already has it, for example through both
+     * a class level @Qualifier and its stereotype name.
+     */
+    private static void register(Map<String, List<QualifiedBean>> names, String name, String beanName,
+                                 PsiMember declaration, NameSource source) {
+        if (name == null || name.isEmpty() || beanName == null) {
+            return;
+        }
+        List<QualifiedBean> beans = names.computeIfAbsent(name, k -> new ArrayList<>(1));
+        for (QualifiedBean bean : beans) {
+            if (bean.beanName().equals(beanName)) {
+                return;
+            }
+        }
+        beans.add(new QualifiedBean(name, beanName, declaration, source));
+    }
+
+    /**
+     * Gets the name given in the value of the stereotype annotation of a class.
+     *
+     * @param psiClass the stereotype class
+     * @return the explicit bean name, or null if the class is named by default
+     */
+    @Nullable String getStereotypeName(@NotNull PsiClass psiClass) {
+        PsiModifierList modifierList = psiClass.getModifierList();
+        if (modifierList == null) {
+            return null;
+        }
+        StereotypeClassifier classifier = StereotypeClassifier.getInstance(project);
+        for (PsiAnnotation annotation : modifierList.getAnnotations()) {
+            String annotationName = annotation.getQualifiedName();
+            if (annotationName != null && classifier.isStereotypeAnnotation(annotationName)) {
+                PsiAnnotationMemberValue value = annotation.findDeclaredAttributeValue("value");
+                String name = value != null ? value.getText().replaceAll("\"", "").trim() : null;
+                if (name != null && !name.isEmpty()) {
+                    return name;
+                }
+            }
+        }
+        return null;
+    }
+}
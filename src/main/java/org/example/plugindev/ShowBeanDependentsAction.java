@@ -0,0 +1,180 @@
+package org.example.plugindev;
+
+import com.intellij.notification.Notification;
+import com.intellij.notification.NotificationType;
+import com.intellij.notification.Notifications;
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.CommonDataKeys;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.popup.JBPopupFactory;
+import com.intellij.psi.*;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.PsiTreeUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shows the beans which transitively depend on the bean under the caret, nearest first, in a popup
+ * navigating to the chosen bean. The {@link Dependencies} variant shows what the bean transitively depends on.
+ * Both walk the {@link BeanImpactIndex} of the last full analysis, so they answer without searching the code.
+ */
+public class ShowBeanDependentsAction extends AnAction {
+
+    private final boolean dependents;
+    private final String notificationTitle;
+
+    public ShowBeanDependentsAction() {
+        this(true, "Bean dependents");
+    }
+
+    protected ShowBeanDependentsAction(boolean dependents, String notificationTitle) {
+        this.dependents = dependents;
+        this.notificationTitle = notificationTitle;
+    }
+
+    /**
+     * Shows the transitive dependencies of the bean under the caret.
+     */
+    public static final class Dependencies extends ShowBeanDependentsAction {
+        public Dependencies() {
+            super(false, "Bean dependencies");
+        }
+    }
+
+    @Override
+    public @NotNull ActionUpdateThread getActionUpdateThread() {
+        return ActionUpdateThread.BGT;
+    }
+
+    /**
+     * Enables the action on classes and factory methods.
+     *
+     * @param e the event representing the action
+     */
+    @Override
+    public void update(@NotNull AnActionEvent e) {
+        e.getPresentation().setEnabledAndVisible(e.getProject() != null && getBeanName(e) != null);
+    }
+
+    /**
+     * Shows the dependents or the dependencies of the bean under the caret.
+     *
+     * @param e the event representing the action
+     */
+    @Override
+    public void actionPerformed(@NotNull AnActionEvent e) {
+        Project project = e.getProject();
+        String beanName = getBeanName(e);
+        if (project == null || beanName == null) {
+            return;
+        }
+        BeanImpactIndex impactIndex = BeanCycleService.getInstance(project).getImpactIndex();
+        if (impactIndex == null) {
+            showNotification("Run Validate Beans first to build the bean graph", project);
+            return;
+        }
+        BeanGraph graph = impactIndex.getGraph();
+        int bean = graph.indexOf(beanName);
+        if (bean < 0) {
+            showNotification(beanName + " is not a bean of the last analysis", project);
+            return;
+        }
+
+        long startTime = System.nanoTime();
+        List<String> beanNames = new ArrayList<>();
+        if (dependents) {
+            impactIndex.collectDependents(bean, reached -> beanNames.add(graph.getBeanName(reached)));
+        } else {
+            impactIndex.collectDependencies(bean, reached -> beanNames.add(graph.getBeanName(reached)));
+        }
+        long elapsedTime = (System.nanoTime() - startTime) / 1_000_000;
+        if (beanNames.isEmpty()) {
+            showNotification("No bean " + (dependents ? "depends on " : "is needed by ") + beanName, project);
+            return;
+        }
+
+        String title = beanNames.size() + (dependents ? " beans depending on " : " beans needed by ")
+                + getSimpleName(beanName) + " (" + elapsedTime + " ms)";
+        JBPopupFactory.getInstance()
+                .createPopupChooserBuilder(beanNames)
+                .setTitle(title)
+                .setNamerForFiltering(name -> name)
+                .setItemChosenCallback(name -> navigate(project, name))
+                .createPopup()
+                .showInBestPositionFor(e.getDataContext());
+    }
+
+    /**
+     * Gets the name of the bean under the caret, as used in the bean graph.
+     *
+     * @param e the event representing the action
+     * @return the class name, or the class and method names of a factory method, or null
+     */
+    private @Nullable String getBeanName(AnActionEvent e) {
+        PsiElement element = e.getData(CommonDataKeys.PSI_ELEMENT);
+        if (element == null) {
+            Editor editor = e.getData(CommonDataKeys.EDITOR);
+            PsiFile file = e.getData(CommonDataKeys.PSI_FILE);
+            if (editor != null && file != null) {
+                element = file.findElementAt(editor.getCaretModel().getOffset());
+            }
+        }
+        PsiMember member = element instanceof PsiMember psiMember
+                ? psiMember
+                : PsiTreeUtil.getParentOfType(element, PsiMethod.class, PsiClass.class);
+        if (member instanceof PsiMethod method && method.getContainingClass() != null) {
+            String className = method.getContainingClass().getQualifiedName();
+            return className != null ? className + "#" + method.getName() : null;
+        }
+        return member instanceof PsiClass psiClass ? psiClass.getQualifiedName() : null;
+    }
+
+    /**
+     * Navigates to the class or factory method declaring a bean.
+     *
+     * @param project  the current project
+     * @param beanName the bean name
+     */
+    static void navigate(Project project, String beanName) {
+        if (DumbService.isDumb(project)) {
+            return;
+        }
+        int separator = beanName.indexOf('#');
+        String className = separator < 0 ? beanName : beanName.substring(0, separator);
+        PsiClass psiClass = JavaPsiFacade.getInstance(project).findClass(className, GlobalSearchScope.allScope(project));
+        if (psiClass == null) {
+            return;
+        }
+        if (separator >= 0) {
+            PsiMethod[] methods = psiClass.findMethodsByName(beanName.substring(separator + 1), false);
+            if (methods.length > 0) {
+                methods[0].navigate(true);
+                return;
+            }
+        }
+        psiClass.navigate(true);
+    }
+
+    private String getSimpleName(String beanName) {
+        int separator = beanName.indexOf('#');
+        String className = separator < 0 ? beanName : beanName.substring(0, separator);
+        return beanName.substring(className.lastIndexOf('.') + 1);
+    }
+
+    private void showNotification(String message, Project project) {
+        Notification notification = new Notification(
+                "annotationCheckerGroup",
+                notificationTitle,
+                message,
+                NotificationType.INFORMATION
+        );
+        Notifications.Bus.notify(notification, project);
+    }
+}
@@ -0,0 +1,446 @@
+package org.example.plugindev;
+
+import com.intellij.openapi.application.PathManager;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.IntStream;
+
+/**
+ * Collects beans and dependencies into a {@link BeanGraph} stored in memory-mapped files, for projects whose
+ * graph would not fit in the heap budget. Bean names, the name lookup table, the collected dependencies and
+ * the final adjacency arrays all live in files under the spill directory, so the heap only holds the module
+ * names and a few integers per bean while the graph is built. The operating system pages the files in and
+ * out as the graph is walked. The files are deleted once the graph is unreachable, or at the latest when
+ * the IDE exits. The builder can be fed by several module tasks: bean names are interned under the lock of the
+ * builder, while dependencies are first buffered per thread, by name, and interned and spilled a batch at a time,
+ * so the tasks contend for the lock once per batch rather than once per dependency. As the interned indices
+ * depend on thread timing, the built graph numbers the beans in name order and lists the dependencies of a bean
+ * in index order, so the same beans always give the same graph and the same cycles.
+ */
+public class SpilledBeanGraphBuilder implements BeanGraph.Collector {
+
+    private static final int MAX_AREA_SIZE = Integer.MAX_VALUE - 8;
+    private static final int EDGE_SIZE = 9;
+    private static final int RECORD_SIZE = 12;
+    private static final int EDGE_BATCH_SIZE = 4096;
+
+    private final Path directory;
+    private final SpillArea names;
+    private SpillArea records;
+    private final SpillArea edges;
+    private SpillArea slots;
+    private final List<String> moduleNames = new ArrayList<>();
+    private final Map<String, Integer> moduleIndex = new HashMap<>();
+    private final Comparator<String> moduleOrder;
+    private int beanCount;
+    private int namesSize;
+    private int edgeCount;
+    private int slotCount = 1024;
+    private final Queue<EdgeBatch> batches = new ConcurrentLinkedQueue<>();
+    private final ThreadLocal<EdgeBatch> threadBatch = ThreadLocal.withInitial(() -> {
+        EdgeBatch batch = new EdgeBatch();
+        batches.add(batch);
+        return batch;
+    });
+
+    /**
+     * Dependencies added by one thread and not spilled yet.
+     */
+    private static final class EdgeBatch {
+        private final String[] beans = new String[EDGE_BATCH_SIZE];
+        private final String[] dependencies = new String[EDGE_BATCH_SIZE];
+        private final BeanGraph.DependencyKind[] kinds = new BeanGraph.DependencyKind[EDGE_BATCH_SIZE];
+        private int size;
+    }
+
+    /**
+     * A file-backed area which grows by remapping the file with a larger size.
+     */
+    private static final class SpillArea {
+        private final FileChannel channel;
+        private MappedByteBuffer buffer;
+
+        SpillArea(Path directory, String prefix, int size) throws IOException {
+            Path file = Files.createTempFile(directory, prefix, ".spill");
+            channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                    StandardOpenOption.DELETE_ON_CLOSE);
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+
+        ByteBuffer ensureCapacity(long size) throws IOException {
+            if (size > buffer.capacity()) {
+                if (size > MAX_AREA_SIZE) {
+                    throw new IOException("Bean graph spill file exceeds " + MAX_AREA_SIZE + " bytes");
+                }
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.min(MAX_AREA_SIZE, Math.max(size, 2L * buffer.capacity())));
+            }
+            return buffer;
+        }
+
+        /**
+         * Closes the file, which deletes it. The mapping stays valid until it is garbage collected.
+         */
+        ByteBuffer close() throws IOException {
+            channel.close();
+            return buffer;
+        }
+    }
+
+    /**
+     * The bean names of a spilled graph: UTF-8 names in one file, a record of name offset, hash and module
+     * per bean in another, and an open addressing table of bean indices by name hash.
+     */
+    private record MappedNameTable(ByteBuffer names, ByteBuffer records, ByteBuffer slots, int size, int slotCount,
+                                   List<String> moduleNames) implements BeanGraph.NameTable {
+
+        @Override
+        public String getBeanName(int bean) {
+            int offset = records.getInt(bean * RECORD_SIZE);
+            byte[] name = new byte[names.getInt(offset)];
+            names.get(offset + 4, name);
+            return new String(name, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public @Nullable String getModuleName(int bean) {
+            int module = records.getInt(bean * RECORD_SIZE + 8);
+            return module >= 0 ? moduleNames.get(module) : null;
+        }
+
+        @Override
+        public int indexOf(String beanName) {
+            return find(names, records, slots, slotCount, beanName.hashCode(), beanName.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Creates a builder spilling to the default directory, under the temporary directory of the IDE.
+     *
+     * @throws UncheckedIOException if the spill files cannot be created
+     */
+    public SpilledBeanGraphBuilder() {
+        this(getSpillDirectory(), List.of());
+    }
+
+    /**
+     * Creates a builder spilling to the default directory, which attributes a bean added by several modules
+     * to the first of them in the given order.
+     *
+     * @param moduleOrder the module names, in dependency order
+     * @throws UncheckedIOException if the spill files cannot be created
+     */
+    public SpilledBeanGraphBuilder(@NotNull List<String> moduleOrder) {
+        this(getSpillDirectory(), moduleOrder);
+    }
+
+    /**
+     * Creates a builder spilling to the given directory.
+     *
+     * @param directory the directory of the spill files, created if missing
+     * @throws UncheckedIOException if the spill files cannot be created
+     */
+    public SpilledBeanGraphBuilder(@NotNull Path directory) {
+        this(directory, List.of());
+    }
+
+    /**
+     * Creates a builder spilling to the given directory, which attributes a bean added by several modules
+     * to the first of them in the given order.
+     *
+     * @param directory   the directory of the spill files, created if missing
+     * @param moduleOrder the module names, in dependency order
+     * @throws UncheckedIOException if the spill files cannot be created
+     */
+    public SpilledBeanGraphBuilder(@NotNull Path directory, @NotNull List<String> moduleOrder) {
+        this.directory = directory;
+        this.moduleOrder = ConcurrentBeanGraphBuilder.getModuleOrder(moduleOrder);
+        try {
+            Files.createDirectories(directory);
+            names = new SpillArea(directory, "names", 64 * 1024);
+            records = new SpillArea(directory, "records", RECORD_SIZE * 1024);
+            edges = new SpillArea(directory, "edges", EDGE_SIZE * 4096);
+            slots = new SpillArea(directory, "slots", 4 * slotCount);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    public synchronized int addBean(@NotNull String beanName, @Nullable String moduleName) {
+        try {
+            int hash = beanName.hashCode();
+            byte[] name = beanName.getBytes(StandardCharsets.UTF_8);
+            int bean = find(names.buffer, records.buffer, slots.buffer, slotCount, hash, name);
+            if (bean < 0) {
+                bean = append(hash, name);
+            }
+            if (moduleName != null) {
+                ByteBuffer recordBuffer = records.buffer;
+                int module = recordBuffer.getInt(bean * RECORD_SIZE + 8);
+                if (module < 0 || moduleOrder.compare(moduleName, moduleNames.get(module)) < 0) {
+                    recordBuffer.putInt(bean * RECORD_SIZE + 8,
+                            moduleIndex.computeIfAbsent(moduleName, added -> {
+                                moduleNames.add(added);
+                                return moduleNames.size() - 1;
+                            }));
+                }
+            }
+            return bean;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    public void addDependency(@NotNull String beanName, @NotNull String dependencyName,
+                              @NotNull BeanGraph.DependencyKind kind) {
+        EdgeBatch batch = threadBatch.get();
+        batch.beans[batch.size] = beanName;
+        batch.dependencies[batch.size] = dependencyName;
+        batch.kinds[batch.size] = kind;
+        if (++batch.size == EDGE_BATCH_SIZE) {
+            spill(batch);
+        }
+    }
+
+    /**
+     * Interns the beans of a batch of dependencies and appends the dependencies to the edge file.
+     */
+    private synchronized void spill(EdgeBatch batch) {
+        try {
+            ByteBuffer edgeBuffer = edges.ensureCapacity((long) (edgeCount + batch.size) * EDGE_SIZE);
+            for (int i = 0; i < batch.size; i++) {
+                int bean = addBean(batch.beans[i], null);
+                int dependency = addBean(batch.dependencies[i], null);
+                int offset = edgeCount++ * EDGE_SIZE;
+                edgeBuffer.putInt(offset, bean);
+                edgeBuffer.putInt(offset + 4, dependency);
+                edgeBuffer.put(offset + 8, (byte) batch.kinds[i].ordinal());
+            }
+            Arrays.fill(batch.beans, 0, batch.size, null);
+            Arrays.fill(batch.dependencies, 0, batch.size, null);
+            batch.size = 0;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Renumbers the beans in name order, sorts the spilled dependencies by bean into mapped adjacency files
+     * and freezes the graph. Duplicated dependencies keep their strongest kind. Must only be called once,
+     * after every worker has finished adding beans and dependencies.
+     *
+     * @return the mapped graph
+     */
+    @Override
+    public synchronized BeanGraph build() {
+        for (EdgeBatch batch : batches) {
+            spill(batch);
+        }
+        try {
+            SpillArea offsetArea = new SpillArea(directory, "offsets", 4 * (beanCount + 1));
+            SpillArea targetArea = new SpillArea(directory, "targets", Math.max(4, 4 * edgeCount));
+            SpillArea kindArea = new SpillArea(directory, "kinds", Math.max(1, edgeCount));
+            IntBuffer offsets = offsetArea.buffer.asIntBuffer();
+            ByteBuffer targets = targetArea.buffer;
+            ByteBuffer kinds = kindArea.buffer;
+            ByteBuffer edgeBuffer = edges.close();
+            int[] newIndex = renumberByName();
+
+            // Counting sort of the spilled dependencies by bean, streaming over the edge file twice
+            int[] cursor = new int[beanCount + 1];
+            for (int i = 0; i < edgeCount; i++) {
+                cursor[newIndex[edgeBuffer.getInt(i * EDGE_SIZE)] + 1]++;
+            }
+            for (int bean = 0; bean < beanCount; bean++) {
+                cursor[bean + 1] += cursor[bean];
+            }
+            for (int i = 0; i < edgeCount; i++) {
+                int position = cursor[newIndex[edgeBuffer.getInt(i * EDGE_SIZE)]]++;
+                targets.putInt(4 * position, newIndex[edgeBuffer.getInt(i * EDGE_SIZE + 4)]);
+                kinds.put(position, edgeBuffer.get(i * EDGE_SIZE + 8));
+            }
+
+            // Sort the dependencies of each bean on the heap, one bean at a time, and write them back in place
+            // without duplicates, keeping their strongest kind
+            long[] beanEdges = new long[16];
+            int from = 0;
+            int size = 0;
+            for (int bean = 0; bean < beanCount; bean++) {
+                int to = cursor[bean];
+                int start = size;
+                offsets.put(bean, start);
+                if (beanEdges.length < to - from) {
+                    beanEdges = new long[Math.max(to - from, 2 * beanEdges.length)];
+                }
+                for (int i = from; i < to; i++) {
+                    beanEdges[i - from] = (long) targets.getInt(4 * i) << 8 | kinds.get(i);
+                }
+                Arrays.sort(beanEdges, 0, to - from);
+                for (int i = 0; i < to - from; i++) {
+                    int dependency = (int) (beanEdges[i] >>> 8);
+                    byte kind = (byte) beanEdges[i];
+                    if (size > start && targets.getInt(4 * (size - 1)) == dependency) {
+                        kinds.put(size - 1, (byte) Math.max(kinds.get(size - 1), kind));
+                    } else {
+                        targets.putInt(4 * size, dependency);
+                        kinds.put(size++, kind);
+                    }
+                }
+                from = to;
+            }
+            offsets.put(beanCount, size);
+
+            MappedNameTable nameTable = new MappedNameTable(names.close(), records.close(), slots.close(),
+                    beanCount, slotCount, List.copyOf(moduleNames));
+            offsetArea.close();
+            targetArea.close();
+            kindArea.close();
+            return BeanGraph.mapped(nameTable, offsets, targets.asIntBuffer(), kinds);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Renumbers the beans in the order of their names, compared as UTF-8 bytes. The records and the lookup
+     * table are rewritten in the new order, the names file stays as it is.
+     *
+     * @return the new index of every bean, by its interned index
+     */
+    private int[] renumberByName() throws IOException {
+        ByteBuffer nameBuffer = names.buffer;
+        ByteBuffer recordBuffer = records.buffer;
+        int[] order = IntStream.range(0, beanCount).boxed()
+                .sorted((bean, other) -> compareNames(nameBuffer,
+                        recordBuffer.getInt(bean * RECORD_SIZE), recordBuffer.getInt(other * RECORD_SIZE)))
+                .mapToInt(Integer::intValue)
+                .toArray();
+        SpillArea sortedRecords = new SpillArea(directory, "records", Math.max(RECORD_SIZE, beanCount * RECORD_SIZE));
+        SpillArea sortedSlots = new SpillArea(directory, "slots", 4 * slotCount);
+        int[] newIndex = new int[beanCount];
+        for (int bean = 0; bean < beanCount; bean++) {
+            int interned = order[bean];
+            newIndex[interned] = bean;
+            for (int field = 0; field < RECORD_SIZE; field += 4) {
+                sortedRecords.buffer.putInt(bean * RECORD_SIZE + field, recordBuffer.getInt(interned * RECORD_SIZE + field));
+            }
+            insert(sortedSlots.buffer, slotCount, recordBuffer.getInt(interned * RECORD_SIZE + 4), bean);
+        }
+        records.close();
+        slots.close();
+        records = sortedRecords;
+        slots = sortedSlots;
+        return newIndex;
+    }
+
+    /**
+     * Compares two stored names byte by byte, as unsigned bytes, then by length.
+     */
+    private static int compareNames(ByteBuffer names, int offset, int otherOffset) {
+        int length = names.getInt(offset);
+        int otherLength = names.getInt(otherOffset);
+        for (int i = 0; i < Math.min(length, otherLength); i++) {
+            int difference = Byte.toUnsignedInt(names.get(offset + 4 + i)) - Byte.toUnsignedInt(names.get(otherOffset + 4 + i));
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return length - otherLength;
+    }
+
+    /**
+     * Allocates a zeroed array of integers in a spill file of the default directory, for indexes
+     * derived from a mapped graph.
+     *
+     * @param prefix the prefix of the spill file name
+     * @param count  the number of integers
+     * @return the mapped integers
+     * @throws UncheckedIOException if the spill file cannot be created
+     */
+    static IntBuffer allocateInts(@NotNull String prefix, int count) {
+        try {
+            Files.createDirectories(getSpillDirectory());
+            SpillArea area = new SpillArea(getSpillDirectory(), prefix, Math.max(4, 4 * count));
+            return area.close().asIntBuffer();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static Path getSpillDirectory() {
+        return Path.of(PathManager.getTempPath(), "plugin-dev", "bean-graph");
+    }
+
+    /**
+     * Stores a new bean name and its record, growing the lookup table when it gets half full.
+     */
+    private int append(int hash, byte[] name) throws IOException {
+        int bean = beanCount++;
+        ByteBuffer nameBuffer = names.ensureCapacity((long) namesSize + 4 + name.length);
+        nameBuffer.putInt(namesSize, name.length);
+        nameBuffer.put(namesSize + 4, name);
+        ByteBuffer recordBuffer = records.ensureCapacity((long) beanCount * RECORD_SIZE);
+        recordBuffer.putInt(bean * RECORD_SIZE, namesSize);
+        recordBuffer.putInt(bean * RECORD_SIZE + 4, hash);
+        recordBuffer.putInt(bean * RECORD_SIZE + 8, -1);
+        namesSize += 4 + name.length;
+
+        if (2 * beanCount > slotCount) {
+            SpillArea oldSlots = slots;
+            slotCount *= 2;
+            slots = new SpillArea(directory, "slots", 4 * slotCount);
+            oldSlots.close();
+            for (int existing = 0; existing < bean; existing++) {
+                insert(slots.buffer, slotCount, recordBuffer.getInt(existing * RECORD_SIZE + 4), existing);
+            }
+        }
+        insert(slots.buffer, slotCount, hash, bean);
+        return bean;
+    }
+
+    /**
+     * Puts a bean into the first free slot of its probe sequence. Slots hold the bean index plus one.
+     */
+    private static void insert(ByteBuffer slots, int slotCount, int hash, int bean) {
+        int slot = hash & (slotCount - 1);
+        while (slots.getInt(4 * slot) != 0) {
+            slot = (slot + 1) & (slotCount - 1);
+        }
+        slots.putInt(4 * slot, bean + 1);
+    }
+
+    /**
+     * Looks a bean up by probing the slots of its hash and comparing the stored names byte by byte.
+     *
+     * @return the bean index, or -1 if the name was not added
+     */
+    private static int find(ByteBuffer names, ByteBuffer records, ByteBuffer slots, int slotCount, int hash, byte[] name) {
+        int slot = hash & (slotCount - 1);
+        int entry;
+        while ((entry = slots.getInt(4 * slot)) != 0) {
+            int bean = entry - 1;
+            if (records.getInt(bean * RECORD_SIZE + 4) == hash) {
+                int offset = records.getInt(bean * RECORD_SIZE);
+                if (names.getInt(offset) == name.length && MappedFileReader.matches(names, offset + 4, name)) {
+                    return bean;
+                }
+            }
+            slot = (slot + 1) & (slotCount - 1);
+        }
+        return -1;
+    }
+}
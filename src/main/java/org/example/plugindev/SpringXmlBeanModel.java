@@ -0,0 +1,279 @@
+package org.example.plugindev;
+
+import org.jetbrains.annotations.NotNull;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.util.*;
+
+/**
+ * Bean definitions declared in one Spring XML file.
+ * The model is built in a single streaming pass and only keeps what the checkers need:
+ * the component-scan packages, the beans with their names and classes, and the beans they reference
+ * through {@code <constructor-arg ref>}, {@code <property ref>}, {@code <ref bean>} and {@code depends-on}.
+ * The {@code <import resource>} locations are kept unresolved, {@link SpringXmlModelCache} follows them.
+ */
+public final class SpringXmlBeanModel {
+
+    /**
+     * The model of a file which declares nothing.
+     */
+    public static final SpringXmlBeanModel EMPTY = new SpringXmlBeanModel(Set.of(), List.of(), List.of());
+
+    private static final XMLInputFactory INPUT_FACTORY = XMLInputFactory.newFactory();
+
+    static {
+        INPUT_FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        INPUT_FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        INPUT_FACTORY.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+    }
+
+    private final Set<String> componentScanPackages;
+    private final List<XmlBean> beans;
+    private final List<String> imports;
+
+    /**
+     * A top level {@code <bean>} definition. References made by inner beans are attributed to it.
+     *
+     * @param id                    the bean id, or null for anonymous beans
+     * @param names                 the id, the names and the aliases of the bean
+     * @param className             the bean class, or null if the bean has no class attribute
+     * @param constructorReferences the beans referenced from constructor arguments
+     * @param propertyReferences    the beans referenced from properties and depends-on
+     */
+    public record XmlBean(String id, Set<String> names, String className,
+                          List<String> constructorReferences, List<String> propertyReferences) {
+
+        /**
+         * Gets the name identifying the bean in a {@link BeanGraph}: the class name, so XML and annotation
+         * definitions of the same class meet in one bean, or the id for beans without a class.
+         *
+         * @return the graph name, or null for anonymous beans without a class
+         */
+        public String getGraphName() {
+            return className != null ? className : id;
+        }
+    }
+
+    private SpringXmlBeanModel(Set<String> componentScanPackages, List<XmlBean> beans, List<String> imports) {
+        this.componentScanPackages = componentScanPackages;
+        this.beans = beans;
+        this.imports = imports;
+    }
+
+    /**
+     * Gets the packages declared in {@code <context:component-scan base-package>}.
+     *
+     * @return the scanned packages
+     */
+    public Set<String> getComponentScanPackages() {
+        return componentScanPackages;
+    }
+
+    /**
+     * Gets the top level bean definitions.
+     *
+     * @return the beans in declaration order
+     */
+    public List<XmlBean> getBeans() {
+        return beans;
+    }
+
+    /**
+     * Gets the resource locations of the {@code <import>} elements, as written in the file.
+     *
+     * @return the imported resource locations
+     */
+    public List<String> getImports() {
+        return imports;
+    }
+
+    /**
+     * Builds the graph of the beans declared in the given files.
+     * References are resolved by bean name across all files, so a bean may refer to a bean declared elsewhere.
+     * Beans with a class are named after it and merge with the annotation-driven definitions of the same class.
+     *
+     * @param models the models of the files
+     * @return the graph of the XML beans and their ref dependencies
+     */
+    public static BeanGraph buildGraph(@NotNull Collection<SpringXmlBeanModel> models) {
+        Map<String, String> graphNames = new HashMap<>();
+        for (SpringXmlBeanModel model : models) {
+            for (XmlBean bean : model.beans) {
+                if (bean.getGraphName() != null) {
+                    for (String name : bean.names()) {
+                        graphNames.putIfAbsent(name, bean.getGraphName());
+                    }
+                }
+            }
+        }
+        BeanGraph.Builder builder = BeanGraph.builder();
+        for (SpringXmlBeanModel model : models) {
+            for (XmlBean bean : model.beans) {
+                String beanName = bean.getGraphName();
+                if (beanName == null) {
+                    continue;
+                }
+                builder.addBean(beanName, null);
+                for (String reference : bean.constructorReferences()) {
+                    builder.addDependency(beanName, graphNames.getOrDefault(reference, reference), BeanGraph.DependencyKind.CONSTRUCTOR);
+                }
+                for (String reference : bean.propertyReferences()) {
+                    builder.addDependency(beanName, graphNames.getOrDefault(reference, reference), BeanGraph.DependencyKind.PROPERTY);
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Parses a Spring XML file in one streaming pass.
+     *
+     * @param input the content of the file
+     * @return the model of the file
+     * @throws XMLStreamException if the content is not well-formed XML
+     */
+    public static SpringXmlBeanModel parse(@NotNull InputStream input) throws XMLStreamException {
+        Set<String> componentScanPackages = new LinkedHashSet<>();
+        List<XmlBean> beans = new ArrayList<>();
+        Map<String, Set<String>> aliases = new HashMap<>();
+        List<String> imports = new ArrayList<>();
+
+        XMLStreamReader reader = INPUT_FACTORY.createXMLStreamReader(input);
+        try {
+            XmlBeanBuilder current = null;
+            int beanDepth = 0;
+            boolean inConstructorArg = false;
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    switch (reader.getLocalName()) {
+                        case "component-scan" -> addPackages(reader.getAttributeValue(null, "base-package"), componentScanPackages);
+                        case "import" -> {
+                            String resource = reader.getAttributeValue(null, "resource");
+                            if (resource != null && !resource.isBlank()) {
+                                imports.add(resource.trim());
+                            }
+                        }
+                        case "alias" -> {
+                            String name = reader.getAttributeValue(null, "name");
+                            String alias = reader.getAttributeValue(null, "alias");
+                            if (name != null && alias != null) {
+                                aliases.computeIfAbsent(name, k -> new LinkedHashSet<>()).add(alias);
+                            }
+                        }
+                        case "bean" -> {
+                            if (beanDepth++ == 0) {
+                                current = new XmlBeanBuilder(reader);
+                            }
+                            if (current != null) {
+                                current.addReferences(reader, inConstructorArg);
+                            }
+                        }
+                        case "constructor-arg" -> {
+                            inConstructorArg = true;
+                            if (current != null) {
+                                current.addReference(reader.getAttributeValue(null, "ref"), true);
+                            }
+                        }
+                        case "property" -> {
+                            if (current != null) {
+                                current.addReference(reader.getAttributeValue(null, "ref"), inConstructorArg);
+                            }
+                        }
+                        case "ref" -> {
+                            if (current != null) {
+                                String reference = reader.getAttributeValue(null, "bean");
+                                current.addReference(reference != null ? reference : reader.getAttributeValue(null, "local"), inConstructorArg);
+                            }
+                        }
+                        default -> {
+                        }
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    if ("constructor-arg".equals(reader.getLocalName())) {
+                        inConstructorArg = false;
+                    } else if ("bean".equals(reader.getLocalName()) && --beanDepth == 0 && current != null) {
+                        beans.add(current.build());
+                        current = null;
+                    }
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        // Aliases may be declared anywhere in the file, so they are attached once all beans are known
+        for (XmlBean bean : beans) {
+            for (String name : new ArrayList<>(bean.names())) {
+                bean.names().addAll(aliases.getOrDefault(name, Set.of()));
+            }
+        }
+        return new SpringXmlBeanModel(componentScanPackages, beans, imports);
+    }
+
+    private static void addPackages(String basePackage, Set<String> packages) {
+        if (basePackage != null && !basePackage.isEmpty()) {
+            for (String pkg : basePackage.split("[,;\\s]+")) {
+                if (!pkg.isBlank()) {
+                    packages.add(pkg.trim());
+                }
+            }
+        }
+    }
+
+    private static final class XmlBeanBuilder {
+        private final String id;
+        private final Set<String> names = new LinkedHashSet<>();
+        private final String className;
+        private final List<String> constructorReferences = new ArrayList<>();
+        private final List<String> propertyReferences = new ArrayList<>();
+
+        XmlBeanBuilder(XMLStreamReader reader) {
+            id = reader.getAttributeValue(null, "id");
+            className = reader.getAttributeValue(null, "class");
+            if (id != null) {
+                names.add(id);
+            }
+            String nameAttribute = reader.getAttributeValue(null, "name");
+            if (nameAttribute != null) {
+                for (String name : nameAttribute.split("[,;\\s]+")) {
+                    if (!name.isBlank()) {
+                        names.add(name.trim());
+                    }
+                }
+            }
+            String dependsOn = reader.getAttributeValue(null, "depends-on");
+            if (dependsOn != null) {
+                for (String reference : dependsOn.split("[,;\\s]+")) {
+                    addReference(reference, false);
+                }
+            }
+        }
+
+        /**
+         * Adds the references made through the p: and c: namespace attributes of a bean element.
+         */
+        void addReferences(XMLStreamReader reader, boolean constructor) {
+            for (int i = 0; i < reader.getAttributeCount(); i++) {
+                String attributeName = reader.getAttributeLocalName(i);
+                String namespace = reader.getAttributeNamespace(i);
+                if (namespace != null && attributeName.endsWith("-ref")) {
+                    addReference(reader.getAttributeValue(i), constructor || namespace.endsWith("/c"));
+                }
+            }
+        }
+
+        void addReference(String reference, boolean constructor) {
+            if (reference != null && !reference.isBlank()) {
+                (constructor ? constructorReferences : propertyReferences).add(reference.trim());
+            }
+        }
+
+        XmlBean build() {
+            return new XmlBean(id, names, className, constructorReferences, propertyReferences);
+        }
+    }
+}
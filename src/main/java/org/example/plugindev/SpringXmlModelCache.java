@@ -0,0 +1,260 @@
+package org.example.plugindev;
+
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.module.ModuleUtilCore;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.OrderEnumerator;
+import com.intellij.openapi.roots.ProjectRootManager;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.psi.search.FilenameIndex;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import org.jetbrains.annotations.NotNull;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the {@link SpringXmlBeanModel} of every XML file of a project.
+ * A file is parsed again only when its modification stamp changes, so the checkers can look
+ * bean definitions up as often as they need without re-reading XML.
+ * The cache also resolves {@code <import resource>} chains: the imports of a file are resolved once
+ * per modification stamp and project roots change, and a fragment imported by many contexts is parsed once.
+ * The bean classes of the loaded contexts, the root context files of the project and what they import,
+ * are kept as a set until the next PSI, file or root change, so checking a class is a lookup.
+ */
+@Service(Service.Level.PROJECT)
+public final class SpringXmlModelCache {
+
+    private static final Logger logger = Logger.getInstance(SpringXmlModelCache.class);
+    private static final String CLASSPATH_PREFIX = "classpath:";
+    private static final String CLASSPATH_ALL_PREFIX = "classpath*:";
+    private static final String FILE_PREFIX = "file:";
+    private static final String ROOT_CONTEXT_PATTERN = "spring-.*\\.xml";
+
+    private final Project project;
+    private final Map<VirtualFile, CachedModel> models = new ConcurrentHashMap<>();
+    private final Map<VirtualFile, CachedImports> imports = new ConcurrentHashMap<>();
+    private final CachedValue<Set<String>> contextBeanClasses;
+
+    private record CachedModel(long modificationStamp, SpringXmlBeanModel model) {
+    }
+
+    private record CachedImports(long modificationStamp, long rootsModificationCount, List<VirtualFile> files) {
+    }
+
+    public SpringXmlModelCache(@NotNull Project project) {
+        this.project = project;
+        this.contextBeanClasses = CachedValuesManager.getManager(project).createCachedValue(
+                () -> CachedValueProvider.Result.create(collectContextBeanClasses(),
+                        PsiModificationTracker.getInstance(project), VirtualFileManager.VFS_STRUCTURE_MODIFICATIONS,
+                        ProjectRootManager.getInstance(project)),
+                false);
+    }
+
+    /**
+     * Checks if a file is the root of a Spring XML context, such as {@code spring-context.xml}.
+     *
+     * @param file the file to check
+     * @return true if the file name is the one of a root context file
+     */
+    public static boolean isRootContextFile(@NotNull VirtualFile file) {
+        return file.getName().matches(ROOT_CONTEXT_PATTERN);
+    }
+
+    /**
+     * Gets the cache service of the given project.
+     *
+     * @param project the current project
+     * @return the cache service
+     */
+    public static SpringXmlModelCache getInstance(@NotNull Project project) {
+        return project.getService(SpringXmlModelCache.class);
+    }
+
+    /**
+     * Gets the model of an XML file, parsing it if the file changed since it was last read.
+     *
+     * @param xmlFile the XML file
+     * @return the model of the file, empty if the file cannot be parsed
+     */
+    public SpringXmlBeanModel getModel(@NotNull VirtualFile xmlFile) {
+        long modificationStamp = xmlFile.getModificationStamp();
+        CachedModel cached = models.get(xmlFile);
+        if (cached == null || cached.modificationStamp() != modificationStamp) {
+            cached = new CachedModel(modificationStamp, parse(xmlFile));
+            models.put(xmlFile, cached);
+        }
+        return cached.model();
+    }
+
+    /**
+     * Gets the models of the given XML files.
+     *
+     * @param xmlFiles the XML files
+     * @return the models in the order of the files
+     */
+    public List<SpringXmlBeanModel> getModels(@NotNull Collection<VirtualFile> xmlFiles) {
+        List<SpringXmlBeanModel> fileModels = new ArrayList<>();
+        for (VirtualFile xmlFile : xmlFiles) {
+            fileModels.add(getModel(xmlFile));
+        }
+        return fileModels;
+    }
+
+    /**
+     * Gets the models of the given root context files and of every file they import, directly or transitively.
+     * Imports are followed across modules and library jars. Must be called inside a read action.
+     *
+     * @param rootFiles the root context files
+     * @return the models of the context files, each file once, in discovery order
+     */
+    public Map<VirtualFile, SpringXmlBeanModel> getContextModels(@NotNull Collection<VirtualFile> rootFiles) {
+        Map<VirtualFile, SpringXmlBeanModel> contextModels = new LinkedHashMap<>();
+        Deque<VirtualFile> pending = new ArrayDeque<>(rootFiles);
+        while (!pending.isEmpty()) {
+            VirtualFile xmlFile = pending.poll();
+            if (contextModels.containsKey(xmlFile)) {
+                continue;
+            }
+            contextModels.put(xmlFile, getModel(xmlFile));
+            pending.addAll(getImportedFiles(xmlFile));
+        }
+        return contextModels;
+    }
+
+    /**
+     * Gets the files imported by an XML file. Must be called inside a read action.
+     *
+     * @param xmlFile the XML file
+     * @return the resolved imported files, unresolvable locations are skipped
+     */
+    public List<VirtualFile> getImportedFiles(@NotNull VirtualFile xmlFile) {
+        long modificationStamp = xmlFile.getModificationStamp();
+        long rootsModificationCount = ProjectRootManager.getInstance(project).getModificationCount();
+        CachedImports cached = imports.get(xmlFile);
+        if (cached == null || cached.modificationStamp() != modificationStamp
+                || cached.rootsModificationCount() != rootsModificationCount) {
+            cached = new CachedImports(modificationStamp, rootsModificationCount, resolveImports(xmlFile));
+            imports.put(xmlFile, cached);
+        }
+        return cached.files();
+    }
+
+    /**
+     * Gets the models of the XML files of the project sources in the given scope. Must be called inside a read action.
+     *
+     * @param scope the scope to search
+     * @return the models of the project XML files in the scope
+     */
+    public List<SpringXmlBeanModel> getModels(@NotNull GlobalSearchScope scope) {
+        return getModels(FilenameIndex.getAllFilesByExt(project, "xml",
+                scope.intersectWith(GlobalSearchScope.projectScope(project))));
+    }
+
+    /**
+     * Checks if a bean of the given class is declared in the loaded XML contexts: the root context files
+     * of the project sources and the files they import. Must be called inside a read action.
+     *
+     * @param className the fully qualified class name
+     * @return true if an XML bean of a loaded context has this class, false otherwise
+     */
+    public boolean isBeanClass(@NotNull String className) {
+        return contextBeanClasses.getValue().contains(className);
+    }
+
+    private Set<String> collectContextBeanClasses() {
+        List<VirtualFile> rootFiles = new ArrayList<>();
+        for (VirtualFile xmlFile : FilenameIndex.getAllFilesByExt(project, "xml", GlobalSearchScope.projectScope(project))) {
+            if (isRootContextFile(xmlFile)) {
+                rootFiles.add(xmlFile);
+            }
+        }
+        Set<String> classNames = new HashSet<>();
+        for (SpringXmlBeanModel model : getContextModels(rootFiles).values()) {
+            for (SpringXmlBeanModel.XmlBean bean : model.getBeans()) {
+                if (bean.className() != null) {
+                    classNames.add(bean.className());
+                }
+            }
+        }
+        return classNames;
+    }
+
+    private List<VirtualFile> resolveImports(VirtualFile xmlFile) {
+        List<VirtualFile> importedFiles = new ArrayList<>();
+        VirtualFile[] classpathRoots = null;
+        for (String location : getModel(xmlFile).getImports()) {
+            if (location.contains("${") || location.indexOf('*', location.indexOf(':') + 1) >= 0) {
+                logger.info("Skipping unresolvable import " + location + " in " + xmlFile.getName());
+                continue;
+            }
+            VirtualFile importedFile;
+            if (location.startsWith(CLASSPATH_PREFIX) || location.startsWith(CLASSPATH_ALL_PREFIX)) {
+                if (classpathRoots == null) {
+                    classpathRoots = getClasspathRoots(xmlFile);
+                }
+                importedFile = findInRoots(location.substring(location.indexOf(':') + 1), classpathRoots);
+            } else if (location.startsWith(FILE_PREFIX)) {
+                importedFile = LocalFileSystem.getInstance().findFileByPath(location.substring(FILE_PREFIX.length()));
+            } else {
+                VirtualFile directory = xmlFile.getParent();
+                importedFile = directory != null ? directory.findFileByRelativePath(location) : null;
+            }
+            if (importedFile != null && !importedFile.isDirectory()) {
+                importedFiles.add(importedFile);
+            } else {
+                logger.warn("Import " + location + " in " + xmlFile.getPath() + " not found");
+            }
+        }
+        return importedFiles;
+    }
+
+    /**
+     * Gets the source and class roots visible from the module of the file, library jars included,
+     * or the roots of the whole project if the file is not part of a module.
+     */
+    private VirtualFile[] getClasspathRoots(VirtualFile xmlFile) {
+        Module module = ModuleUtilCore.findModuleForFile(xmlFile, project);
+        OrderEnumerator enumerator = module != null
+                ? OrderEnumerator.orderEntries(module).recursively()
+                : OrderEnumerator.orderEntries(project);
+        List<VirtualFile> roots = new ArrayList<>(Arrays.asList(enumerator.withoutSdk().getAllSourceRoots()));
+        roots.addAll(Arrays.asList(enumerator.withoutSdk().getClassesRoots()));
+        return roots.toArray(VirtualFile.EMPTY_ARRAY);
+    }
+
+    private static VirtualFile findInRoots(String path, VirtualFile[] roots) {
+        String relativePath = StringUtil.trimStart(path, "/");
+        for (VirtualFile root : roots) {
+            VirtualFile file = root.findFileByRelativePath(relativePath);
+            if (file != null) {
+                return file;
+            }
+        }
+        return null;
+    }
+
+    private SpringXmlBeanModel parse(VirtualFile xmlFile) {
+        try (InputStream input = xmlFile.getInputStream()) {
+            SpringXmlBeanModel model = SpringXmlBeanModel.parse(input);
+            logger.info("Parsed " + xmlFile.getName() + ": " + model.getBeans().size() + " beans, packages "
+                    + model.getComponentScanPackages());
+            return model;
+        } catch (IOException | XMLStreamException ex) {
+            logger.warn("Error parsing XML file " + xmlFile.getName(), ex);
+            return SpringXmlBeanModel.EMPTY;
+        }
+    }
+}
@@ -5,21 +5,16 @@ import com.intellij.notification.NotificationType;
 import com.intellij.notification.Notifications;
 import com.intellij.openapi.actionSystem.AnAction;
 import com.intellij.openapi.actionSystem.AnActionEvent;
-import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ReadAction;
 import com.intellij.openapi.progress.ProgressIndicator;
 import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.DumbService;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.vfs.LocalFileSystem;
 import com.intellij.openapi.vfs.VirtualFile;
-import com.intellij.psi.*;
 import org.jetbrains.annotations.NotNull;
 import java.util.*;
 import com.intellij.openapi.diagnostic.Logger;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.NodeList;
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
 
 /**
  * An IntelliJ IDEA plugin action that processes project files,
@@ -45,15 +40,7 @@ public class StartPlugin extends AnAction {
                     Runtime runtime = Runtime.getRuntime();
                     long startMemory = runtime.totalMemory() - runtime.freeMemory();
 
-                    try {
-                        handleProject(project, indicator);
-                    } catch (RuntimeException ex) {
-                        if (ex.getMessage() == null || !ex.getMessage().startsWith("Error notification shown: ")) {
-                            throw ex;
-                        } else {
-                            System.out.println("Exiting peacefully: " + ex.getMessage());
-                        }
-                    }
+                    handleProject(project, indicator);
                     long endTime = System.nanoTime();
                     long elapsedTime = (endTime - startTime) / 1_000_000; // Convert to milliseconds
                     long endMemory = runtime.totalMemory() - runtime.freeMemory();
@@ -84,7 +71,11 @@ public class StartPlugin extends AnAction {
      * @param indicator progress bar indicator used
      */
     private void handleProject(Project project, @NotNull ProgressIndicator indicator) {
+        indicator.setText("Waiting for indices");
+        DumbService.getInstance(project).waitForSmartMode();
+
         indicator.setText("Starting plugin action");
+        BeanFindingsService.getInstance(project).startRun();
         List<VirtualFile> springXmlFiles = new ArrayList<>();
         Set<String> packages = new HashSet<>();
 
@@ -93,11 +84,14 @@ public class StartPlugin extends AnAction {
             findModulesAndSpringXmlFiles(basePath, springXmlFiles);
         }
 
+        indicator.setText("Reading Spring XML bean definitions");
+        List<SpringXmlBeanModel> xmlModels = getSpringXmlModels(project, springXmlFiles);
+
         indicator.setText("Finding Spring XML packages");
-        findSpringXmlPackages(springXmlFiles, packages);
+        findSpringXmlPackages(xmlModels, packages);
 
         indicator.setText("Processing packages and classes");
-        processPackagesAndClasses(basePath, project, packages, indicator);
+        processPackagesAndClasses(project, packages, xmlModels, indicator);
     }
 
     /**
@@ -130,7 +124,7 @@ public class StartPlugin extends AnAction {
             for (VirtualFile child : currentDir.getChildren()) {
                 if (child.isDirectory()) {
                     stack.push(child);
-                } else if (child.getName().matches("spring-.*\\.xml")) {
+                } else if (SpringXmlModelCache.isRootContextFile(child)) {
                     springXmlFiles.add(child);
                     logger.info("Spring XML file found: " + child.getPath());
                 }
@@ -141,16 +135,35 @@ public class StartPlugin extends AnAction {
     /**
      * Finds packages defined in the given list of Spring XML files.
      *
-     * @param xmlFiles the list of Spring XML files
-     * @param packages the set to store the found packages
+     * @param xmlModels the models of the Spring XML files
+     * @param packages  the set to store the found packages
      */
-    private void findSpringXmlPackages(List<VirtualFile> xmlFiles, Set<String> packages) {
+    private void findSpringXmlPackages(List<SpringXmlBeanModel> xmlModels, Set<String> packages) {
+        for (SpringXmlBeanModel xmlModel : xmlModels) {
+            packages.addAll(xmlModel.getComponentScanPackages());
+        }
+    }
+
+    /**
+     * Reads the bean definition models of the given root Spring XML files and of all the files they import,
+     * in other modules and library jars included. Models are cached per file, so unchanged files are not
+     * parsed again and a file imported by several contexts is read once.
+     *
+     * @param project  the current project
+     * @param xmlFiles the list of root Spring XML files
+     * @return the models of the Spring XML files
+     */
+    private List<SpringXmlBeanModel> getSpringXmlModels(Project project, List<VirtualFile> xmlFiles) {
+        List<VirtualFile> rootFiles = new ArrayList<>();
         for (VirtualFile xmlFile : xmlFiles) {
             if (isSpringXmlFile(xmlFile)) {
-                Set<String> xmlPackages = getPackagesFromXmlFile(xmlFile);
-                packages.addAll(xmlPackages);
+                rootFiles.add(xmlFile);
             }
         }
+        Map<VirtualFile, SpringXmlBeanModel> contextModels = ReadAction.compute(
+                () -> SpringXmlModelCache.getInstance(project).getContextModels(rootFiles));
+        logger.info("Spring XML context files: " + contextModels.size() + " reached from " + rootFiles.size() + " root files");
+        return new ArrayList<>(contextModels.values());
     }
 
     /**
@@ -164,63 +177,36 @@ public class StartPlugin extends AnAction {
         return fileName.contains("spring") && fileName.endsWith(".xml");
     }
 
-    /**
-     * Extracts packages from the given Spring XML file.
-     *
-     * @param xmlFile the Spring XML file to process
-     * @return a set of packages found in the XML file
-     */
-    private Set<String> getPackagesFromXmlFile(VirtualFile xmlFile) {
-        Set<String> packages = new HashSet<>();
-        try {
-            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-            DocumentBuilder builder = factory.newDocumentBuilder();
-            Document doc = builder.parse(xmlFile.getInputStream());
-            NodeList componentScanNodes = doc.getElementsByTagName("context:component-scan");
-
-            for (int i = 0; i < componentScanNodes.getLength(); i++) {
-                Element element = (Element) componentScanNodes.item(i);
-                String basePackage = element.getAttribute("base-package");
-                if (!basePackage.isEmpty()) {
-                    String[] basePackages = basePackage.split(",");
-                    for (String pkg : basePackages) {
-                        packages.add(pkg.trim());
-                    }
-                }
-            }
-            logger.info("Packages found in " + xmlFile.getName() + ": " + packages);
-        } catch (Exception ex) {
-            logger.error("Error parsing XML file " + xmlFile.getName(), ex);
-        }
-        return packages;
-    }
-
-
     /**
      * Processes the packages and classes in the given project. This method performs the following steps:
-     * 1. Collects Java files from the specified packages.
-     * 2. Checks for errors in the project using the {@link AnnotationChecker}.
-     * 3. Processes the used classes to extract their package names.
-     * 4. Prints the class names and their corresponding packages.
-     * 5. Checks if the packages defined in the XML are used in the project.
+     * 1. Checks for errors in every module in parallel using the {@link ModuleBeanAnalyzer}.
+     * 2. Reports the bean names and qualifiers given to several beans, found by the {@link QualifierRegistry}.
+     * 3. Checks for circular dependencies on the bean graph merged from all modules and the XML bean definitions,
+     *    which also seeds the {@link BeanCycleService} used while editing.
+     * 4. Processes the used classes to extract their package names.
+     * 5. Prints the class names and their corresponding packages.
+     * 6. Checks if the packages defined in the XML are used in the project.
      *
-     * @param basePath  the base path of the project
      * @param project   the project to process
      * @param packages  the set of packages to process
+     * @param xmlModels the models of the Spring XML files
      * @param indicator progress bar indicator used to show the current processing step
      */
-    private void processPackagesAndClasses(String basePath, Project project, Set<String> packages, ProgressIndicator indicator) {
-        List<PsiFile> psiFiles = new ArrayList<>();
+    private void processPackagesAndClasses(Project project, Set<String> packages, List<SpringXmlBeanModel> xmlModels,
+                                           ProgressIndicator indicator) {
+        indicator.setText("Checking for errors in project modules");
+        ModuleBeanAnalyzer moduleAnalyzer = new ModuleBeanAnalyzer(project, packages);
+        BeanGraph beanGraph = moduleAnalyzer.analyze(indicator, SpringXmlBeanModel.buildGraph(xmlModels));
+        BeanCycleService.getInstance(project).reset(beanGraph);
 
-        indicator.setText("Collecting Java files from packages");
-        collectJavaFilesFromPackages(basePath, project, psiFiles, packages);
+        indicator.setText("Checking for duplicate bean names and qualifiers");
+        ReadAction.run(() -> MultipleBeansAndDuplicateQualifiers.reportDuplicateQualifiers(project, xmlModels));
 
-        indicator.setText("Checking for errors in project");
-        AnnotationChecker annotationChecker = new AnnotationChecker();
-        checkAnnotationsInProject(project, annotationChecker, packages);
+        indicator.setText("Checking for cycles across modules");
+        moduleAnalyzer.checkCycles(beanGraph);
 
         indicator.setText("Processing used classes");
-        Set<String> usedClasses = annotationChecker.getBeanClassNames();
+        Set<String> usedClasses = moduleAnalyzer.getBeanClassNames();
 
         indicator.setText("Extracting package names");
         Set<String> packageNames = extractPackageNames(usedClasses);
@@ -245,127 +231,6 @@ public class StartPlugin extends AnAction {
     }
 
 
-    /**
-     * Collects Java files from the given packages in the project.
-     *
-     * @param basePath the base path of the project
-     * @param project the project to process
-     * @param psiFiles the list to store the found Java files
-     * @param packages the set of packages to search for Java files
-     */
-    private void collectJavaFilesFromPackages(String basePath, Project project, List<PsiFile> psiFiles, Set<String> packages) {
-        for (String pkg : packages) {
-            String packagePath = "src/main/java/" + pkg.replace('.', '/');
-            String packageFullPath = basePath + "/" + packagePath;
-            VirtualFile packageDir = LocalFileSystem.getInstance().findFileByPath(packageFullPath);
-            if (packageDir != null) {
-                collectJavaFilesInDirectory(packageDir, project, psiFiles);
-            }
-        }
-    }
-
-    /**
-     * Collects Java files in the given directory recursively.
-     *
-     * @param dir the directory to search for Java files
-     * @param project the project to process
-     * @param psiFiles the list to store the found Java files
-     */
-    private void collectJavaFilesInDirectory(VirtualFile dir, Project project, List<PsiFile> psiFiles) {
-        Stack<VirtualFile> stack = new Stack<>();
-        stack.push(dir);
-        PsiManager psiManager = PsiManager.getInstance(project);
-
-        while (!stack.isEmpty()) {
-            VirtualFile currentDir = stack.pop();
-            for (VirtualFile child : currentDir.getChildren()) {
-                if (child.isDirectory()) {
-                    stack.push(child);
-                } else if (child.getName().endsWith(".java")) {
-                    ApplicationManager.getApplication().runReadAction(() -> {
-                        PsiFile psiFile = psiManager.findFile(child);
-                        if (psiFile != null) {
-                            psiFiles.add(psiFile);
-                        }
-                    });
-                }
-            }
-        }
-    }
-
-    /**
-     * Checks annotations in the project using the given AnnotationChecker.
-     *
-     * @param project the project to process
-     * @param annotationChecker the checker to use for checking annotations
-     */
-    private void checkAnnotationsInProject(Project project, AnnotationChecker annotationChecker, Set<String> packages) {
-        Set<String> classNames = getClassNamesFromProject(project, packages);
-        for (String className : classNames) {
-            ApplicationManager.getApplication().runReadAction(() -> {
-                PsiClass psiClass = AnnotationChecker.findPsiClassByName(className, project);
-                if (psiClass != null) {
-                    annotationChecker.checkAnnotations(psiClass, project);
-                }
-            });
-        }
-    }
-
-
-    /**
-     * Collects all Java class names in the project.
-     *
-     * @param project the project to process
-     * @return a set of class names found in the project
-     */
-    private Set<String> getClassNamesFromProject(Project project, Set<String> packages) {
-        Set<String> classNames = new HashSet<>();
-        VirtualFile baseDir = LocalFileSystem.getInstance().findFileByPath(Objects.requireNonNull(project.getBasePath()));
-        if (baseDir != null) {
-            collectJavaFiles(baseDir, classNames, packages);
-        }
-        return classNames;
-    }
-
-    /**
-     * Collects Java files in the given directory and extracts their class names.
-     *
-     * @param dir the directory to search for Java files
-     * @param classNames the set to store the found class names
-     */
-    private void collectJavaFiles(VirtualFile dir, Set<String> classNames, Set<String> packages) {
-        Stack<VirtualFile> stack = new Stack<>();
-        stack.push(dir);
-
-        while (!stack.isEmpty()) {
-            VirtualFile currentDir = stack.pop();
-            for (VirtualFile child : currentDir.getChildren()) {
-                if (child.isDirectory()) {
-                    stack.push(child);
-                } else if (child.getName().endsWith(".java")) {
-                    String className = getClassNameFromFile(child);
-                    String classPackage = getClassPackage(className);
-                    if (packages.contains(classPackage)) {
-                        classNames.add(className);
-                    }
-                }
-            }
-        }
-    }
-
-
-    /**
-     * Extracts the class name from the given Java file.
-     *
-     * @param file the Java file to process
-     * @return the class name derived from the file path
-     */
-    private String getClassNameFromFile(VirtualFile file) {
-        // Assuming the file path corresponds to the class's package structure
-        String relativePath = file.getPath().substring(file.getPath().indexOf("src/main/java/") + "src/main/java/".length());
-        return relativePath.replace('/', '.').replace(".java", "");
-    }
-
     /**
      * Extracts the package name from the given class name.
      *
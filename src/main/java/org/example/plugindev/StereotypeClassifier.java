@@ -0,0 +1,157 @@
+package org.example.plugindev;
+
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.*;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decides whether a class is a Spring bean declared through a stereotype annotation.
+ * An annotation is a stereotype if it is @Component or is meta-annotated with a stereotype,
+ * which covers @Service, @RestController, @Configuration and composed in-house stereotypes.
+ * Meta-annotations are resolved once per annotation type and the result is kept in a
+ * classification table until the next PSI modification, so classifying a class is a single
+ * pass over its annotations with hash lookups.
+ */
+@Service(Service.Level.PROJECT)
+public final class StereotypeClassifier {
+
+    static final String COMPONENT_ANNOTATION = "org.springframework.stereotype.Component";
+    static final Set<String> BUILT_IN_STEREOTYPES = new HashSet<>();
+
+    static {
+        BUILT_IN_STEREOTYPES.add(COMPONENT_ANNOTATION);
+        BUILT_IN_STEREOTYPES.add("org.springframework.stereotype.Service");
+        BUILT_IN_STEREOTYPES.add("org.springframework.stereotype.Repository");
+        BUILT_IN_STEREOTYPES.add("org.springframework.stereotype.Controller");
+        BUILT_IN_STEREOTYPES.add("org.springframework.web.bind.annotation.RestController");
+        BUILT_IN_STEREOTYPES.add("org.springframework.web.bind.annotation.ControllerAdvice");
+        BUILT_IN_STEREOTYPES.add("org.springframework.web.bind.annotation.RestControllerAdvice");
+        BUILT_IN_STEREOTYPES.add("org.springframework.context.annotation.Configuration");
+        BUILT_IN_STEREOTYPES.add("org.springframework.boot.autoconfigure.SpringBootApplication");
+        BUILT_IN_STEREOTYPES.add("org.springframework.boot.SpringBootConfiguration");
+    }
+
+    private final Project project;
+    private final CachedValue<Map<String, Boolean>> classification;
+
+    public StereotypeClassifier(@NotNull Project project) {
+        this.project = project;
+        this.classification = CachedValuesManager.getManager(project).createCachedValue(
+                () -> CachedValueProvider.Result.create(new ConcurrentHashMap<>(), PsiModificationTracker.getInstance(project)),
+                false);
+    }
+
+    /**
+     * Gets the classifier of the given project.
+     *
+     * @param project the current project
+     * @return the classifier service
+     */
+    public static StereotypeClassifier getInstance(@NotNull Project project) {
+        return project.getService(StereotypeClassifier.class);
+    }
+
+    /**
+     * Checks if a class is annotated with a stereotype annotation, directly or through meta-annotations.
+     *
+     * @param psiClass the class to inspect
+     * @return true if the class is a stereotype bean, false otherwise
+     */
+    public static boolean isStereotype(@NotNull PsiClass psiClass) {
+        return getInstance(psiClass.getProject()).hasStereotypeAnnotation(psiClass);
+    }
+
+    /**
+     * Checks if one of the annotations of the given element is a stereotype.
+     *
+     * @param owner the element to inspect
+     * @return true if the element carries a stereotype annotation, false otherwise
+     */
+    public boolean hasStereotypeAnnotation(@NotNull PsiModifierListOwner owner) {
+        PsiModifierList modifierList = owner.getModifierList();
+        if (modifierList != null) {
+            for (PsiAnnotation annotation : modifierList.getAnnotations()) {
+                String annotationName = annotation.getQualifiedName();
+                if (annotationName != null && isStereotypeAnnotation(annotationName)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks if the annotation with the given name is a stereotype.
+     *
+     * @param annotationName the fully qualified name of the annotation
+     * @return true if the annotation is a stereotype, false otherwise
+     */
+    public boolean isStereotypeAnnotation(@NotNull String annotationName) {
+        return classify(annotationName, new Traversal());
+    }
+
+    /**
+     * The annotations being classified, by depth in the meta-annotation path, and the lowest depth a
+     * meta-annotation cycle led back to below the annotation being classified.
+     */
+    private static final class Traversal {
+        private final Map<String, Integer> depths = new HashMap<>();
+        private int lowestCycleDepth = Integer.MAX_VALUE;
+    }
+
+    /**
+     * Classifies an annotation by walking its meta-annotations depth first. A negative result which relied on
+     * a cycle back to an annotation still being classified is not kept, as that annotation may turn out to be
+     * a stereotype through another meta-annotation; it is classified again on its own later.
+     */
+    private boolean classify(String annotationName, Traversal traversal) {
+        Map<String, Boolean> table = classification.getValue();
+        Boolean stereotype = table.get(annotationName);
+        if (stereotype != null) {
+            return stereotype;
+        }
+        Integer cycleDepth = traversal.depths.get(annotationName);
+        if (cycleDepth != null) {
+            // Meta-annotation cycle, the annotation is not a stereotype through this path
+            traversal.lowestCycleDepth = Math.min(traversal.lowestCycleDepth, cycleDepth);
+            return false;
+        }
+        int depth = traversal.depths.size();
+        int outerCycleDepth = traversal.lowestCycleDepth;
+        traversal.depths.put(annotationName, depth);
+        traversal.lowestCycleDepth = Integer.MAX_VALUE;
+        stereotype = BUILT_IN_STEREOTYPES.contains(annotationName) || isMetaAnnotatedStereotype(annotationName, traversal);
+        traversal.depths.remove(annotationName);
+        if (stereotype || traversal.lowestCycleDepth >= depth) {
+            table.put(annotationName, stereotype);
+        }
+        traversal.lowestCycleDepth = Math.min(outerCycleDepth, traversal.lowestCycleDepth);
+        return stereotype;
+    }
+
+    private boolean isMetaAnnotatedStereotype(String annotationName, Traversal traversal) {
+        if (annotationName.startsWith("java.") || annotationName.startsWith("kotlin.")) {
+            return false;
+        }
+        PsiClass annotationClass = JavaPsiFacade.getInstance(project).findClass(annotationName, GlobalSearchScope.allScope(project));
+        if (annotationClass == null || !annotationClass.isAnnotationType() || annotationClass.getModifierList() == null) {
+            return false;
+        }
+        for (PsiAnnotation metaAnnotation : annotationClass.getModifierList().getAnnotations()) {
+            String metaAnnotationName = metaAnnotation.getQualifiedName();
+            if (metaAnnotationName != null && classify(metaAnnotationName, traversal)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,75 @@
+package org.example.plugindev;
+
+import com.intellij.openapi.application.ApplicationStarter;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Validates the beans of compiled classes from the command line, for example on CI:
+ * {@code idea.sh validateBeans build/classes/java/main build/libs/shared.jar}.
+ * No project is opened and nothing is indexed; the classes and Spring XML files are read by the
+ * {@link BytecodeBeanScanner} and the cycles are found as in the IDE. With {@code --bounded-memory} first,
+ * the graph is spilled to memory-mapped files by a {@link SpilledBeanGraphBuilder}. The process exits with 1
+ * if a cycle is reported, 2 on a usage or read error and 0 otherwise.
+ */
+public class ValidateBeansStarter implements ApplicationStarter {
+
+    private static final String BOUNDED_MEMORY_OPTION = "--bounded-memory";
+
+    /**
+     * Scans the class roots given on the command line, prints the cycles found and exits with the status of {@link #run}.
+     *
+     * @param args the command name, optionally {@code --bounded-memory}, then the output directories and jars to scan
+     */
+    @Override
+    public void main(@NotNull List<String> args) {
+        System.exit(run(args, System.out, System.err));
+    }
+
+    /**
+     * Scans the class roots given on the command line and prints the cycles found.
+     *
+     * @param args the command name, optionally {@code --bounded-memory}, then the output directories and jars to scan
+     * @param out  the stream the cycles and the summary are printed to
+     * @param err  the stream usage and read errors are printed to
+     * @return 1 if a cycle is reported, 2 on a usage or read error and 0 otherwise
+     */
+    static int run(@NotNull List<String> args, @NotNull PrintStream out, @NotNull PrintStream err) {
+        boolean boundedMemory = args.size() > 1 && args.get(1).equals(BOUNDED_MEMORY_OPTION);
+        int firstRoot = boundedMemory ? 2 : 1;
+        if (args.size() <= firstRoot) {
+            err.println("Usage: validateBeans [" + BOUNDED_MEMORY_OPTION + "] <class directory or jar>...");
+            return 2;
+        }
+        List<Path> roots = new ArrayList<>();
+        for (String arg : args.subList(firstRoot, args.size())) {
+            roots.add(Path.of(arg).toAbsolutePath());
+        }
+
+        long startTime = System.currentTimeMillis();
+        BytecodeBeanScanner scanner = new BytecodeBeanScanner(roots);
+        BeanGraph graph;
+        try {
+            graph = boundedMemory ? scanner.scan(new SpilledBeanGraphBuilder()) : scanner.scan();
+        } catch (IOException | UncheckedIOException ex) {
+            err.println("Error reading classes: " + ex.getMessage());
+            return 2;
+        }
+        Map<List<String>, BeanCycleFinder.CycleKind> cycles = ModuleBeanAnalyzer.findCycles(graph);
+        long elapsedTime = System.currentTimeMillis() - startTime;
+
+        for (Map.Entry<List<String>, BeanCycleFinder.CycleKind> cycle : cycles.entrySet()) {
+            out.println(CyclicDependencyDetector.describeCycle(cycle.getKey(), cycle.getValue()));
+        }
+        out.println("Scanned " + scanner.getClassCount() + " classes, parsed " + scanner.getParsedClassCount()
+                + ", found " + graph.getBeanCount() + " beans and " + cycles.size() + " cycles in " + elapsedTime + " ms");
+        return cycles.isEmpty() ? 0 : 1;
+    }
+}
@@ -0,0 +1,148 @@
+package org.example.plugindev;
+
+import junit.framework.TestCase;
+
+import java.util.*;
+
+/**
+ * Checks the {@link BeanCycleFinder} on random graphs against brute force: the components found by Tarjan's
+ * algorithm against mutual reachability, and the cycles of Johnson's algorithm and of the breadth-first search
+ * against every elementary cycle enumerated by a plain depth-first search, for each kind of dependency.
+ */
+public class BeanCycleFinderTest extends TestCase {
+
+    private static final BeanGraph.DependencyKind[] KINDS = BeanGraph.DependencyKind.values();
+
+    public void testCyclesOfRandomGraphs() {
+        Random random = new Random(11);
+        for (int round = 0; round < 2000; round++) {
+            int beanCount = 1 + random.nextInt(8);
+            int[][] kinds = new int[beanCount][beanCount];
+            BeanGraph.Builder builder = BeanGraph.builder();
+            for (int bean = 0; bean < beanCount; bean++) {
+                Arrays.fill(kinds[bean], -1);
+                builder.addBean("bean" + bean, null);
+            }
+            int edgeCount = random.nextInt(3 * beanCount);
+            for (int i = 0; i < edgeCount; i++) {
+                int bean = random.nextInt(beanCount);
+                int dependency = random.nextInt(beanCount);
+                BeanGraph.DependencyKind kind = KINDS[random.nextInt(KINDS.length)];
+                kinds[bean][dependency] = Math.max(kinds[bean][dependency], kind.ordinal());
+                builder.addDependency("bean" + bean, "bean" + dependency, kind);
+            }
+            BeanGraph graph = builder.build();
+
+            Set<Set<String>> expectedComponents = new HashSet<>();
+            for (int bean = 0; bean < beanCount; bean++) {
+                Set<String> component = new TreeSet<>();
+                for (int other = 0; other < beanCount; other++) {
+                    if (isReachable(kinds, bean, other) && isReachable(kinds, other, bean)) {
+                        component.add("bean" + other);
+                    }
+                }
+                if (component.size() > 1 || kinds[bean][bean] >= 0) {
+                    expectedComponents.add(component);
+                }
+            }
+            Set<Set<String>> components = new HashSet<>();
+            for (int[] component : BeanCycleFinder.findCyclicComponents(graph)) {
+                Set<String> names = new TreeSet<>();
+                for (int bean : component) {
+                    names.add(graph.getBeanName(bean));
+                }
+                components.add(names);
+                assertCycles(graph, kinds, component);
+            }
+            assertEquals("round " + round, expectedComponents, components);
+        }
+    }
+
+    private static void assertCycles(BeanGraph graph, int[][] kinds, int[] component) {
+        Set<Integer> members = new HashSet<>();
+        for (int bean : component) {
+            members.add(Integer.parseInt(graph.getBeanName(bean).substring("bean".length())));
+        }
+        for (BeanGraph.DependencyKind kind : KINDS) {
+            Set<List<String>> expectedCycles = new HashSet<>();
+            for (int start : members) {
+                findCycles(kinds, members, kind.ordinal(), new ArrayList<>(List.of(start)), expectedCycles);
+            }
+
+            List<List<String>> cycles = BeanCycleFinder.findElementaryCycles(graph, component, kind, Integer.MAX_VALUE);
+            assertEquals(expectedCycles, new HashSet<>(cycles));
+            for (int i = 1; i < cycles.size(); i++) {
+                assertTrue(cycles.get(i - 1).size() <= cycles.get(i).size());
+            }
+
+            List<String> shortest = BeanCycleFinder.findShortestCycle(graph, component, kind);
+            if (expectedCycles.isEmpty()) {
+                assertCycle(kinds, members, 0, shortest);
+            } else {
+                assertCycle(kinds, members, kind.ordinal(), shortest);
+                assertEquals(expectedCycles.stream().mapToInt(List::size).min().orElseThrow(), shortest.size());
+            }
+        }
+
+        BeanCycleFinder.CycleKind cycleKind = BeanCycleFinder.classifyComponent(graph, component);
+        boolean fatal = !BeanCycleFinder.findElementaryCycles(graph, component, BeanGraph.DependencyKind.CONSTRUCTOR, 1).isEmpty();
+        boolean resolvable = !BeanCycleFinder.findElementaryCycles(graph, component, BeanGraph.DependencyKind.PROPERTY, 1).isEmpty();
+        assertEquals(fatal ? BeanCycleFinder.CycleKind.FATAL
+                : resolvable ? BeanCycleFinder.CycleKind.RESOLVABLE : BeanCycleFinder.CycleKind.DEFERRED, cycleKind);
+    }
+
+    /**
+     * Enumerates the elementary cycles through the first bean of the path whose other beans all come after it,
+     * so each cycle is found once, from its smallest bean.
+     */
+    private static void findCycles(int[][] kinds, Set<Integer> members, int weakestKind, List<Integer> path, Set<List<String>> cycles) {
+        int start = path.get(0);
+        int bean = path.get(path.size() - 1);
+        for (int dependency : members) {
+            if (kinds[bean][dependency] < weakestKind) {
+                continue;
+            }
+            if (dependency == start) {
+                List<String> cycle = new ArrayList<>();
+                for (int member : path) {
+                    cycle.add("bean" + member);
+                }
+                cycles.add(cycle);
+            } else if (dependency > start && !path.contains(dependency)) {
+                path.add(dependency);
+                findCycles(kinds, members, weakestKind, path, cycles);
+                path.remove(path.size() - 1);
+            }
+        }
+    }
+
+    private static void assertCycle(int[][] kinds, Set<Integer> members, int weakestKind, List<String> cycle) {
+        assertFalse(cycle.isEmpty());
+        assertEquals(cycle.size(), new HashSet<>(cycle).size());
+        for (int i = 0; i < cycle.size(); i++) {
+            int bean = Integer.parseInt(cycle.get(i).substring("bean".length()));
+            int dependency = Integer.parseInt(cycle.get((i + 1) % cycle.size()).substring("bean".length()));
+            assertTrue(members.contains(bean));
+            assertTrue(cycle + " follows " + bean + " -> " + dependency, kinds[bean][dependency] >= weakestKind);
+        }
+    }
+
+    private static boolean isReachable(int[][] kinds, int from, int to) {
+        boolean[] visited = new boolean[kinds.length];
+        Deque<Integer> pending = new ArrayDeque<>(List.of(from));
+        visited[from] = true;
+        while (!pending.isEmpty()) {
+            int bean = pending.pop();
+            if (bean == to) {
+                return true;
+            }
+            for (int dependency = 0; dependency < kinds.length; dependency++) {
+                if (kinds[bean][dependency] >= 0 && !visited[dependency]) {
+                    visited[dependency] = true;
+                    pending.push(dependency);
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,225 @@
+package org.example.plugindev;
+
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Tests the {@link BytecodeBeanScanner} and the exit status of the {@link ValidateBeansStarter} on classes
+ * compiled from small fixtures against stubs of the Spring annotations. The stubs are compiled to their own
+ * directory, which is not scanned, like a library outside the class roots.
+ */
+public class BytecodeBeanScannerTest extends BasePlatformTestCase {
+
+    private static final Map<String, String> SPRING_STUBS = Map.of(
+            "org/springframework/stereotype/Component.java", """
+                    package org.springframework.stereotype;
+                    @java.lang.annotation.Retention(java.lang.annotation.RetentionPolicy.RUNTIME)
+                    public @interface Component { String value() default ""; }
+                    """,
+            "org/springframework/context/annotation/Configuration.java", """
+                    package org.springframework.context.annotation;
+                    @java.lang.annotation.Retention(java.lang.annotation.RetentionPolicy.RUNTIME)
+                    public @interface Configuration { String value() default ""; }
+                    """,
+            "org/springframework/context/annotation/Bean.java", """
+                    package org.springframework.context.annotation;
+                    @java.lang.annotation.Retention(java.lang.annotation.RetentionPolicy.RUNTIME)
+                    public @interface Bean { String[] value() default {}; }
+                    """,
+            "org/springframework/beans/factory/annotation/Qualifier.java", """
+                    package org.springframework.beans.factory.annotation;
+                    @java.lang.annotation.Retention(java.lang.annotation.RetentionPolicy.RUNTIME)
+                    public @interface Qualifier { String value() default ""; }
+                    """,
+            "lib/External.java", """
+                    package lib;
+                    public class External {}
+                    """);
+
+    private static final Map<String, String> CYCLE_FIXTURE = Map.of(
+            "fixture/cycle/Alpha.java", """
+                    package fixture.cycle;
+                    @org.springframework.stereotype.Component
+                    public class Alpha { public Alpha(Beta beta) {} }
+                    """,
+            "fixture/cycle/Beta.java", """
+                    package fixture.cycle;
+                    @org.springframework.stereotype.Component
+                    public class Beta { public Beta(Alpha alpha) {} }
+                    """);
+
+    private static final Map<String, String> BEANS_FIXTURE = Map.ofEntries(
+            Map.entry("fixture/beans/Store.java", """
+                    package fixture.beans;
+                    public interface Store {}
+                    """),
+            Map.entry("fixture/beans/FastStore.java", """
+                    package fixture.beans;
+                    @org.springframework.stereotype.Component
+                    @org.springframework.beans.factory.annotation.Qualifier("fast")
+                    public class FastStore implements Store {}
+                    """),
+            Map.entry("fixture/beans/SlowStore.java", """
+                    package fixture.beans;
+                    @org.springframework.stereotype.Component
+                    @org.springframework.beans.factory.annotation.Qualifier("slow")
+                    public class SlowStore implements Store {}
+                    """),
+            Map.entry("fixture/beans/Reader.java", """
+                    package fixture.beans;
+                    import org.springframework.beans.factory.annotation.Qualifier;
+                    @org.springframework.stereotype.Component
+                    public class Reader { public Reader(@Qualifier("fast") Store store) {} }
+                    """),
+            Map.entry("fixture/beans/Clock.java", """
+                    package fixture.beans;
+                    public class Clock {}
+                    """),
+            Map.entry("fixture/beans/ClockConfig.java", """
+                    package fixture.beans;
+                    @org.springframework.context.annotation.Configuration
+                    public class ClockConfig {
+                        @org.springframework.context.annotation.Bean
+                        public Clock clock() { return new Clock(); }
+                    }
+                    """),
+            Map.entry("fixture/beans/Timer.java", """
+                    package fixture.beans;
+                    @org.springframework.stereotype.Component
+                    public class Timer { public Timer(Clock clock) {} }
+                    """),
+            Map.entry("fixture/beans/Job.java", """
+                    package fixture.beans;
+                    @java.lang.annotation.Retention(java.lang.annotation.RetentionPolicy.RUNTIME)
+                    @org.springframework.stereotype.Component
+                    public @interface Job {}
+                    """),
+            Map.entry("fixture/beans/Helper.java", """
+                    package fixture.beans;
+                    public class Helper {}
+                    """),
+            Map.entry("fixture/beans/Cleanup.java", """
+                    package fixture.beans;
+                    @Job
+                    public class Cleanup { public Cleanup(Helper helper, lib.External external, Store store) {} }
+                    """));
+
+    private Path tempDir;
+    private Path springClasses;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        tempDir = Files.createTempDirectory("bytecode-bean-scanner");
+        springClasses = compile("spring", SPRING_STUBS);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        try {
+            FileUtil.delete(tempDir);
+        } finally {
+            super.tearDown();
+        }
+    }
+
+    public void testConstructorCycle() throws IOException {
+        BeanGraph graph = new BytecodeBeanScanner(List.of(compile("cycle", CYCLE_FIXTURE))).scan();
+
+        assertTrue(hasDependency(graph, "fixture.cycle.Alpha", "fixture.cycle.Beta"));
+        assertTrue(hasDependency(graph, "fixture.cycle.Beta", "fixture.cycle.Alpha"));
+        assertEquals(1, BeanCycleFinder.findCyclicComponents(graph).size());
+    }
+
+    public void testQualifierSelectsCandidate() throws IOException {
+        BeanGraph graph = new BytecodeBeanScanner(List.of(compile("beans", BEANS_FIXTURE))).scan();
+
+        assertTrue(hasDependency(graph, "fixture.beans.Reader", "fixture.beans.FastStore"));
+        assertFalse(hasDependency(graph, "fixture.beans.Reader", "fixture.beans.SlowStore"));
+    }
+
+    public void testFactoryBean() throws IOException {
+        BeanGraph graph = new BytecodeBeanScanner(List.of(compile("beans", BEANS_FIXTURE))).scan();
+
+        assertTrue(hasDependency(graph, "fixture.beans.Timer", "fixture.beans.ClockConfig#clock"));
+        assertTrue(hasDependency(graph, "fixture.beans.ClockConfig#clock", "fixture.beans.ClockConfig"));
+        assertEquals(-1, graph.indexOf("fixture.beans.Clock"));
+    }
+
+    public void testComposedStereotype() throws IOException {
+        BeanGraph graph = new BytecodeBeanScanner(List.of(compile("beans", BEANS_FIXTURE))).scan();
+
+        assertTrue(graph.indexOf("fixture.beans.Cleanup") >= 0);
+        assertEquals(-1, graph.indexOf("fixture.beans.Job"));
+    }
+
+    public void testNoEdgesToClassesWhichAreNotBeans() throws IOException {
+        BeanGraph graph = new BytecodeBeanScanner(List.of(compile("beans", BEANS_FIXTURE))).scan();
+
+        int cleanup = graph.indexOf("fixture.beans.Cleanup");
+        assertEquals(0, graph.getDependencies(cleanup).length);
+        assertEquals(-1, graph.indexOf("fixture.beans.Helper"));
+        assertEquals(-1, graph.indexOf("fixture.beans.Store"));
+        assertEquals(-1, graph.indexOf("lib.External"));
+    }
+
+    public void testExitStatus() throws IOException {
+        Path beans = compile("beans", BEANS_FIXTURE);
+        Path cycle = compile("cycle", CYCLE_FIXTURE);
+        Path brokenJar = Files.writeString(tempDir.resolve("broken.jar"), "not a jar");
+
+        assertEquals(2, runStarter());
+        assertEquals(2, runStarter("--bounded-memory"));
+        assertEquals(0, runStarter(beans.toString()));
+        assertEquals(1, runStarter(beans.toString(), cycle.toString()));
+        assertEquals(1, runStarter("--bounded-memory", cycle.toString()));
+        assertEquals(2, runStarter(beans.toString(), brokenJar.toString()));
+    }
+
+    private int runStarter(String... args) {
+        List<String> commandLine = new ArrayList<>();
+        commandLine.add("validateBeans");
+        commandLine.addAll(Arrays.asList(args));
+        PrintStream output = new PrintStream(new ByteArrayOutputStream(), true, StandardCharsets.UTF_8);
+        return ValidateBeansStarter.run(commandLine, output, output);
+    }
+
+    /**
+     * Writes the given sources and compiles them against the Spring stubs to a new class directory.
+     */
+    private Path compile(String name, Map<String, String> sources) throws IOException {
+        Path sourceDir = tempDir.resolve(name + "-src");
+        Path classDir = Files.createDirectories(tempDir.resolve(name));
+        List<String> arguments = new ArrayList<>(List.of("-d", classDir.toString()));
+        if (springClasses != null) {
+            arguments.addAll(List.of("-cp", springClasses.toString()));
+        }
+        for (Map.Entry<String, String> source : sources.entrySet()) {
+            Path sourceFile = sourceDir.resolve(source.getKey());
+            Files.createDirectories(sourceFile.getParent());
+            Files.writeString(sourceFile, source.getValue());
+            arguments.add(sourceFile.toString());
+        }
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        ByteArrayOutputStream errors = new ByteArrayOutputStream();
+        int status = compiler.run(null, null, errors, arguments.toArray(String[]::new));
+        assertEquals(errors.toString(StandardCharsets.UTF_8), 0, status);
+        return classDir;
+    }
+
+    private static boolean hasDependency(BeanGraph graph, String beanName, String dependencyName) {
+        int bean = graph.indexOf(beanName);
+        int dependency = graph.indexOf(dependencyName);
+        return bean >= 0 && dependency >= 0 && Arrays.stream(graph.getDependencies(bean)).anyMatch(d -> d == dependency);
+    }
+}
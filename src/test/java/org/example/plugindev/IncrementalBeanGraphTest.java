@@ -0,0 +1,70 @@
+package org.example.plugindev;
+
+import junit.framework.TestCase;
+
+import java.util.Random;
+
+/**
+ * Checks the components kept by the {@link IncrementalBeanGraph} against the mutual reachability of the beans,
+ * computed from scratch, after every dependency added or removed on random graphs.
+ */
+public class IncrementalBeanGraphTest extends TestCase {
+
+    public void testComponentsAfterEveryChange() {
+        Random random = new Random(7);
+        for (int round = 0; round < 300; round++) {
+            int beanCount = 2 + random.nextInt(25);
+            boolean[][] edges = new boolean[beanCount][beanCount];
+            IncrementalBeanGraph graph = new IncrementalBeanGraph();
+            BeanGraph.Builder builder = BeanGraph.builder();
+            for (int bean = 0; bean < beanCount; bean++) {
+                builder.addBean("bean" + bean, null);
+            }
+            if (random.nextBoolean()) {
+                for (int i = 0; i < beanCount; i++) {
+                    int bean = random.nextInt(beanCount);
+                    int dependency = random.nextInt(beanCount);
+                    edges[bean][dependency] = true;
+                    builder.addDependency("bean" + bean, "bean" + dependency, BeanGraph.DependencyKind.CONSTRUCTOR);
+                }
+            }
+            graph.load(builder.build());
+            assertComponents(graph, edges);
+
+            for (int change = 0; change < 60; change++) {
+                int bean = random.nextInt(beanCount);
+                int dependency = random.nextInt(beanCount);
+                edges[bean][dependency] = random.nextInt(3) > 0;
+                if (edges[bean][dependency]) {
+                    graph.addDependency("bean" + bean, "bean" + dependency, BeanGraph.DependencyKind.CONSTRUCTOR);
+                } else {
+                    graph.removeDependency("bean" + bean, "bean" + dependency);
+                }
+                assertComponents(graph, edges);
+            }
+        }
+    }
+
+    private static void assertComponents(IncrementalBeanGraph graph, boolean[][] edges) {
+        int beanCount = edges.length;
+        boolean[][] reachable = new boolean[beanCount][beanCount];
+        for (int bean = 0; bean < beanCount; bean++) {
+            reachable[bean] = edges[bean].clone();
+            reachable[bean][bean] = true;
+        }
+        for (int via = 0; via < beanCount; via++) {
+            for (int from = 0; from < beanCount; from++) {
+                for (int to = 0; to < beanCount; to++) {
+                    reachable[from][to] |= reachable[from][via] && reachable[via][to];
+                }
+            }
+        }
+        for (int bean = 0; bean < beanCount; bean++) {
+            for (int other = 0; other < beanCount; other++) {
+                assertEquals("bean" + bean + " and bean" + other,
+                        reachable[bean][other] && reachable[other][bean],
+                        graph.getComponent("bean" + bean).contains("bean" + other));
+            }
+        }
+    }
+}
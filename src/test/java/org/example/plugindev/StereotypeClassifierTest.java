@@ -0,0 +1,72 @@
+package org.example.plugindev;
+
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+
+import java.util.*;
+
+/**
+ * Checks the {@link StereotypeClassifier} on random meta-annotation graphs, cycles included, against plain
+ * reachability of @Component. The annotations of a graph are classified in a random order through the same
+ * classification table, so a result cached while another annotation was still being classified is checked too.
+ */
+public class StereotypeClassifierTest extends BasePlatformTestCase {
+
+    public void testRandomMetaAnnotationGraphs() {
+        myFixture.addClass("""
+                package org.springframework.stereotype;
+                public @interface Component {}
+                """);
+        StereotypeClassifier classifier = StereotypeClassifier.getInstance(getProject());
+        Random random = new Random(5);
+        for (int round = 0; round < 40; round++) {
+            int annotationCount = 2 + random.nextInt(6);
+            boolean[][] metaAnnotations = new boolean[annotationCount][annotationCount];
+            boolean[] components = new boolean[annotationCount];
+            for (int annotation = 0; annotation < annotationCount; annotation++) {
+                StringBuilder source = new StringBuilder("package round" + round + ";\n");
+                components[annotation] = random.nextInt(4) == 0;
+                if (components[annotation]) {
+                    source.append("@org.springframework.stereotype.Component\n");
+                }
+                for (int metaAnnotation = 0; metaAnnotation < annotationCount; metaAnnotation++) {
+                    metaAnnotations[annotation][metaAnnotation] = random.nextInt(3) == 0;
+                    if (metaAnnotations[annotation][metaAnnotation]) {
+                        source.append("@A").append(metaAnnotation).append('\n');
+                    }
+                }
+                source.append("public @interface A").append(annotation).append(" {}\n");
+                myFixture.addClass(source.toString());
+            }
+
+            List<Integer> queries = new ArrayList<>();
+            for (int annotation = 0; annotation < annotationCount; annotation++) {
+                queries.add(annotation);
+            }
+            Collections.shuffle(queries, random);
+            for (int annotation : queries) {
+                assertEquals("round" + round + ".A" + annotation,
+                        reachesComponent(metaAnnotations, components, annotation),
+                        classifier.isStereotypeAnnotation("round" + round + ".A" + annotation));
+            }
+        }
+    }
+
+    private static boolean reachesComponent(boolean[][] metaAnnotations, boolean[] components, int annotation) {
+        boolean[] visited = new boolean[components.length];
+        Deque<Integer> pending = new ArrayDeque<>(List.of(annotation));
+        visited[annotation] = true;
+        while (!pending.isEmpty()) {
+            int current = pending.pop();
+            if (components[current]) {
+                return true;
+            }
+            for (int metaAnnotation = 0; metaAnnotation < components.length; metaAnnotation++) {
+                if (metaAnnotations[current][metaAnnotation] && !visited[metaAnnotation]) {
+                    visited[metaAnnotation] = true;
+                    pending.push(metaAnnotation);
+                }
+            }
+        }
+        return false;
+    }
+}